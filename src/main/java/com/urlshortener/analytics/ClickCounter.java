@@ -0,0 +1,129 @@
+package com.urlshortener.analytics;
+
+import com.urlshortener.analytics.PendingClicks.ClickBatch;
+import com.urlshortener.repository.ShortUrlRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Aggregates redirect clicks in memory and writes them to the database in bulk.
+ *
+ * Clicks are tallied in {@link PendingClicks}, so redirects never wait on a database
+ * write. A scheduled flush drains the tallies, groups links with the same delta and
+ * applies each group as chunked bulk UPDATEs of at most
+ * {@code shortener.clicks.max-batch-size} codes.
+ */
+@Component
+public class ClickCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClickCounter.class);
+
+    private final PendingClicks pending = new PendingClicks();
+    // Not synchronized: a flush blocks on JDBC and must not pin a virtual thread's carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ShortUrlRepository shortUrlRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final boolean flushOnShutdown;
+    private final Counter flushedClicks;
+
+    @Autowired
+    public ClickCounter(ShortUrlRepository shortUrlRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${shortener.clicks.max-batch-size:500}") int maxBatchSize,
+                        @Value("${shortener.clicks.flush-on-shutdown:true}") boolean flushOnShutdown) {
+        this.shortUrlRepository = shortUrlRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.flushOnShutdown = flushOnShutdown;
+        this.flushedClicks = Counter.builder("shortener.clicks.flushed")
+                .description("Clicks written to the database")
+                .register(meterRegistry);
+        meterRegistry.gauge("shortener.clicks.pending.links", pending, PendingClicks::size);
+    }
+
+    /**
+     * Records one click for a short code without touching the database.
+     *
+     * @requires shortCode != null && !shortCode.isEmpty()
+     */
+    public void record(String shortCode) {
+        pending.record(shortCode);
+    }
+
+    /**
+     * Returns the clicks recorded for a short code that have not been flushed yet.
+     */
+    public long pendingCount(String shortCode) {
+        return pending.pendingCount(shortCode);
+    }
+
+    @Scheduled(fixedDelayString = "${shortener.clicks.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Click flush failed, counts will be retried on the next flush", e);
+        }
+    }
+
+    /**
+     * Drains all pending counters into the database.
+     *
+     * @return the number of clicks written
+     */
+    public long flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private long flushPending() {
+        Map<String, Long> deltas = pending.drain();
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        long written = 0;
+        try {
+            for (ClickBatch batch : PendingClicks.batches(deltas, maxBatchSize)) {
+                transactionTemplate.executeWithoutResult(status ->
+                        shortUrlRepository.addClickCounts(batch.getDelta(), batch.getShortCodes()));
+                batch.getShortCodes().forEach(deltas::remove);
+                written += batch.getClicks();
+            }
+        } catch (RuntimeException e) {
+            // Put the unwritten counts back so the next flush retries them
+            pending.restore(deltas);
+            throw e;
+        } finally {
+            flushedClicks.increment(written);
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flushOnShutdown) {
+            long written = flush();
+            logger.info("Flushed {} pending clicks on shutdown", written);
+        }
+    }
+}
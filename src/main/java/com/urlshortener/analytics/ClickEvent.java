@@ -0,0 +1,59 @@
+package com.urlshortener.analytics;
+
+/**
+ * One redirect as the click event pipeline sees it.
+ *
+ * Instances are slots of the ClickEventRing and are reused: a listener must copy what
+ * it needs before returning from ClickEventListener.onClick.
+ */
+public final class ClickEvent {
+
+    private long timestamp;
+    private String shortCode;
+    private String referrer;
+    private String userAgent;
+    private long clientHash;
+
+    ClickEvent() {
+    }
+
+    ClickEvent(long timestamp, String shortCode, String referrer, String userAgent, long clientHash) {
+        set(timestamp, shortCode, referrer, userAgent, clientHash);
+    }
+
+    void set(long timestamp, String shortCode, String referrer, String userAgent, long clientHash) {
+        this.timestamp = timestamp;
+        this.shortCode = shortCode;
+        this.referrer = referrer;
+        this.userAgent = userAgent;
+        this.clientHash = clientHash;
+    }
+
+    void clear() {
+        set(0, null, null, null, 0);
+    }
+
+    /** Epoch millis of the redirect. */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    /** The Referer header, or null. */
+    public String getReferrer() {
+        return referrer;
+    }
+
+    /** The User-Agent header, or null. */
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    /** Salted hash of the client IP; the address itself is never kept. */
+    public long getClientHash() {
+        return clientHash;
+    }
+}
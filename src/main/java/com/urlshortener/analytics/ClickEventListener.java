@@ -0,0 +1,15 @@
+package com.urlshortener.analytics;
+
+/**
+ * Receives every click the ClickEventPipeline accepts, on the pipeline's writer thread.
+ *
+ * Listeners run one at a time and must not block: a slow listener delays the drain and,
+ * once the ring fills, makes the redirect path drop events.
+ */
+public interface ClickEventListener {
+
+    /**
+     * @param event valid only for the duration of the call
+     */
+    void onClick(ClickEvent event);
+}
@@ -0,0 +1,281 @@
+package com.urlshortener.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log of click events in rolling memory-mapped segment files.
+ *
+ * The current segment is mapped at its full size up front, so an append is a copy into
+ * memory: the page cache takes the write and no system call sits on the append path.
+ * A record is its payload length, a CRC32 and the payload (timestamp, client hash, then
+ * code, referrer and user agent as length-prefixed UTF-8, each cut to MAX_TEXT_LENGTH
+ * characters). The length is written last, and a zero length marks the end of the
+ * used part of a segment.
+ *
+ * When a record no longer fits, the segment is sealed: forced to disk and compacted by
+ * truncating the unused preallocated tail; appends continue in a new segment. A segment
+ * left unsealed by a crash is sealed the same way on the next open, up to its last
+ * intact record. Sealed segments last written before the retention cutoff are deleted
+ * by deleteOlderThan.
+ *
+ * Not thread-safe; the ClickEventPipeline's writer thread is its only user.
+ */
+public class ClickEventLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClickEventLog.class);
+    private static final String SEGMENT_PREFIX = "clicks-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int RECORD_HEADER = 8;
+    static final int MAX_TEXT_LENGTH = 512;
+    /** Large enough for any record: two longs and three texts of 3 bytes per character. */
+    static final int MAX_RECORD_LENGTH = RECORD_HEADER + 16 + 3 * (2 + 3 * MAX_TEXT_LENGTH);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_RECORD_LENGTH);
+    private final CRC32 crc = new CRC32();
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+
+    /**
+     * @param segmentSize bytes per segment file
+     */
+    public ClickEventLog(Path directory, int segmentSize) {
+        if (segmentSize < MAX_RECORD_LENGTH * 2) {
+            throw new IllegalArgumentException("Click log segments must hold at least "
+                    + MAX_RECORD_LENGTH * 2 + " bytes: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            if (!segments.isEmpty()) {
+                Path last = segments.get(segments.size() - 1);
+                segment = segmentNumber(last);
+                compact(last);
+            }
+            open(segment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open click log in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends an event to the current segment, rolling to a new one when it is full.
+     */
+    public void append(ClickEvent event) {
+        scratch.clear();
+        scratch.position(RECORD_HEADER);
+        scratch.putLong(event.getTimestamp());
+        scratch.putLong(event.getClientHash());
+        putText(event.getShortCode());
+        putText(event.getReferrer());
+        putText(event.getUserAgent());
+        int payloadLength = scratch.position() - RECORD_HEADER;
+        crc.reset();
+        crc.update(scratch.array(), RECORD_HEADER, payloadLength);
+
+        // Keep room for the zero length that ends the segment
+        if (mapped.remaining() < RECORD_HEADER + payloadLength + 4) {
+            roll();
+        }
+        int position = mapped.position();
+        mapped.position(position + 4);
+        mapped.putInt((int) crc.getValue());
+        mapped.put(scratch.array(), RECORD_HEADER, payloadLength);
+        mapped.putInt(position, payloadLength);
+    }
+
+    /**
+     * Writes the appended events of the current segment to disk.
+     */
+    public void force() {
+        mapped.force();
+    }
+
+    public long currentSegment() {
+        return segment;
+    }
+
+    /**
+     * Seals the current segment and starts a new one.
+     */
+    public void roll() {
+        try {
+            seal();
+            open(segment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll click log", e);
+        }
+    }
+
+    /**
+     * Deletes sealed segments last written before the cutoff.
+     *
+     * @return the number of segments deleted
+     */
+    public int deleteOlderThan(long cutoffMillis) {
+        int deleted = 0;
+        try {
+            for (Path path : segments()) {
+                if (segmentNumber(path) < segment && Files.getLastModifiedTime(path).toMillis() < cutoffMillis) {
+                    Files.deleteIfExists(path);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot apply click log retention", e);
+        }
+        return deleted;
+    }
+
+    /**
+     * Hands every intact event of every segment to the consumer, oldest first. The event
+     * is reused between calls.
+     */
+    public void forEach(Consumer<ClickEvent> consumer) {
+        ClickEvent event = new ClickEvent();
+        try {
+            for (Path path : segments()) {
+                if (segmentNumber(path) == segment) {
+                    read(mapped.duplicate().position(0), path, event, consumer);
+                } else {
+                    read(ByteBuffer.wrap(Files.readAllBytes(path)), path, event, consumer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read click log in " + directory, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            seal();
+        } catch (IOException e) {
+            logger.warn("Cannot close click log", e);
+        }
+    }
+
+    private void putText(String text) {
+        if (text == null) {
+            scratch.putShort((short) -1);
+            return;
+        }
+        String cut = text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text;
+        byte[] bytes = cut.getBytes(StandardCharsets.UTF_8);
+        scratch.putShort((short) bytes.length);
+        scratch.put(bytes);
+    }
+
+    private void open(long number) throws IOException {
+        Path path = directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment = number;
+    }
+
+    /**
+     * Forces the current segment and truncates it after its last record. The mapping is
+     * never touched again once the file is cut.
+     */
+    private void seal() throws IOException {
+        mapped.force();
+        channel.truncate(mapped.position());
+        channel.close();
+    }
+
+    /**
+     * Truncates a segment after its last intact record.
+     */
+    private void compact(Path path) throws IOException {
+        ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(path));
+        int end = read(contents, path, new ClickEvent(), event -> { });
+        if (end < contents.capacity()) {
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                file.truncate(end);
+            }
+        }
+    }
+
+    /**
+     * @return the offset after the last intact record
+     */
+    private static int read(ByteBuffer buffer, Path path, ClickEvent event, Consumer<ClickEvent> consumer) {
+        CRC32 checksum = new CRC32();
+        while (buffer.remaining() >= RECORD_HEADER) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length == 0) {
+                return start;
+            }
+            int expected = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                logger.warn("Click log {} ends in a torn record", path.getFileName());
+                return start;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            checksum.reset();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != expected) {
+                logger.warn("Click log {} ends in a torn record", path.getFileName());
+                return start;
+            }
+            buffer.position(buffer.position() + length);
+            try {
+                long timestamp = payload.getLong();
+                long clientHash = payload.getLong();
+                event.set(timestamp, getText(payload), getText(payload), getText(payload), clientHash);
+            } catch (BufferUnderflowException e) {
+                logger.warn("Click log {} holds a malformed record", path.getFileName());
+                return start;
+            }
+            consumer.accept(event);
+        }
+        return buffer.position();
+    }
+
+    private static String getText(ByteBuffer payload) {
+        short length = payload.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
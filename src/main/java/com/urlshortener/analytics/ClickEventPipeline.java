@@ -0,0 +1,209 @@
+package com.urlshortener.analytics;
+
+import com.urlshortener.codegen.ShortCodeEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Carries every redirect, with its time, referrer, user agent and a hash of the client
+ * IP, from the redirect path to the click event log and the ClickEventListeners.
+ *
+ * The redirect path only offers the event to a lock-free ClickEventRing; it never
+ * waits for the writer, the disk or a listener. A single writer thread drains the ring
+ * in batches, appends each event to the ClickEventLog (when
+ * {@code shortener.click-events.log.enabled}) and hands it to the listeners. The log
+ * is forced to disk once a second and segments older than
+ * {@code shortener.click-events.log.retention} are deleted once a minute, both on the
+ * writer thread. When the writer falls a whole ring ({@code shortener.click-events.ring-size})
+ * behind, new events are dropped and counted in shortener.click.events.dropped.
+ *
+ * The client IP is hashed with SHA-256 under {@code shortener.click-events.ip-salt}
+ * before it enters the ring, so the address itself never leaves the request thread.
+ */
+@Component
+public class ClickEventPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClickEventPipeline.class);
+    private static final int DRAIN_BATCH_SIZE = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FORCE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long RETENTION_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final boolean enabled;
+    private final ClickEventRing ring;
+    private final List<ClickEventListener> listeners;
+    private final boolean logEnabled;
+    private final Path logDirectory;
+    private final DataSize segmentSize;
+    private final Duration retention;
+    private final String ipSalt;
+    private final Counter acceptedEvents;
+    private final Counter droppedEvents;
+    private final Counter loggedEvents;
+
+    private ClickEventLog log;
+    private Thread writer;
+    private volatile boolean running;
+
+    @Autowired
+    public ClickEventPipeline(ObjectProvider<ClickEventListener> listeners,
+                              MeterRegistry meterRegistry,
+                              @Value("${shortener.click-events.enabled:true}") boolean enabled,
+                              @Value("${shortener.click-events.ring-size:65536}") int ringSize,
+                              @Value("${shortener.click-events.ip-salt:}") String ipSalt,
+                              @Value("${shortener.click-events.log.enabled:false}") boolean logEnabled,
+                              @Value("${shortener.click-events.log.directory:./data/click-log}") Path logDirectory,
+                              @Value("${shortener.click-events.log.segment-size:64MB}") DataSize segmentSize,
+                              @Value("${shortener.click-events.log.retention:30d}") Duration retention) {
+        this.enabled = enabled;
+        this.ring = new ClickEventRing(ringSize);
+        this.listeners = listeners.orderedStream().toList();
+        this.logEnabled = logEnabled;
+        this.logDirectory = logDirectory;
+        this.segmentSize = segmentSize;
+        this.retention = retention;
+        this.ipSalt = ipSalt;
+        this.acceptedEvents = Counter.builder("shortener.click.events")
+                .description("Click events accepted from the redirect path")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder("shortener.click.events.dropped")
+                .description("Click events dropped because the ring was full")
+                .register(meterRegistry);
+        this.loggedEvents = Counter.builder("shortener.click.events.logged")
+                .description("Click events appended to the click event log")
+                .register(meterRegistry);
+        meterRegistry.gauge("shortener.click.events.backlog", ring, ClickEventRing::backlog);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (logEnabled) {
+            log = new ClickEventLog(logDirectory, Math.toIntExact(segmentSize.toBytes()));
+        }
+        running = true;
+        writer = new Thread(this::run, "click-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Offers a redirect to the pipeline without blocking.
+     *
+     * @param referrer the Referer header, or null
+     * @param userAgent the User-Agent header, or null
+     * @param clientIp the client address, or null
+     * @return false if the event was dropped
+     *
+     * @requires shortCode != null && !shortCode.isEmpty()
+     */
+    public boolean record(String shortCode, String referrer, String userAgent, String clientIp) {
+        if (!enabled) {
+            return false;
+        }
+        long clientHash = clientIp == null ? 0 : ShortCodeEncoder.hash64(ipSalt + clientIp);
+        if (ring.offer(System.currentTimeMillis(), shortCode, referrer, userAgent, clientHash)) {
+            acceptedEvents.increment();
+            return true;
+        }
+        droppedEvents.increment();
+        return false;
+    }
+
+    /**
+     * Drains every event accepted so far. Only for use while the writer is stopped.
+     *
+     * @return the number of events drained
+     */
+    int drain() {
+        int total = 0;
+        int drained;
+        while ((drained = ring.drain(this::dispatch, DRAIN_BATCH_SIZE)) > 0) {
+            total += drained;
+        }
+        return total;
+    }
+
+    ClickEventLog log() {
+        return log;
+    }
+
+    private void run() {
+        long lastForce = System.nanoTime();
+        long lastRetention = lastForce;
+        while (running) {
+            int drained;
+            try {
+                drained = ring.drain(this::dispatch, DRAIN_BATCH_SIZE);
+            } catch (RuntimeException e) {
+                logger.warn("Click event dispatch failed, the event is skipped", e);
+                continue;
+            }
+            long now = System.nanoTime();
+            try {
+                if (log != null && now - lastForce >= FORCE_INTERVAL_NANOS) {
+                    log.force();
+                    lastForce = now;
+                }
+                if (log != null && now - lastRetention >= RETENTION_INTERVAL_NANOS) {
+                    log.deleteOlderThan(System.currentTimeMillis() - retention.toMillis());
+                    lastRetention = now;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Click event log maintenance failed", e);
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void dispatch(ClickEvent event) {
+        if (log != null) {
+            log.append(event);
+            loggedEvents.increment();
+        }
+        for (ClickEventListener listener : listeners) {
+            try {
+                listener.onClick(event);
+            } catch (RuntimeException e) {
+                logger.warn("Click event listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int drained = drain();
+        logger.info("Drained {} click events on shutdown", drained);
+        if (log != null) {
+            log.close();
+        }
+    }
+}
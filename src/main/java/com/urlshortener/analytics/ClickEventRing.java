@@ -0,0 +1,95 @@
+package com.urlshortener.analytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring of click events with many producers and one consumer.
+ *
+ * A producer claims the next sequence with a compare-and-set, fills the preallocated
+ * slot it maps to and publishes it by storing sequence + 1 in the slot's marker. The
+ * consumer reads slots in sequence order as their markers show them published and
+ * releases each slot by advancing its consumed count. A producer that finds every slot
+ * claimed but not yet consumed gives up instead of waiting, so offer never blocks.
+ */
+final class ClickEventRing {
+
+    private final ClickEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    ClickEventRing(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Ring capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.slots = new ClickEvent[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ClickEvent();
+        }
+        this.published = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return false if the ring is full and the event was not accepted
+     */
+    boolean offer(long timestamp, String shortCode, String referrer, String userAgent, long clientHash) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= slots.length) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) (sequence & mask);
+        slots[index].set(timestamp, shortCode, referrer, userAgent, clientHash);
+        published.lazySet(index, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} published events to the consumer in the order they were
+     * claimed. Only one thread may drain.
+     *
+     * @return the number of events drained
+     */
+    int drain(Consumer<ClickEvent> consumer, int max) {
+        long sequence = consumed.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (sequence & mask);
+            if (published.get(index) != sequence + 1) {
+                break;
+            }
+            ClickEvent event = slots[index];
+            try {
+                consumer.accept(event);
+            } finally {
+                event.clear();
+                sequence++;
+                drained++;
+                consumed.lazySet(sequence);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * @return claimed events not yet drained, including ones still being written
+     */
+    long backlog() {
+        return claimed.get() - consumed.get();
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
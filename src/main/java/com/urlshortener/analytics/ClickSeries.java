@@ -0,0 +1,237 @@
+package com.urlshortener.analytics;
+
+import java.nio.ByteBuffer;
+
+import static com.urlshortener.analytics.RollupGranularity.DAY;
+import static com.urlshortener.analytics.RollupGranularity.HOUR;
+import static com.urlshortener.analytics.RollupGranularity.MINUTE;
+
+/**
+ * Click counts of one short code in three rings of int buckets: minutes, hours and days.
+ *
+ * Each ring holds the newest {@link RollupGranularity#getBuckets()} buckets up to its
+ * head, the newest bucket it has seen. A click is counted in its minute bucket. When the
+ * minute ring advances, the minutes that leave it are added to their hour bucket, and
+ * hours leaving the hour ring are added to their day bucket; days leaving the day ring
+ * are dropped. Every click is therefore in exactly one ring, and the count of a bucket
+ * is the sum of what the finer rings still hold for it plus its own bucket. A click
+ * older than its minute ring goes straight to the finest ring still covering it.
+ *
+ * Not thread-safe; ClickRollups guards every series with its lock.
+ */
+final class ClickSeries {
+
+    private static final int MINUTES = MINUTE.getBuckets();
+    private static final int HOURS = HOUR.getBuckets();
+    private static final int DAYS = DAY.getBuckets();
+    private static final long MINUTES_PER_HOUR = HOUR.getMillis() / MINUTE.getMillis();
+    private static final long HOURS_PER_DAY = DAY.getMillis() / HOUR.getMillis();
+    static final int SERIALIZED_LENGTH = 3 * Long.BYTES + (MINUTES + HOURS + DAYS) * Integer.BYTES;
+
+    private final int[] minutes = new int[MINUTES];
+    private final int[] hours = new int[HOURS];
+    private final int[] days = new int[DAYS];
+    private long minuteHead;
+    private long hourHead;
+    private long dayHead;
+
+    /**
+     * @param timestamp epoch millis the rings start from
+     */
+    ClickSeries(long timestamp) {
+        this.minuteHead = timestamp / MINUTE.getMillis();
+        this.hourHead = timestamp / HOUR.getMillis();
+        this.dayHead = timestamp / DAY.getMillis();
+    }
+
+    /**
+     * @requires timestamp >= 0
+     */
+    void add(long timestamp) {
+        addMinute(timestamp / MINUTE.getMillis(), 1);
+    }
+
+    /**
+     * Adds the clicks of another series to this one. Both keep their buckets on the same
+     * absolute clock, so each bucket of the other is added like a click of its time.
+     */
+    void merge(ClickSeries other) {
+        if (other.minuteHead > minuteHead) {
+            advanceMinutes(other.minuteHead);
+        }
+        if (other.hourHead > hourHead) {
+            advanceHours(other.hourHead);
+        }
+        if (other.dayHead > dayHead) {
+            advanceDays(other.dayHead);
+        }
+        for (long minute = other.minuteHead - MINUTES + 1; minute <= other.minuteHead; minute++) {
+            int clicks = other.minutes[slot(minute, MINUTES)];
+            if (clicks != 0) {
+                addMinute(minute, clicks);
+            }
+        }
+        for (long hour = other.hourHead - HOURS + 1; hour <= other.hourHead; hour++) {
+            int clicks = other.hours[slot(hour, HOURS)];
+            if (clicks != 0) {
+                addHour(hour, clicks);
+            }
+        }
+        for (long day = other.dayHead - DAYS + 1; day <= other.dayHead; day++) {
+            int clicks = other.days[slot(day, DAYS)];
+            if (clicks != 0) {
+                addDay(day, clicks);
+            }
+        }
+    }
+
+    /**
+     * @return epoch millis of the start of the newest minute with a click
+     */
+    long lastActive() {
+        return minuteHead * MINUTE.getMillis();
+    }
+
+    /**
+     * Counts the clicks of consecutive buckets.
+     *
+     * @param firstBucket the oldest bucket, as epoch millis / granularity millis
+     * @return one count per bucket, oldest first; 0 for buckets no longer held
+     */
+    long[] counts(RollupGranularity granularity, long firstBucket, int buckets) {
+        long[] counts = new long[buckets];
+        for (int i = 0; i < buckets; i++) {
+            counts[i] = count(granularity, firstBucket + i);
+        }
+        return counts;
+    }
+
+    private long count(RollupGranularity granularity, long bucket) {
+        long minutesPerBucket = granularity.getMillis() / MINUTE.getMillis();
+        long total = sum(minutes, minuteHead, bucket * minutesPerBucket, (bucket + 1) * minutesPerBucket - 1);
+        if (granularity != MINUTE) {
+            long hoursPerBucket = granularity.getMillis() / HOUR.getMillis();
+            total += sum(hours, hourHead, bucket * hoursPerBucket, (bucket + 1) * hoursPerBucket - 1);
+        }
+        if (granularity == DAY) {
+            total += sum(days, dayHead, bucket, bucket);
+        }
+        return total;
+    }
+
+    private void addMinute(long minute, int clicks) {
+        if (minute > minuteHead) {
+            advanceMinutes(minute);
+        }
+        if (minute > minuteHead - MINUTES) {
+            minutes[slot(minute, MINUTES)] += clicks;
+        } else {
+            addHour(minute / MINUTES_PER_HOUR, clicks);
+        }
+    }
+
+    private void addHour(long hour, int clicks) {
+        if (hour > hourHead) {
+            advanceHours(hour);
+        }
+        if (hour > hourHead - HOURS) {
+            hours[slot(hour, HOURS)] += clicks;
+        } else {
+            addDay(hour / HOURS_PER_DAY, clicks);
+        }
+    }
+
+    private void addDay(long day, int clicks) {
+        if (day > dayHead) {
+            advanceDays(day);
+        }
+        if (day > dayHead - DAYS) {
+            days[slot(day, DAYS)] += clicks;
+        }
+    }
+
+    /**
+     * Moves the minute head, rolling the minutes that leave the ring into their hours,
+     * then moves the hour and day heads along with it so buckets that aged out of every
+     * ring stop being counted. Each rolled minute sits in the slot a minute of the new
+     * range reuses, so only the old ring is walked however far the head moves.
+     */
+    private void advanceMinutes(long head) {
+        long last = Math.min(minuteHead, head - MINUTES);
+        for (long minute = minuteHead - MINUTES + 1; minute <= last; minute++) {
+            int slot = slot(minute, MINUTES);
+            if (minutes[slot] != 0) {
+                int clicks = minutes[slot];
+                minutes[slot] = 0;
+                addHour(minute / MINUTES_PER_HOUR, clicks);
+            }
+        }
+        minuteHead = head;
+        if (head / MINUTES_PER_HOUR > hourHead) {
+            advanceHours(head / MINUTES_PER_HOUR);
+        }
+    }
+
+    private void advanceHours(long head) {
+        long last = Math.min(hourHead, head - HOURS);
+        for (long hour = hourHead - HOURS + 1; hour <= last; hour++) {
+            int slot = slot(hour, HOURS);
+            if (hours[slot] != 0) {
+                int clicks = hours[slot];
+                hours[slot] = 0;
+                addDay(hour / HOURS_PER_DAY, clicks);
+            }
+        }
+        hourHead = head;
+        if (head / HOURS_PER_DAY > dayHead) {
+            advanceDays(head / HOURS_PER_DAY);
+        }
+    }
+
+    private void advanceDays(long head) {
+        long last = Math.min(dayHead, head - DAYS);
+        for (long day = dayHead - DAYS + 1; day <= last; day++) {
+            days[slot(day, DAYS)] = 0;
+        }
+        dayHead = head;
+    }
+
+    /**
+     * Sums the buckets of a ring from one bucket to another, both inclusive, skipping
+     * those outside the ring.
+     */
+    private static long sum(int[] ring, long head, long from, long to) {
+        long total = 0;
+        for (long bucket = Math.max(from, head - ring.length + 1); bucket <= Math.min(to, head); bucket++) {
+            total += ring[slot(bucket, ring.length)];
+        }
+        return total;
+    }
+
+    private static int slot(long bucket, int size) {
+        return (int) Math.floorMod(bucket, (long) size);
+    }
+
+    byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(SERIALIZED_LENGTH);
+        buffer.putLong(minuteHead).putLong(hourHead).putLong(dayHead);
+        buffer.asIntBuffer().put(minutes).put(hours).put(days);
+        return buffer.array();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a serialized series
+     */
+    static ClickSeries fromBytes(byte[] bytes) {
+        if (bytes.length != SERIALIZED_LENGTH) {
+            throw new IllegalArgumentException("Not a click series: " + bytes.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        ClickSeries series = new ClickSeries(0);
+        series.minuteHead = buffer.getLong();
+        series.hourHead = buffer.getLong();
+        series.dayHead = buffer.getLong();
+        buffer.asIntBuffer().get(series.minutes).get(series.hours).get(series.days);
+        return series;
+    }
+}
@@ -0,0 +1,75 @@
+package com.urlshortener.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min Sketch: approximate counts of many keys in a fixed number of int counters.
+ *
+ * Each key is counted in one counter per row, picked by a hash of the key, and its
+ * estimate is the smallest of those counters. Collisions only add, so an estimate never
+ * falls below the true count, and with {@code width} counters per row it exceeds the
+ * true count by more than e / width of the sketch's total with probability at most
+ * e^-depth. The row hashes are derived from one 64-bit hash of the key as h1 + i * h2.
+ *
+ * Not thread-safe.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int[] counters;
+    private long total;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1 || width > 1 << 24) {
+            throw new IllegalArgumentException("Invalid Count-Min Sketch size: " + depth + " x " + width);
+        }
+        this.depth = depth;
+        this.width = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.counters = new int[depth * this.width];
+    }
+
+    /**
+     * @param hash a well-mixed 64-bit hash of the key
+     */
+    public void add(long hash, int count) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + ((h1 + row * h2) & (width - 1))] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * @ensures \result >= the count added for the key
+     */
+    public long estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + ((h1 + row * h2) & (width - 1))]);
+        }
+        return estimate;
+    }
+
+    /**
+     * @return the sum of every count added since the last clear
+     */
+    public long total() {
+        return total;
+    }
+
+    public void clear() {
+        Arrays.fill(counters, 0);
+        total = 0;
+    }
+
+    public int width() {
+        return width;
+    }
+}
@@ -0,0 +1,216 @@
+package com.urlshortener.analytics;
+
+import com.urlshortener.dto.TopLink;
+import com.urlshortener.index.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The short codes with the most clicks over the last {@code shortener.top.window}, in
+ * constant memory however many links are clicked.
+ *
+ * The window is a ring of {@code shortener.top.window-slots} Count-Min Sketches, one per
+ * slot of window / slots; the oldest is cleared and reused when the clock enters a new
+ * slot, so the window spans between slots - 1 and slots slot lengths. A code's count is
+ * the sum of its estimates in every slot, which never undercounts. The best
+ * {@code shortener.top.k} codes seen so far are kept in a min-heap: a clicked code
+ * replaces the smallest one once its count is larger, and every candidate is recounted
+ * when a slot rolls over. A code that dropped out comes back on its next click.
+ *
+ * Fed by the click event pipeline's writer thread; reads take the same lock.
+ */
+@Component
+public class HeavyHitters implements ClickEventListener {
+
+    private static final Comparator<Candidate> BY_CLICKS =
+            Comparator.comparingLong((Candidate candidate) -> candidate.clicks).thenComparing(candidate -> candidate.shortCode);
+
+    private final boolean enabled;
+    private final int capacity;
+    private final Duration window;
+    private final long slotMillis;
+    private final CountMinSketch[] slots;
+    private final PriorityQueue<Candidate> heap;
+    private final Map<String, Candidate> candidates;
+    // Guards the slots, the heap and the candidates
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentSlot = Long.MIN_VALUE;
+
+    @Autowired
+    public HeavyHitters(MeterRegistry meterRegistry,
+                        @Value("${shortener.top.enabled:true}") boolean enabled,
+                        @Value("${shortener.top.k:100}") int capacity,
+                        @Value("${shortener.top.window:5m}") Duration window,
+                        @Value("${shortener.top.window-slots:5}") int windowSlots,
+                        @Value("${shortener.top.sketch-depth:4}") int sketchDepth,
+                        @Value("${shortener.top.sketch-width:16384}") int sketchWidth) {
+        if (capacity < 1 || windowSlots < 1 || window.toMillis() < windowSlots) {
+            throw new IllegalArgumentException("Invalid top links settings: k=" + capacity
+                    + ", window=" + window + ", window-slots=" + windowSlots);
+        }
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.window = window;
+        this.slotMillis = window.toMillis() / windowSlots;
+        this.slots = new CountMinSketch[enabled ? windowSlots : 0];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new CountMinSketch(sketchDepth, sketchWidth);
+        }
+        this.heap = new PriorityQueue<>(capacity + 1, BY_CLICKS);
+        this.candidates = new HashMap<>(capacity * 2);
+        meterRegistry.gauge("shortener.top.window.clicks", this, heavyHitters -> heavyHitters.windowClicks());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    /**
+     * @return the most links top may return
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void onClick(ClickEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long slot = event.getTimestamp() / slotMillis;
+        lock.lock();
+        try {
+            advance(slot);
+            if (slot <= currentSlot - slots.length) {
+                // Older than the window
+                return;
+            }
+            long hash = Hashing.hash64(event.getShortCode());
+            slots[slotIndex(slot)].add(hash, 1);
+            offer(event.getShortCode(), count(hash));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the links with the most clicks in the window, most clicked first, with
+     * their estimated click counts.
+     *
+     * @requires 0 < limit && limit <= getCapacity()
+     */
+    public List<TopLink> top(int limit, long nowMillis) {
+        if (!enabled) {
+            return List.of();
+        }
+        List<Candidate> sorted;
+        lock.lock();
+        try {
+            advance(nowMillis / slotMillis);
+            sorted = new ArrayList<>(heap);
+        } finally {
+            lock.unlock();
+        }
+        sorted.sort(BY_CLICKS.reversed());
+        List<TopLink> top = new ArrayList<>(Math.min(limit, sorted.size()));
+        for (Candidate candidate : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            top.add(new TopLink(candidate.shortCode, candidate.clicks));
+        }
+        return top;
+    }
+
+    /**
+     * Moves the window forward to the given slot, clearing the slots it leaves and
+     * recounting every candidate.
+     */
+    private void advance(long slot) {
+        if (slot <= currentSlot) {
+            return;
+        }
+        for (long cleared = Math.max(currentSlot + 1, slot - slots.length + 1); cleared <= slot; cleared++) {
+            slots[slotIndex(cleared)].clear();
+        }
+        currentSlot = slot;
+
+        List<Candidate> recounted = new ArrayList<>(heap);
+        heap.clear();
+        for (Candidate candidate : recounted) {
+            candidate.clicks = count(Hashing.hash64(candidate.shortCode));
+            if (candidate.clicks > 0) {
+                heap.add(candidate);
+            } else {
+                candidates.remove(candidate.shortCode);
+            }
+        }
+    }
+
+    private void offer(String shortCode, long clicks) {
+        Candidate candidate = candidates.get(shortCode);
+        if (candidate != null) {
+            // Re-insert so the heap sees the new count
+            heap.remove(candidate);
+            candidate.clicks = clicks;
+            heap.add(candidate);
+            return;
+        }
+        if (heap.size() == capacity) {
+            if (heap.peek().clicks >= clicks) {
+                return;
+            }
+            candidates.remove(heap.poll().shortCode);
+        }
+        candidate = new Candidate(shortCode, clicks);
+        candidates.put(shortCode, candidate);
+        heap.add(candidate);
+    }
+
+    private long count(long hash) {
+        long clicks = 0;
+        for (CountMinSketch sketch : slots) {
+            clicks += sketch.estimate(hash);
+        }
+        return clicks;
+    }
+
+    private int slotIndex(long slot) {
+        return (int) Math.floorMod(slot, (long) slots.length);
+    }
+
+    private long windowClicks() {
+        lock.lock();
+        try {
+            long clicks = 0;
+            for (CountMinSketch sketch : slots) {
+                clicks += sketch.total();
+            }
+            return clicks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Candidate {
+        private final String shortCode;
+        private long clicks;
+
+        private Candidate(String shortCode, long clicks) {
+            this.shortCode = shortCode;
+            this.clicks = clicks;
+        }
+    }
+}
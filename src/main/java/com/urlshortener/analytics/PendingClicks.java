@@ -0,0 +1,139 @@
+package com.urlshortener.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory click tallies per short code, waiting to be written to the database.
+ *
+ * Recording a click only bumps a striped {@link LongAdder}, so callers never wait on a
+ * database write and concurrent clicks on the same link are never lost to a
+ * read-modify-write race. Both the servlet and the reactive flavor drain the same
+ * structure; only the way the drained deltas reach the database differs.
+ *
+ * {@link #record} and {@link #pendingCount} are thread-safe. {@link #drain} and
+ * {@link #restore} must be called by one flushing thread at a time.
+ */
+public class PendingClicks {
+
+    /** Consecutive empty drains after which an idle counter is removed from the map. */
+    private static final int IDLE_DRAINS_BEFORE_REMOVAL = 3;
+
+    private final ConcurrentHashMap<String, ClickAdder> pending = new ConcurrentHashMap<>();
+    private Map<String, ClickAdder> retired = new HashMap<>();
+
+    /**
+     * Records one click for a short code.
+     *
+     * @requires shortCode != null && !shortCode.isEmpty()
+     */
+    public void record(String shortCode) {
+        pending.computeIfAbsent(shortCode, code -> new ClickAdder()).increment();
+    }
+
+    /**
+     * Returns the clicks recorded for a short code that have not been drained yet.
+     */
+    public long pendingCount(String shortCode) {
+        LongAdder adder = pending.get(shortCode);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Number of links currently holding a counter.
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Resets every counter and returns the clicks it held. Active counters stay in the
+     * map so hot links keep their adder. A counter is removed only after several empty
+     * drains and is then swept once more on the next drain, so an increment is lost only
+     * if a thread stalls between looking up an idle counter and bumping it for longer
+     * than that whole grace period.
+     */
+    public Map<String, Long> drain() {
+        Map<String, Long> deltas = new HashMap<>();
+        retired.forEach((code, adder) -> addDelta(deltas, code, adder.sumThenReset()));
+
+        Map<String, ClickAdder> removed = new HashMap<>();
+        pending.forEach((code, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                adder.idleDrains = 0;
+                addDelta(deltas, code, delta);
+            } else if (++adder.idleDrains >= IDLE_DRAINS_BEFORE_REMOVAL && pending.remove(code, adder)) {
+                removed.put(code, adder);
+            }
+        });
+        retired = removed;
+        return deltas;
+    }
+
+    /**
+     * Puts drained clicks that could not be written back, so the next drain retries them.
+     */
+    public void restore(Map<String, Long> deltas) {
+        deltas.forEach((code, delta) -> pending.computeIfAbsent(code, c -> new ClickAdder()).add(delta));
+    }
+
+    /**
+     * Groups drained deltas into batches that share one delta and hold at most
+     * {@code maxBatchSize} codes, so each batch is a single bulk UPDATE.
+     */
+    public static List<ClickBatch> batches(Map<String, Long> deltas, int maxBatchSize) {
+        Map<Long, List<String>> codesByDelta = new HashMap<>();
+        deltas.forEach((code, delta) -> codesByDelta.computeIfAbsent(delta, d -> new ArrayList<>()).add(code));
+
+        List<ClickBatch> batches = new ArrayList<>();
+        codesByDelta.forEach((delta, codes) -> {
+            for (int from = 0; from < codes.size(); from += maxBatchSize) {
+                batches.add(new ClickBatch(delta, codes.subList(from, Math.min(from + maxBatchSize, codes.size()))));
+            }
+        });
+        return batches;
+    }
+
+    private static void addDelta(Map<String, Long> deltas, String code, long delta) {
+        if (delta > 0) {
+            deltas.merge(code, delta, Long::sum);
+        }
+    }
+
+    /**
+     * Short codes that all receive the same number of additional clicks.
+     */
+    public static final class ClickBatch {
+        private final long delta;
+        private final List<String> shortCodes;
+
+        ClickBatch(long delta, List<String> shortCodes) {
+            this.delta = delta;
+            this.shortCodes = shortCodes;
+        }
+
+        public long getDelta() {
+            return delta;
+        }
+
+        public List<String> getShortCodes() {
+            return shortCodes;
+        }
+
+        public long getClicks() {
+            return delta * shortCodes.size();
+        }
+    }
+
+    /**
+     * A striped counter that also tracks, under the flush lock, how long it has been idle.
+     */
+    private static final class ClickAdder extends LongAdder {
+        private int idleDrains;
+    }
+}
@@ -0,0 +1,57 @@
+package com.urlshortener.analytics;
+
+import java.util.Locale;
+
+/**
+ * The bucket sizes of the click rollups, with how many of the newest buckets each keeps
+ * at its own resolution.
+ */
+public enum RollupGranularity {
+
+    /** The last hour, minute by minute. */
+    MINUTE(60_000L, 60),
+
+    /** The last two days, hour by hour. */
+    HOUR(3_600_000L, 48),
+
+    /** The last 90 days, day by day (UTC days). */
+    DAY(86_400_000L, 90);
+
+    private final long millis;
+    private final int buckets;
+
+    RollupGranularity(long millis, int buckets) {
+        this.millis = millis;
+        this.buckets = buckets;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * @return how many buckets are kept at this granularity
+     */
+    public int getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Parses a request parameter such as {@code hour}, ignoring case.
+     *
+     * @throws IllegalArgumentException for an unknown granularity
+     */
+    public static RollupGranularity of(String value) {
+        for (RollupGranularity granularity : values()) {
+            if (granularity.name().equalsIgnoreCase(value.strip())) {
+                return granularity;
+            }
+        }
+        throw new IllegalArgumentException("Unknown granularity: " + value);
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
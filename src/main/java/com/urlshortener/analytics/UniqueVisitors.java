@@ -0,0 +1,217 @@
+package com.urlshortener.analytics;
+
+import com.urlshortener.entity.VisitorSketch;
+import com.urlshortener.repository.VisitorSketchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estimates the distinct visitors of each short code with a {@link HyperLogLog} sketch
+ * over the salted client IP hashes of its click events.
+ *
+ * Clicks are added on the click event writer thread to a sketch per code holding only
+ * what this node has seen since its last persist. Every
+ * {@code shortener.visitors.persist-interval-ms}, and on shutdown, each of those is
+ * merged into the code's visitor_sketches row under a row lock and dropped from memory,
+ * so several nodes fold their visitors into one sketch and memory holds only the codes
+ * clicked since the last persist. An estimate merges the row with the sketches not yet
+ * persisted. Clicks without a client address are not counted.
+ */
+@Component
+public class UniqueVisitors implements ClickEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(UniqueVisitors.class);
+
+    private Map<String, HyperLogLog> pending = new HashMap<>();
+    /** The sketches a persist is merging into the database, still counted by estimate. */
+    private Map<String, HyperLogLog> persisting = Map.of();
+    // Guards pending and persisting; the database is only read and written outside it
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock persistLock = new ReentrantLock();
+
+    private final VisitorSketchRepository visitorSketchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int persistBatchSize;
+    private final Counter persistedSketches;
+
+    @Autowired
+    public UniqueVisitors(VisitorSketchRepository visitorSketchRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${shortener.visitors.enabled:true}") boolean enabled,
+                          @Value("${shortener.visitors.persist-batch-size:100}") int persistBatchSize) {
+        this.visitorSketchRepository = visitorSketchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.persistBatchSize = persistBatchSize;
+        this.persistedSketches = Counter.builder("shortener.visitors.persisted")
+                .description("Unique-visitor sketches merged into the database")
+                .register(meterRegistry);
+        meterRegistry.gauge("shortener.visitors.pending.links", this, visitors -> visitors.pendingSize());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void onClick(ClickEvent event) {
+        if (!enabled || event.getClientHash() == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            pending.computeIfAbsent(event.getShortCode(), code -> new HyperLogLog()).add(event.getClientHash());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the estimated number of distinct visitors of a short code, within
+     * {@link HyperLogLog#STANDARD_ERROR} (1.6%) of the true count for two sketches in
+     * three, or null when disabled.
+     */
+    public Long estimate(String shortCode) {
+        if (!enabled) {
+            return null;
+        }
+        HyperLogLog sketch = visitorSketchRepository.findById(shortCode)
+                .map(row -> HyperLogLog.fromBytes(row.getSketch()))
+                .orElseGet(HyperLogLog::new);
+        lock.lock();
+        try {
+            // Merging is idempotent, so a sketch already in the row may be merged again
+            for (Map<String, HyperLogLog> sketches : List.of(persisting, pending)) {
+                HyperLogLog recent = sketches.get(shortCode);
+                if (recent != null) {
+                    sketch.merge(recent);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return sketch.estimate();
+    }
+
+    @Scheduled(fixedDelayString = "${shortener.visitors.persist-interval-ms:60000}")
+    public void scheduledPersist() {
+        try {
+            persist();
+        } catch (RuntimeException e) {
+            logger.warn("Visitor sketch persist failed, sketches will be retried on the next persist", e);
+        }
+    }
+
+    /**
+     * Merges every pending sketch into the database.
+     *
+     * @return the number of sketches merged
+     */
+    public int persist() {
+        persistLock.lock();
+        try {
+            return persistPending();
+        } finally {
+            persistLock.unlock();
+        }
+    }
+
+    private int persistPending() {
+        Map<String, HyperLogLog> drained;
+        lock.lock();
+        try {
+            drained = pending;
+            pending = new HashMap<>();
+            persisting = drained;
+        } finally {
+            lock.unlock();
+        }
+        List<String> shortCodes = new ArrayList<>(drained.keySet());
+
+        int written = 0;
+        try {
+            for (int from = 0; from < shortCodes.size(); from += persistBatchSize) {
+                List<String> batch = shortCodes.subList(from, Math.min(from + persistBatchSize, shortCodes.size()));
+                transactionTemplate.executeWithoutResult(status -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    for (String shortCode : batch) {
+                        merge(shortCode, drained.get(shortCode), now);
+                    }
+                });
+                written += batch.size();
+            }
+        } catch (RuntimeException e) {
+            // Merge the unwritten sketches back so the next persist retries them
+            lock.lock();
+            try {
+                for (String shortCode : shortCodes.subList(written, shortCodes.size())) {
+                    HyperLogLog sketch = drained.get(shortCode);
+                    HyperLogLog newer = pending.put(shortCode, sketch);
+                    if (newer != null) {
+                        sketch.merge(newer);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        } finally {
+            lock.lock();
+            try {
+                persisting = Map.of();
+            } finally {
+                lock.unlock();
+            }
+            persistedSketches.increment(written);
+        }
+        return written;
+    }
+
+    private void merge(String shortCode, HyperLogLog sketch, LocalDateTime now) {
+        VisitorSketch row = visitorSketchRepository.findByShortCodeForUpdate(shortCode).orElse(null);
+        if (row == null) {
+            visitorSketchRepository.save(new VisitorSketch(shortCode, sketch.toBytes(), now));
+            return;
+        }
+        HyperLogLog merged = HyperLogLog.fromBytes(row.getSketch());
+        merged.merge(sketch);
+        row.setSketch(merged.toBytes());
+        row.setUpdatedAt(now);
+        visitorSketchRepository.save(row);
+    }
+
+    private int pendingSize() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled) {
+            int written = persist();
+            logger.info("Persisted {} visitor sketches on shutdown", written);
+        }
+    }
+}
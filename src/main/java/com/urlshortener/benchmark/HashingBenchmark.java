@@ -1,6 +1,9 @@
 package com.urlshortener.benchmark;
 
+import com.urlshortener.codegen.ShortCodeEncoder;
+import com.urlshortener.service.ShortUrlRules;
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -12,6 +15,11 @@ import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Short code derivation, the original SHA-256/Base64/regex pipeline against
+ * ShortCodeEncoder. Run with the GC profiler (as main does, or {@code -prof gc}) to
+ * compare gc.alloc.rate.norm, the bytes allocated per derived code.
+ */
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
 @State(Scope.Benchmark)
@@ -28,27 +36,44 @@ public class HashingBenchmark {
         testUrl = "https://www.example.com/benchmark/" + System.nanoTime();
     }
 
+    /** The derivation ShortUrlRules.generateShortCode used before ShortCodeEncoder. */
     @Benchmark
     public String benchmarkSha256Hashing() throws NoSuchAlgorithmException {
         MessageDigest digest = MessageDigest.getInstance("SHA-256");
         byte[] hash = digest.digest(testUrl.getBytes(StandardCharsets.UTF_8));
         String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
-        
+
         String code = encoded.substring(0, Math.min(SHORT_CODE_LENGTH, encoded.length()))
                 .replaceAll("[^a-zA-Z0-9]", "A");
-        
+
         while (code.length() < SHORT_CODE_LENGTH) {
             code += "A";
         }
-        
+
         return code.substring(0, SHORT_CODE_LENGTH);
     }
 
+    @Benchmark
+    public String benchmarkShortCodeEncoder() {
+        return ShortCodeEncoder.encode(testUrl, SHORT_CODE_LENGTH);
+    }
+
+    /** What the services call; adds only the contract checks to the encoder. */
+    @Benchmark
+    public String benchmarkGenerateShortCode() {
+        return ShortUrlRules.generateShortCode(testUrl);
+    }
+
+    @Benchmark
+    public long benchmarkUrlHash() {
+        return ShortUrlRules.urlHash(testUrl);
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(HashingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
                 .build();
         new Runner(opt).run();
     }
 }
-
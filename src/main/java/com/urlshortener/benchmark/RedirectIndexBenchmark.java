@@ -0,0 +1,66 @@
+package com.urlshortener.benchmark;
+
+import com.urlshortener.dto.RedirectTarget;
+import com.urlshortener.index.OffHeapRedirectIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class RedirectIndexBenchmark {
+
+    @Param({"1000000"})
+    private int links;
+
+    private OffHeapRedirectIndex index;
+    private String[] codes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path directory = Files.createTempDirectory("redirect-index-benchmark");
+        index = new OffHeapRedirectIndex(directory, links, false);
+        codes = new String[links];
+        LocalDateTime expiresAt = LocalDateTime.now().plusYears(1);
+        for (int i = 0; i < links; i++) {
+            codes[i] = String.format("%08d", i);
+            index.put(new RedirectTarget(codes[i], "https://www.example.com/benchmark/" + i, expiresAt));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        index.close();
+    }
+
+    @Benchmark
+    public Optional<RedirectTarget> benchmarkIndexHit() {
+        return index.get(codes[ThreadLocalRandom.current().nextInt(links)]);
+    }
+
+    @Benchmark
+    public Optional<RedirectTarget> benchmarkIndexMiss() {
+        return index.get("MISSING" + (char) ('A' + ThreadLocalRandom.current().nextInt(26)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RedirectIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
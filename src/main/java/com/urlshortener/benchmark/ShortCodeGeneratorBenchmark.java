@@ -0,0 +1,124 @@
+package com.urlshortener.benchmark;
+
+import com.urlshortener.codegen.Base62;
+import com.urlshortener.codegen.ShortCodeGenerator;
+import com.urlshortener.codegen.ShortCodeStrategy;
+import com.urlshortener.config.ShortCodeConfig;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and collision rate of each ShortCodeGenerator strategy.
+ *
+ * URLs differ only in a trailing number, like a campaign's links, which is where a weak
+ * hash would cluster. benchmarkCollisions reports, per iteration, the codes generated
+ * and how many repeated a code seen earlier in the same sample of {@code sampleSize}
+ * URLs; an ideal generator repeats about sampleSize^2 / (2 * 62^8) codes per sample,
+ * effectively none. The counter strategy leases its IDs through a full application
+ * context on the in-memory database. The snowflake strategy runs as node 0 and is capped
+ * by its sequence at 2^(17 - node bits) codes per second, so its throughput shows that cap.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ShortCodeGeneratorBenchmark {
+
+    private static final String URL_PREFIX = "https://www.example.com/campaign?id=";
+
+    @Param({"hash", "fast-hash", "random", "counter", "snowflake"})
+    private String strategy;
+
+    @Param({"1000000"})
+    private int sampleSize;
+
+    private ConfigurableApplicationContext context;
+    private ShortCodeGenerator generator;
+    private String[] urls;
+    private int next;
+    private Set<Long> seen;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ShortCodeStrategy selected = ShortCodeStrategy.of(strategy);
+        if (selected == ShortCodeStrategy.COUNTER) {
+            context = SpringApplication.run(com.urlshortener.UrlShortenerApplication.class,
+                    "--shortener.codes.strategy=counter", "--shortener.codes.block-size=100000",
+                    "--logging.level.com.urlshortener=WARN", "--server.port=0");
+            generator = context.getBean(ShortCodeGenerator.class);
+        } else {
+            generator = new ShortCodeConfig().shortCodeGenerator(strategy, null, 0, 5);
+        }
+        urls = new String[sampleSize];
+        for (int i = 0; i < sampleSize; i++) {
+            urls[i] = URL_PREFIX + i;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startSample() {
+        next = 0;
+        seen = new HashSet<>(sampleSize * 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public String benchmarkGenerate() {
+        String url = urls[next];
+        next = next + 1 == sampleSize ? 0 : next + 1;
+        return generator.generate(url, 0);
+    }
+
+    @Benchmark
+    public void benchmarkCollisions(CollisionCounters counters) {
+        if (next == sampleSize) {
+            next = 0;
+            seen.clear();
+        }
+        String code = generator.generate(urls[next++], 0);
+        counters.codes++;
+        if (!seen.add(Base62.decode(code))) {
+            counters.collisions++;
+        }
+    }
+
+    /**
+     * Reported by JMH next to the score as codes and collisions per iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CollisionCounters {
+        public long codes;
+        public long collisions;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            codes = 0;
+            collisions = 0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ShortCodeGeneratorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,135 @@
+package com.urlshortener.benchmark;
+
+import com.urlshortener.UrlShortenerApplication;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end HTTP load against a running instance, comparing request handling on
+ * platform threads with virtual threads.
+ *
+ * Many client threads hit the embedded server at once: redirects with the redirect
+ * cache disabled, so every request blocks on JDBC, and logins, which block on BCrypt.
+ * The Tomcat worker pool is deliberately small so a burst exceeds it in platform mode.
+ * Throughput mode reports requests per millisecond; sample-time mode reports the latency
+ * distribution, including p0.99.
+ *
+ * The virtual mode needs the jar built and run on Java 21+, as CI's benchmark job does:
+ * mvn -Pvirtual-threads package -DskipTests && java -jar target/benchmarks.jar ThreadModeLoadBenchmark
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(256)
+@Warmup(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ThreadModeLoadBenchmark {
+
+    private static final int LINKS = 10_000;
+    private static final String USERNAME = "loadtest";
+    private static final String PASSWORD = "loadtest-password";
+
+    @Param({ "platform", "virtual" })
+    private String mode;
+
+    @Param({ "50" })
+    private int tomcatThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String[] shortCodes;
+    private String loginBody;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        boolean virtual = "virtual".equals(mode);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual mode needs Java 21+ (mvn -Pvirtual-threads), running on Java "
+                    + Runtime.version().feature());
+        }
+        context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "server.tomcat.threads.max=" + tomcatThreads,
+                        "spring.datasource.hikari.maximum-pool-size=20",
+                        "spring.datasource.hikari.connection-timeout=2000",
+                        "shortener.cache.max-size=0",
+                        "logging.level.root=WARN",
+                        "logging.level.com.urlshortener=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run();
+
+        UrlShortenerService urlShortenerService = context.getBean(UrlShortenerService.class);
+        shortCodes = new String[LINKS];
+        for (int i = 0; i < LINKS; i++) {
+            shortCodes[i] = urlShortenerService.shortenUrl("https://www.example.com/load/" + i, USERNAME);
+        }
+        context.getBean(UserService.class).createUser(USERNAME, "loadtest@example.com", PASSWORD);
+        loginBody = "{\"username\":\"" + USERNAME + "\",\"password\":\"" + PASSWORD + "\"}";
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public int benchmarkRedirect() throws IOException, InterruptedException {
+        String shortCode = shortCodes[ThreadLocalRandom.current().nextInt(LINKS)];
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + shortCode)).GET().build();
+        return expect(client.send(request, HttpResponse.BodyHandlers.discarding()), 302);
+    }
+
+    @Benchmark
+    public int benchmarkLogin() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(loginBody))
+                .build();
+        return expect(client.send(request, HttpResponse.BodyHandlers.discarding()), 200);
+    }
+
+    private static int expect(HttpResponse<?> response, int status) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("Expected HTTP " + status + " but got " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ThreadModeLoadBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.urlshortener.benchmark;
+
+import com.urlshortener.service.UrlCanonicalizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of UrlCanonicalizer and how far it shrinks a corpus of shortened URLs.
+ *
+ * The corpus is synthetic: {@code pages} target pages, each submitted in variants that
+ * real link traffic shows, namely host case, an explicit default port, a trailing slash,
+ * a fragment, reordered query parameters and utm/gclid/fbclid tags. main first prints
+ * the distinct URLs before and after canonicalization, the working set that the dedup
+ * lookup, the Bloom filter and the redirect cache hold, then runs the benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class UrlCanonicalizerBenchmark {
+
+    private static final int PAGES = 10_000;
+    private static final int CORPUS_SIZE = 100_000;
+
+    private UrlCanonicalizer canonicalizer;
+    private String[] corpus;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        canonicalizer = newCanonicalizer();
+        corpus = corpus(PAGES, CORPUS_SIZE, 42);
+    }
+
+    @Benchmark
+    public String benchmarkCanonicalize() {
+        String url = corpus[next];
+        next = next + 1 == corpus.length ? 0 : next + 1;
+        return canonicalizer.canonicalize(url);
+    }
+
+    static UrlCanonicalizer newCanonicalizer() {
+        return new UrlCanonicalizer(true, List.of("utm_*", "gclid", "fbclid"));
+    }
+
+    static String[] corpus(int pages, int size, long seed) {
+        Random random = new Random(seed);
+        String[] sources = {"newsletter", "twitter", "partner"};
+        String[] urls = new String[size];
+        for (int i = 0; i < size; i++) {
+            int page = random.nextInt(pages);
+            StringBuilder url = new StringBuilder("https://");
+            String host = "www.shop" + (page % 50) + ".example.com";
+            url.append(random.nextInt(4) == 0 ? host.toUpperCase(Locale.ROOT) : host);
+            if (random.nextInt(10) == 0) {
+                url.append(":443");
+            }
+            url.append("/products/").append(page);
+            if (random.nextBoolean()) {
+                url.append('/');
+            }
+            List<String> params = new ArrayList<>(List.of("id=" + page, "ref=home"));
+            if (random.nextBoolean()) {
+                params.add("utm_source=" + sources[random.nextInt(sources.length)]);
+                params.add("utm_campaign=c" + random.nextInt(20));
+            }
+            if (random.nextInt(5) == 0) {
+                params.add(random.nextBoolean() ? "gclid=" + random.nextInt() : "fbclid=" + random.nextInt());
+            }
+            Collections.shuffle(params, random);
+            url.append('?').append(String.join("&", params));
+            if (random.nextInt(5) == 0) {
+                url.append("#reviews");
+            }
+            urls[i] = url.toString();
+        }
+        return urls;
+    }
+
+    static void printWorkingSet() {
+        UrlCanonicalizer canonicalizer = newCanonicalizer();
+        Set<String> raw = new HashSet<>();
+        Set<String> canonical = new HashSet<>();
+        for (String url : corpus(PAGES, CORPUS_SIZE, 42)) {
+            raw.add(url);
+            canonical.add(canonicalizer.canonicalize(url));
+        }
+        System.out.printf("%d URLs over %d pages: %d distinct raw, %d distinct canonical (%.1f%% smaller)%n",
+                CORPUS_SIZE, PAGES, raw.size(), canonical.size(),
+                100.0 * (raw.size() - canonical.size()) / raw.size());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        printWorkingSet();
+        Options opt = new OptionsBuilder()
+                .include(UrlCanonicalizerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -10,6 +10,8 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.concurrent.TimeUnit;
 
@@ -24,6 +26,8 @@ public class UrlShortenerBenchmark {
     private ConfigurableApplicationContext context;
     private UrlShortenerService urlShortenerService;
     private ShortUrlRepository shortUrlRepository;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
     private String testUrl;
     private String existingShortCode;
 
@@ -32,6 +36,10 @@ public class UrlShortenerBenchmark {
         context = SpringApplication.run(com.urlshortener.UrlShortenerApplication.class);
         urlShortenerService = context.getBean(UrlShortenerService.class);
         shortUrlRepository = context.getBean(ShortUrlRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
         testUrl = "https://www.example.com/benchmark";
         existingShortCode = urlShortenerService.shortenUrl(testUrl, "benchmark");
     }
@@ -53,6 +61,26 @@ public class UrlShortenerBenchmark {
         urlShortenerService.getOriginalUrl(existingShortCode);
     }
 
+    /**
+     * Database resolution as getOriginalUrl used to do it: a managed entity loaded
+     * inside a read-write transaction. Bypasses the redirect cache.
+     */
+    @Benchmark
+    public String benchmarkResolveManagedEntity() {
+        return readWriteTransaction.execute(status ->
+                shortUrlRepository.findByShortCode(existingShortCode).get().getOriginalUrl());
+    }
+
+    /**
+     * Database resolution as getOriginalUrl does it on a cache miss: a projection of
+     * the target URL and expiry inside a read-only transaction. Bypasses the redirect cache.
+     */
+    @Benchmark
+    public String benchmarkResolveReadOnlyProjection() {
+        return readOnlyTransaction.execute(status ->
+                shortUrlRepository.findRedirectTargetByShortCode(existingShortCode).get().getOriginalUrl());
+    }
+
     @Benchmark
     public void benchmarkGetStatistics() {
         urlShortenerService.getStatistics(existingShortCode);
@@ -0,0 +1,103 @@
+package com.urlshortener.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.urlshortener.dto.RedirectTarget;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Bounded in-process cache of redirect targets keyed by short code.
+ *
+ * Eviction is frequency-aware (Caffeine's W-TinyLFU), so a small set of hot links
+ * stays resident while one-off lookups are admitted only if they prove popular.
+ * An entry never outlives its link: it expires at the earlier of the configured
+ * TTL and the link's own expiresAt, on Caffeine's own timer wheel, so lookups need
+ * no expiry check of their own. Hit, miss and eviction counts are published
+ * to Micrometer under the cache name "redirects".
+ */
+@Component
+public class RedirectCache {
+
+    static final String CACHE_NAME = "redirects";
+
+    private final Cache<String, RedirectTarget> cache;
+
+    @Autowired
+    public RedirectCache(@Value("${shortener.cache.max-size:100000}") long maxSize,
+                         @Value("${shortener.cache.ttl:PT10M}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new LinkExpiry(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Looks up a cached redirect target.
+     *
+     * @param shortCode The short code to look up
+     * @return Optional containing the target if cached and not expired
+     *
+     * @ensures \result.isPresent() ==> !\result.get().isExpired()
+     */
+    public Optional<RedirectTarget> get(String shortCode) {
+        return Optional.ofNullable(cache.getIfPresent(shortCode));
+    }
+
+    public void put(RedirectTarget target) {
+        if (!target.isExpired()) {
+            cache.put(target.getShortCode(), target);
+        }
+    }
+
+    public void invalidate(String shortCode) {
+        cache.invalidate(shortCode);
+    }
+
+    long estimatedSize() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Expires each entry at the earlier of the cache TTL and the link's expiresAt.
+     */
+    private static final class LinkExpiry implements Expiry<String, RedirectTarget> {
+
+        private final Duration ttl;
+
+        private LinkExpiry(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, RedirectTarget value, long currentTime) {
+            Duration untilExpiry = Duration.between(LocalDateTime.now(), value.getExpiresAt());
+            if (untilExpiry.isNegative()) {
+                return 0;
+            }
+            return untilExpiry.compareTo(ttl) < 0 ? untilExpiry.toNanos() : ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, RedirectTarget value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, RedirectTarget value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.urlshortener.codegen;
+
+/**
+ * Fixed-width base62 encoding of non-negative counters into short codes.
+ */
+public final class Base62 {
+
+    static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = ALPHABET.length();
+
+    private Base62() {
+    }
+
+    /**
+     * Number of distinct codes of the given width.
+     */
+    public static long capacity(int width) {
+        long capacity = 1;
+        for (int i = 0; i < width; i++) {
+            capacity = Math.multiplyExact(capacity, BASE);
+        }
+        return capacity;
+    }
+
+    /**
+     * Encodes a value as exactly {@code width} characters, left-padded with '0'.
+     *
+     * @throws IllegalArgumentException if the value is negative or needs more digits
+     */
+    public static String encode(long value, int width) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        char[] digits = new char[width];
+        long remaining = value;
+        for (int i = width - 1; i >= 0; i--) {
+            digits[i] = ALPHABET.charAt((int) (remaining % BASE));
+            remaining /= BASE;
+        }
+        if (remaining != 0) {
+            throw new IllegalArgumentException("Value " + value + " does not fit in " + width + " base62 digits");
+        }
+        return new String(digits);
+    }
+
+    public static long decode(String code) {
+        long value = 0;
+        for (int i = 0; i < code.length(); i++) {
+            int digit = ALPHABET.indexOf(code.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Not a base62 code: " + code);
+            }
+            value = Math.addExact(Math.multiplyExact(value, BASE), digit);
+        }
+        return value;
+    }
+}
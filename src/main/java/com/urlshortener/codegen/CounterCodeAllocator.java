@@ -0,0 +1,116 @@
+package com.urlshortener.codegen;
+
+import com.urlshortener.entity.CodeSequence;
+import com.urlshortener.repository.CodeSequenceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Allocates short codes by base62-encoding IDs from a counter shared by all instances.
+ *
+ * IDs are leased from the {@code code_sequences} table in blocks: the sequence row is
+ * locked, advanced by the block size and committed in its own transaction, so the
+ * database is touched once per block rather than once per link and concurrent instances
+ * never receive overlapping ranges. IDs left in a block when the instance stops are
+ * simply skipped. Codes are fixed-width and collision-free among themselves; they are
+ * sequential, so unlike hash codes they reveal creation order.
+ *
+ * Used through CounterCodeGenerator when {@code shortener.codes.strategy=counter}; no
+ * block is leased until the first code is asked for.
+ */
+@Component
+public class CounterCodeAllocator {
+
+    static final String SEQUENCE_NAME = "short_code";
+    static final int CODE_LENGTH = 8;
+    private static final int MAX_LEASE_ATTEMPTS = 3;
+    private static final Logger logger = LoggerFactory.getLogger(CounterCodeAllocator.class);
+
+    private final CodeSequenceRepository codeSequenceRepository;
+    private final TransactionTemplate leaseTransaction;
+    private final int blockSize;
+    private final long maxId;
+    private final Counter leases;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long nextId;
+    private long blockEnd;
+
+    @Autowired
+    public CounterCodeAllocator(CodeSequenceRepository codeSequenceRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${shortener.codes.block-size:1000}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.codeSequenceRepository = codeSequenceRepository;
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.maxId = Base62.capacity(CODE_LENGTH);
+        this.leases = Counter.builder("shortener.codes.leases")
+                .description("ID blocks leased from the code sequence")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the next unused code, leasing a new block of IDs when the current one is
+     * exhausted.
+     *
+     * @throws IllegalStateException if every code of the fixed length has been handed out
+     */
+    public String nextCode() {
+        lock.lock();
+        try {
+            if (nextId >= blockEnd) {
+                long start = leaseBlock();
+                nextId = start;
+                blockEnd = start + blockSize;
+            }
+            if (nextId >= maxId) {
+                throw new IllegalStateException("Short code space exhausted");
+            }
+            return Base62.encode(nextId++, CODE_LENGTH);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long leaseBlock() {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long start = leaseTransaction.execute(status -> {
+                    CodeSequence sequence = codeSequenceRepository.findByNameForUpdate(SEQUENCE_NAME)
+                            .orElse(null);
+                    if (sequence == null) {
+                        codeSequenceRepository.saveAndFlush(new CodeSequence(SEQUENCE_NAME, (long) blockSize));
+                        return 0L;
+                    }
+                    long leased = sequence.getNextValue();
+                    sequence.setNextValue(leased + blockSize);
+                    return leased;
+                });
+                leases.increment();
+                logger.debug("Leased short code IDs [{}, {})", start, start + blockSize);
+                return start;
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created the sequence row first; lock it on the next try
+                if (attempt >= MAX_LEASE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
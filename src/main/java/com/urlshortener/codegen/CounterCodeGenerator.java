@@ -0,0 +1,25 @@
+package com.urlshortener.codegen;
+
+/**
+ * Sequential base62 codes leased from the shared counter; see CounterCodeAllocator.
+ * Counter codes never collide with each other, but one may equal a code created earlier
+ * by another strategy, in which case the next attempt simply takes the next code.
+ */
+public class CounterCodeGenerator implements ShortCodeGenerator {
+
+    private final CounterCodeAllocator allocator;
+
+    public CounterCodeGenerator(CounterCodeAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    @Override
+    public String generate(String originalUrl, int attempt) {
+        return allocator.nextCode();
+    }
+
+    @Override
+    public boolean isCollisionFree() {
+        return true;
+    }
+}
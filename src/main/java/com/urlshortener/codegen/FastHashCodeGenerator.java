@@ -0,0 +1,26 @@
+package com.urlshortener.codegen;
+
+import com.urlshortener.index.Hashing;
+import com.urlshortener.service.ShortUrlRules;
+
+/**
+ * A non-cryptographic 64-bit hash of the URL (FNV-1a with the MurmurHash3 finalizer),
+ * base62-encoded. Deterministic like the SHA-256 generator but an order of magnitude
+ * cheaper; retries remix the hash with the attempt number. The codes are guessable from
+ * the URL, which is no worse than SHA-256 codes, whose input is just as public.
+ */
+public class FastHashCodeGenerator implements ShortCodeGenerator {
+
+    private static final long CODE_SPACE = Base62.capacity(ShortUrlRules.SHORT_CODE_LENGTH);
+    /** 2^64 / golden ratio; spaces the attempts evenly over the hash space. */
+    private static final long ATTEMPT_STEP = 0x9E3779B97F4A7C15L;
+
+    @Override
+    public String generate(String originalUrl, int attempt) {
+        long hash = Hashing.hash64(originalUrl);
+        if (attempt > 0) {
+            hash = Hashing.mix64(hash + attempt * ATTEMPT_STEP);
+        }
+        return Base62.encode(Long.remainderUnsigned(hash, CODE_SPACE), ShortUrlRules.SHORT_CODE_LENGTH);
+    }
+}
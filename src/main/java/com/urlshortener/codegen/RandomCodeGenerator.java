@@ -0,0 +1,30 @@
+package com.urlshortener.codegen;
+
+import com.urlshortener.service.ShortUrlRules;
+
+import java.security.SecureRandom;
+
+/**
+ * Uniformly random codes from a SecureRandom, ignoring the URL. Codes reveal nothing
+ * about the target or creation order and cannot be enumerated; every attempt is a fresh
+ * draw.
+ */
+public class RandomCodeGenerator implements ShortCodeGenerator {
+
+    private static final long CODE_SPACE = Base62.capacity(ShortUrlRules.SHORT_CODE_LENGTH);
+
+    private final SecureRandom random;
+
+    public RandomCodeGenerator() {
+        this(new SecureRandom());
+    }
+
+    RandomCodeGenerator(SecureRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public String generate(String originalUrl, int attempt) {
+        return Base62.encode(random.nextLong(CODE_SPACE), ShortUrlRules.SHORT_CODE_LENGTH);
+    }
+}
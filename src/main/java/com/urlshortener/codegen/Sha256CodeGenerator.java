@@ -0,0 +1,17 @@
+package com.urlshortener.codegen;
+
+import com.urlshortener.service.ShortUrlRules;
+
+/**
+ * The SHA-256 of the URL, base62-encoded; retries hash the URL with a timestamp and the
+ * attempt number appended. Equal URLs get equal first candidates on every instance.
+ */
+public class Sha256CodeGenerator implements ShortCodeGenerator {
+
+    @Override
+    public String generate(String originalUrl, int attempt) {
+        return attempt == 0
+                ? ShortUrlRules.generateShortCode(originalUrl)
+                : ShortUrlRules.generateShortCode(ShortUrlRules.rehashInput(originalUrl, attempt));
+    }
+}
@@ -0,0 +1,101 @@
+package com.urlshortener.codegen;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Derives short codes and URL digests from the SHA-256 of a URL without per-call garbage.
+ *
+ * Each thread keeps its own MessageDigest, input buffer and hash buffer. ASCII URLs, the
+ * usual case, are copied into the input buffer byte by byte; anything else goes through
+ * String.getBytes. The code is written from the first eight hash bytes, read as an
+ * unsigned number, straight into base62 digits, so the only allocation left is the
+ * returned String. On virtual threads, which are not reused, the per-thread state buys
+ * nothing but costs no more than allocating it per call.
+ */
+public final class ShortCodeEncoder {
+
+    private static final int HASH_LENGTH = 32;
+    /** URLs are stored in at most 2048 characters; longer input falls back to getBytes. */
+    private static final int INPUT_BUFFER_LENGTH = 2048;
+    private static final int BASE = Base62.ALPHABET.length();
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private ShortCodeEncoder() {
+    }
+
+    /**
+     * Encodes the SHA-256 of the input as {@code length} base62 characters.
+     *
+     * @requires input != null && 0 < length && length <= 10
+     * @ensures \result.length() == length
+     */
+    public static String encode(String input, int length) {
+        if (length < 1 || length > 10) {
+            throw new IllegalArgumentException("Code length must be between 1 and 10: " + length);
+        }
+        State state = STATE.get();
+        long value = state.hash(input);
+        char[] code = state.code;
+        for (int i = length - 1; i >= 0; i--) {
+            code[i] = Base62.ALPHABET.charAt((int) Long.remainderUnsigned(value, BASE));
+            value = Long.divideUnsigned(value, BASE);
+        }
+        return new String(code, 0, length);
+    }
+
+    /**
+     * The first 64 bits of the SHA-256 of the input.
+     *
+     * @requires input != null
+     */
+    public static long hash64(String input) {
+        return STATE.get().hash(input);
+    }
+
+    private static final class State {
+        private final MessageDigest digest;
+        private final byte[] input = new byte[INPUT_BUFFER_LENGTH];
+        private final byte[] hash = new byte[HASH_LENGTH];
+        private final char[] code = new char[10];
+
+        State() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("SHA-256 algorithm not available", e);
+            }
+        }
+
+        long hash(String text) {
+            int length = text.length();
+            boolean ascii = length <= input.length;
+            for (int i = 0; ascii && i < length; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    input[i] = (byte) c;
+                } else {
+                    ascii = false;
+                }
+            }
+            if (ascii) {
+                digest.update(input, 0, length);
+            } else {
+                digest.update(text.getBytes(StandardCharsets.UTF_8));
+            }
+            try {
+                digest.digest(hash, 0, HASH_LENGTH);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | (hash[i] & 0xFF);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.urlshortener.codegen;
+
+/**
+ * Produces candidate short codes for new links.
+ *
+ * The service asks for attempt 0 first and, each time the candidate turns out to be
+ * taken, for the next attempt, so a generator must return a different code for each
+ * attempt of the same URL. Uniqueness against existing links is the caller's job.
+ * Implementations are thread-safe. The deployment picks one with
+ * {@code shortener.codes.strategy}; see ShortCodeStrategy.
+ */
+public interface ShortCodeGenerator {
+
+    /**
+     * @param originalUrl the URL being shortened, already validated
+     * @param attempt     0 for the first candidate, then 1, 2, ... after collisions
+     * @return a code of ShortUrlRules.SHORT_CODE_LENGTH characters
+     *
+     * @requires originalUrl != null && attempt >= 0
+     * @ensures \result != null && \result.length() == ShortUrlRules.SHORT_CODE_LENGTH
+     */
+    String generate(String originalUrl, int attempt);
+
+    /**
+     * Whether no two calls, on this instance or any other, ever return the same code.
+     * Only then is a code free once it is missing from the database and the pending
+     * links, with no chance of another instance inserting it concurrently; write-behind
+     * relies on that to acknowledge links before inserting them.
+     */
+    default boolean isCollisionFree() {
+        return false;
+    }
+}
@@ -0,0 +1,43 @@
+package com.urlshortener.codegen;
+
+import java.util.Locale;
+
+/**
+ * The values of {@code shortener.codes.strategy}.
+ */
+public enum ShortCodeStrategy {
+
+    /** SHA-256 of the URL; the default. */
+    HASH,
+
+    /** 64-bit non-cryptographic hash of the URL. */
+    FAST_HASH,
+
+    /** SecureRandom codes. */
+    RANDOM,
+
+    /** Sequential codes from the shared counter. */
+    COUNTER,
+
+    /** Timestamp, node ID and sequence, minted without coordination. */
+    SNOWFLAKE;
+
+    /**
+     * Parses a property value such as {@code fast-hash}, ignoring case.
+     *
+     * @throws IllegalArgumentException for an unknown strategy
+     */
+    public static ShortCodeStrategy of(String value) {
+        for (ShortCodeStrategy strategy : values()) {
+            if (strategy.name().replace('_', '-').equalsIgnoreCase(value.strip())) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown short code strategy: " + value);
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
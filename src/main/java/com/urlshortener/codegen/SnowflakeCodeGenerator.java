@@ -0,0 +1,122 @@
+package com.urlshortener.codegen;
+
+import com.urlshortener.service.ShortUrlRules;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Snowflake-style codes: a timestamp, this node's ID and a per-node sequence packed into
+ * one number and base62-encoded, so nodes mint unique codes without asking the database
+ * or each other.
+ *
+ * The number has the 47 bits an 8-character base62 code holds: 30 bits of seconds since
+ * 2025-01-01 UTC (until 2059), {@code nodeBits} bits of node ID and the remaining bits
+ * of sequence. With the default 5 node bits that is 32 nodes of 4096 codes per second.
+ *
+ * The generator keeps a logical second that never goes back. When the wall clock
+ * regresses, codes keep coming from the logical second; when a second's sequence is used
+ * up, the next second is borrowed before the wall clock reaches it. Borrowing is bounded
+ * by MAX_SECONDS_AHEAD beyond the latest wall-clock second seen, past which callers wait
+ * for the clock. A node restarted on a clock behind the codes it issued before could
+ * repeat one; the service's uniqueness check then simply asks for the next attempt.
+ */
+public class SnowflakeCodeGenerator implements ShortCodeGenerator {
+
+    static final long EPOCH_SECOND = Instant.parse("2025-01-01T00:00:00Z").getEpochSecond();
+    static final int TIMESTAMP_BITS = 30;
+    static final int PAYLOAD_BITS = 47;
+    static final long MAX_SECONDS_AHEAD = 5;
+
+    private final Clock clock;
+    private final int nodeBits;
+    private final int sequenceBits;
+    private final long nodeId;
+    private final long maxSequence;
+    // Not synchronized: a caller may sleep waiting for the clock and must not pin a carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long logicalSecond = -1;
+    private long latestWallSecond = -1;
+    private long sequence;
+
+    public SnowflakeCodeGenerator(int nodeId, int nodeBits) {
+        this(nodeId, nodeBits, Clock.systemUTC());
+    }
+
+    SnowflakeCodeGenerator(int nodeId, int nodeBits, Clock clock) {
+        if (nodeBits < 0 || nodeBits > PAYLOAD_BITS - TIMESTAMP_BITS - 1) {
+            throw new IllegalArgumentException("Node bits must be between 0 and "
+                    + (PAYLOAD_BITS - TIMESTAMP_BITS - 1) + ": " + nodeBits);
+        }
+        if (nodeId < 0 || nodeId >= 1L << nodeBits) {
+            throw new IllegalArgumentException("Node ID " + nodeId + " does not fit in " + nodeBits + " bits");
+        }
+        if (Base62.capacity(ShortUrlRules.SHORT_CODE_LENGTH) < 1L << PAYLOAD_BITS) {
+            throw new IllegalStateException("Short codes are too short for snowflake IDs");
+        }
+        this.clock = clock;
+        this.nodeBits = nodeBits;
+        this.sequenceBits = PAYLOAD_BITS - TIMESTAMP_BITS - nodeBits;
+        this.nodeId = nodeId;
+        this.maxSequence = (1L << sequenceBits) - 1;
+    }
+
+    @Override
+    public String generate(String originalUrl, int attempt) {
+        return Base62.encode(nextId(), ShortUrlRules.SHORT_CODE_LENGTH);
+    }
+
+    /**
+     * Node IDs are unique per deployment, so instances never mint the same code; a code
+     * repeated after a clock regression is already stored or pending on this node.
+     */
+    @Override
+    public boolean isCollisionFree() {
+        return true;
+    }
+
+    /**
+     * @throws IllegalStateException once the 30-bit timestamp has run out
+     */
+    long nextId() {
+        lock.lock();
+        try {
+            long wallSecond = wallSecond();
+            latestWallSecond = Math.max(latestWallSecond, wallSecond);
+            if (wallSecond > logicalSecond) {
+                logicalSecond = wallSecond;
+                sequence = 0;
+            } else if (sequence < maxSequence) {
+                sequence++;
+            } else {
+                while (logicalSecond + 1 > latestWallSecond + MAX_SECONDS_AHEAD) {
+                    waitForClock();
+                    latestWallSecond = Math.max(latestWallSecond, wallSecond());
+                }
+                logicalSecond++;
+                sequence = 0;
+            }
+            if (logicalSecond >= 1L << TIMESTAMP_BITS) {
+                throw new IllegalStateException("Snowflake timestamp space exhausted");
+            }
+            return (logicalSecond << (nodeBits + sequenceBits)) | (nodeId << sequenceBits) | sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long wallSecond() {
+        return Math.max(0, clock.instant().getEpochSecond() - EPOCH_SECOND);
+    }
+
+    private void waitForClock() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the clock", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.urlshortener.config;
+
+import com.urlshortener.analytics.ClickEventPipeline;
+import com.urlshortener.controller.RedirectFilter;
+import com.urlshortener.service.UrlShortenerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Mounts RedirectFilter ahead of every other servlet filter, including the Spring
+ * Security chain. Disable with {@code shortener.redirect.fast-path=false} to serve
+ * redirects through RedirectController instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shortener.redirect.fast-path", havingValue = "true", matchIfMissing = true)
+public class RedirectFilterConfig {
+
+    @Bean
+    public FilterRegistrationBean<RedirectFilter> redirectFilter(
+            UrlShortenerService urlShortenerService,
+            @Value("${shortener.redirect.max-cache-age:P7D}") Duration maxCacheAge,
+            ClickEventPipeline clickEvents) {
+        FilterRegistrationBean<RedirectFilter> registration =
+                new FilterRegistrationBean<>(new RedirectFilter(urlShortenerService, maxCacheAge, clickEvents));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -1,7 +1,9 @@
 package com.urlshortener.config;
 
+import com.urlshortener.security.BoundedPasswordEncoder;
 import com.urlshortener.security.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -44,8 +46,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${shortener.passwords.max-concurrency:0}") int maxConcurrency) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), maxConcurrency);
     }
 
     @Bean
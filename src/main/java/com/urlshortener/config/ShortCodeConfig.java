@@ -0,0 +1,57 @@
+package com.urlshortener.config;
+
+import com.urlshortener.codegen.CounterCodeAllocator;
+import com.urlshortener.codegen.CounterCodeGenerator;
+import com.urlshortener.codegen.FastHashCodeGenerator;
+import com.urlshortener.codegen.RandomCodeGenerator;
+import com.urlshortener.codegen.Sha256CodeGenerator;
+import com.urlshortener.codegen.ShortCodeGenerator;
+import com.urlshortener.codegen.ShortCodeStrategy;
+import com.urlshortener.codegen.SnowflakeCodeGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Picks the ShortCodeGenerator new links take their codes from, by
+ * {@code shortener.codes.strategy}: hash (default), fast-hash, random, counter or
+ * snowflake. Every instance running snowflake needs its own
+ * {@code shortener.codes.snowflake.node-id}. Counter codes are leased through JPA, so
+ * the reactive flavor, which imports this configuration without JPA, refuses them.
+ */
+@Configuration
+public class ShortCodeConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShortCodeConfig.class);
+
+    @Bean
+    public ShortCodeGenerator shortCodeGenerator(@Value("${shortener.codes.strategy:hash}") String strategy,
+                                                 ObjectProvider<CounterCodeAllocator> counterCodeAllocator,
+                                                 @Value("${shortener.codes.snowflake.node-id:-1}") int nodeId,
+                                                 @Value("${shortener.codes.snowflake.node-bits:5}") int nodeBits) {
+        ShortCodeStrategy selected = ShortCodeStrategy.of(strategy);
+        logger.info("Generating short codes with the {} strategy", selected);
+        return switch (selected) {
+            case HASH -> new Sha256CodeGenerator();
+            case FAST_HASH -> new FastHashCodeGenerator();
+            case RANDOM -> new RandomCodeGenerator();
+            case COUNTER -> {
+                CounterCodeAllocator allocator = counterCodeAllocator.getIfAvailable();
+                if (allocator == null) {
+                    throw new IllegalStateException("The counter strategy needs the code_sequences table through JPA, "
+                            + "which this application does not run");
+                }
+                yield new CounterCodeGenerator(allocator);
+            }
+            case SNOWFLAKE -> {
+                if (nodeId < 0) {
+                    throw new IllegalArgumentException("shortener.codes.snowflake.node-id must be set for the snowflake strategy");
+                }
+                yield new SnowflakeCodeGenerator(nodeId, nodeBits);
+            }
+        };
+    }
+}
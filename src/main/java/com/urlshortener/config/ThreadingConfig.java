@@ -0,0 +1,43 @@
+package com.urlshortener.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Reports the thread model requests run on.
+ *
+ * The {@code virtual} profile sets {@code spring.threads.virtual.enabled}, which moves
+ * Tomcat request handling, {@code @Scheduled} tasks and async executors onto virtual
+ * threads. Spring Boot only honours it on Java 21 or later, so the profile needs a build
+ * from the {@code virtual-threads} Maven profile (active on any Java 21 JDK) or the
+ * Docker image built with {@code JAVA_VERSION=21}. On older runtimes the flag is
+ * silently ignored, so warn instead.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingConfig.class);
+    static final int VIRTUAL_THREADS_JAVA_VERSION = 21;
+
+    private final boolean virtualThreadsRequested;
+
+    public ThreadingConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsRequested) {
+        this.virtualThreadsRequested = virtualThreadsRequested;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreadModel() {
+        if (!virtualThreadsRequested) {
+            logger.info("Handling requests on platform threads");
+        } else if (Runtime.version().feature() < VIRTUAL_THREADS_JAVA_VERSION) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                    + "running on platform threads; build and run on Java 21+", Runtime.version().feature());
+        } else {
+            logger.info("Handling requests on virtual threads");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.importer.ImportFormat;
+import com.urlshortener.importer.LinkImporter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Bulk import of links from a CSV or NDJSON body, answered with an NDJSON stream of
+ * per-row results. See LinkImporter.
+ */
+@RestController
+@RequestMapping("/api")
+public class ImportController {
+
+    private final LinkImporter linkImporter;
+
+    @Autowired
+    public ImportController(LinkImporter linkImporter) {
+        this.linkImporter = linkImporter;
+    }
+
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public void importLinks(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImportFormat format = ImportFormat.forContentType(request.getContentType());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(ImportFormat.NDJSON.getMediaType());
+        response.setCharacterEncoding("UTF-8");
+        linkImporter.importLinks(request.getInputStream(), format, authentication.getName(), response.getOutputStream());
+    }
+}
@@ -1,36 +1,52 @@
 package com.urlshortener.controller;
 
+import com.urlshortener.analytics.ClickEventPipeline;
+import com.urlshortener.dto.RedirectTarget;
+import com.urlshortener.entity.CachePolicy;
 import com.urlshortener.service.UrlShortenerService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @RestController
 public class RedirectController {
 
     private final UrlShortenerService urlShortenerService;
+    private final Duration maxCacheAge;
+    private final ClickEventPipeline clickEvents;
 
     @Autowired
-    public RedirectController(UrlShortenerService urlShortenerService) {
+    public RedirectController(UrlShortenerService urlShortenerService,
+                              @Value("${shortener.redirect.max-cache-age:P7D}") Duration maxCacheAge,
+                              ClickEventPipeline clickEvents) {
         this.urlShortenerService = urlShortenerService;
+        this.maxCacheAge = maxCacheAge;
+        this.clickEvents = clickEvents;
     }
 
     @GetMapping("/{shortCode}")
-    public ResponseEntity<Void> redirect(@PathVariable String shortCode) {
-        Optional<String> originalUrlOpt = urlShortenerService.getOriginalUrl(shortCode);
+    public ResponseEntity<Void> redirect(@PathVariable String shortCode, HttpServletRequest request) {
+        Optional<RedirectTarget> targetOpt = urlShortenerService.resolve(shortCode);
         
-        if (originalUrlOpt.isEmpty()) {
+        if (targetOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         
-        return ResponseEntity.status(HttpStatus.FOUND)
-                .header("Location", originalUrlOpt.get())
+        RedirectTarget target = targetOpt.get();
+        CachePolicy cachePolicy = target.getCachePolicy();
+        clickEvents.record(shortCode, request.getHeader(HttpHeaders.REFERER), request.getHeader(HttpHeaders.USER_AGENT),
+                request.getRemoteAddr());
+        return ResponseEntity.status(cachePolicy.getStatus())
+                .header("Location", target.getOriginalUrl())
+                .header(HttpHeaders.CACHE_CONTROL, cachePolicy.cacheControl(target.getExpiresAt(), maxCacheAge))
                 .build();
     }
 }
-
@@ -0,0 +1,109 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.analytics.ClickEventPipeline;
+import com.urlshortener.dto.RedirectTarget;
+import com.urlshortener.entity.CachePolicy;
+import com.urlshortener.service.UrlShortenerService;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Serves GET /{shortCode} redirects before the Spring Security filter chain and
+ * DispatcherServlet see the request.
+ *
+ * Redirects are public, so there is no security context to build and no MVC handler
+ * to resolve: the filter matches the path itself, asks UrlShortenerService for the
+ * target and writes the redirect or 404 directly, exactly as RedirectController would.
+ * The status and Cache-Control header of a redirect follow the link's CachePolicy, and
+ * each redirect is offered to the ClickEventPipeline.
+ * Anything that is not a single alphanumeric path segment, or that names one of the
+ * application's own top-level paths, continues down the normal chain.
+ */
+public class RedirectFilter implements Filter {
+
+    static final int MAX_CODE_LENGTH = 10;
+    private static final Set<String> RESERVED = Set.of("api", "actuator", "error");
+
+    private final UrlShortenerService urlShortenerService;
+    private final Duration maxCacheAge;
+    private final ClickEventPipeline clickEvents;
+
+    public RedirectFilter(UrlShortenerService urlShortenerService, Duration maxCacheAge,
+                          ClickEventPipeline clickEvents) {
+        this.urlShortenerService = urlShortenerService;
+        this.maxCacheAge = maxCacheAge;
+        this.clickEvents = clickEvents;
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        String shortCode = shortCode(request);
+        if (shortCode == null) {
+            chain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        // The headers the security chain would otherwise have added
+        response.setHeader("Cache-Control", CachePolicy.NO_STORE_CACHE_CONTROL);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        Optional<RedirectTarget> target;
+        try {
+            target = urlShortenerService.resolve(shortCode);
+        } catch (CannotCreateTransactionException e) {
+            // Connection pool exhausted, as GlobalExceptionHandler reports it for the API
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            return;
+        }
+        if (target.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        CachePolicy cachePolicy = target.get().getCachePolicy();
+        response.setStatus(cachePolicy.getStatus());
+        response.setHeader("Location", target.get().getOriginalUrl());
+        response.setHeader("Cache-Control", cachePolicy.cacheControl(target.get().getExpiresAt(), maxCacheAge));
+        clickEvents.record(shortCode, request.getHeader("Referer"), request.getHeader("User-Agent"),
+                request.getRemoteAddr());
+    }
+
+    /**
+     * @return the short code addressed by the request, or null if it is not a redirect
+     */
+    static String shortCode(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return null;
+        }
+        String uri = request.getRequestURI();
+        int start = request.getContextPath().length() + 1;
+        int length = uri.length() - start;
+        if (length < 1 || length > MAX_CODE_LENGTH || uri.charAt(start - 1) != '/') {
+            return null;
+        }
+        for (int i = start; i < uri.length(); i++) {
+            char c = uri.charAt(i);
+            boolean alphanumeric = (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+            if (!alphanumeric) {
+                return null;
+            }
+        }
+        String shortCode = uri.substring(start);
+        return RESERVED.contains(shortCode) ? null : shortCode;
+    }
+}
@@ -1,9 +1,21 @@
 package com.urlshortener.controller;
 
+import com.urlshortener.analytics.ClickRollups;
+import com.urlshortener.analytics.HeavyHitters;
+import com.urlshortener.analytics.RollupGranularity;
+import com.urlshortener.analytics.UniqueVisitors;
+import com.urlshortener.dto.BatchShortenRequest;
+import com.urlshortener.dto.BatchShortenResponse;
 import com.urlshortener.dto.ShortenUrlRequest;
 import com.urlshortener.dto.ShortenUrlResponse;
 import com.urlshortener.dto.StatisticsResponse;
+import com.urlshortener.dto.TimeseriesPoint;
+import com.urlshortener.dto.TimeseriesResponse;
+import com.urlshortener.dto.TopLinksResponse;
+import com.urlshortener.dto.UserLink;
+import com.urlshortener.dto.UserLinksResponse;
 import com.urlshortener.entity.ShortUrl;
+import com.urlshortener.repository.ShortUrlRepository;
 import com.urlshortener.service.UrlShortenerService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +25,13 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -20,17 +39,28 @@ import java.util.Optional;
 public class UrlController {
 
     private final UrlShortenerService urlShortenerService;
+    private final ClickRollups clickRollups;
+    private final UniqueVisitors uniqueVisitors;
+    private final HeavyHitters heavyHitters;
     private static final String BASE_URL = "http://localhost:8080/";
+    static final int MAX_LINKS_PAGE_SIZE = 500;
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
 
     @Autowired
-    public UrlController(UrlShortenerService urlShortenerService) {
+    public UrlController(UrlShortenerService urlShortenerService, ClickRollups clickRollups,
+                         UniqueVisitors uniqueVisitors, HeavyHitters heavyHitters) {
         this.urlShortenerService = urlShortenerService;
+        this.clickRollups = clickRollups;
+        this.uniqueVisitors = uniqueVisitors;
+        this.heavyHitters = heavyHitters;
     }
 
     @PostMapping("/shorten")
     public ResponseEntity<ShortenUrlResponse> shortenUrl(@Valid @RequestBody ShortenUrlRequest request) {
         String username = getCurrentUsername();
-        String shortCode = urlShortenerService.shortenUrl(request.getUrl(), username);
+        String shortCode = urlShortenerService.shortenUrl(request.getUrl(), username, request.getCachePolicy(),
+                request.getTtl());
         
         ShortenUrlResponse response = new ShortenUrlResponse(
             BASE_URL + shortCode,
@@ -41,6 +71,36 @@ public class UrlController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/shorten/batch")
+    public ResponseEntity<BatchShortenResponse> shortenUrls(@Valid @RequestBody BatchShortenRequest request) {
+        String username = getCurrentUsername();
+        List<String> shortCodes = urlShortenerService.shortenUrls(request.getUrls(), username, request.getCachePolicy());
+        
+        List<ShortenUrlResponse> results = new ArrayList<>(shortCodes.size());
+        for (int i = 0; i < shortCodes.size(); i++) {
+            results.add(new ShortenUrlResponse(
+                BASE_URL + shortCodes.get(i),
+                shortCodes.get(i),
+                request.getUrls().get(i)
+            ));
+        }
+        
+        return ResponseEntity.ok(new BatchShortenResponse(results));
+    }
+
+    /**
+     * The most clicked links of the last few minutes, from HeavyHitters' sketches rather
+     * than the database. Click counts are estimates that may run slightly high.
+     */
+    @GetMapping("/stats/top")
+    public ResponseEntity<TopLinksResponse> getTopLinks(@RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > heavyHitters.getCapacity()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + heavyHitters.getCapacity());
+        }
+        return ResponseEntity.ok(new TopLinksResponse(heavyHitters.getWindow(),
+                heavyHitters.top(limit, System.currentTimeMillis())));
+    }
+
     @GetMapping("/stats/{shortCode}")
     public ResponseEntity<StatisticsResponse> getStatistics(@PathVariable String shortCode) {
         Optional<ShortUrl> shortUrlOpt = urlShortenerService.getStatistics(shortCode);
@@ -58,10 +118,107 @@ public class UrlController {
             shortUrl.getCreatedAt(),
             shortUrl.getExpiresAt()
         );
+        response.setUniqueVisitors(uniqueVisitors.estimate(shortCode));
         
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Clicks per minute (the last hour), hour (the last two days) or day (the last 90
+     * days), newest bucket last. Read from ClickRollups; buckets are aligned to UTC.
+     *
+     * @param points how many of the newest buckets to return, at most the granularity's retention
+     */
+    @GetMapping("/stats/{shortCode}/timeseries")
+    public ResponseEntity<TimeseriesResponse> getTimeseries(@PathVariable String shortCode,
+                                                            @RequestParam(defaultValue = "hour") String granularity,
+                                                            @RequestParam(required = false) Integer points) {
+        RollupGranularity bucketSize = RollupGranularity.of(granularity);
+        int buckets = points == null ? bucketSize.getBuckets() : points;
+        if (buckets < 1 || buckets > bucketSize.getBuckets()) {
+            throw new IllegalArgumentException("points must be between 1 and " + bucketSize.getBuckets()
+                    + " for granularity " + bucketSize);
+        }
+        if (urlShortenerService.getStatistics(shortCode).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long now = System.currentTimeMillis();
+        long[] clicks = clickRollups.timeseries(shortCode, bucketSize, buckets, now);
+        long firstBucket = now / bucketSize.getMillis() - buckets + 1;
+        List<TimeseriesPoint> series = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            series.add(new TimeseriesPoint(Instant.ofEpochMilli((firstBucket + i) * bucketSize.getMillis()), clicks[i]));
+        }
+
+        return ResponseEntity.ok(new TimeseriesResponse(shortCode, bucketSize.toString(), series));
+    }
+
+    /**
+     * The current user's links, newest first, paged by an opaque cursor: each page that
+     * is not the last carries a nextCursor to pass back for the page after it. Pages are
+     * seeked by keyset, so a deep page is as fast as the first.
+     *
+     * @param size how many links per page, 1 to MAX_LINKS_PAGE_SIZE
+     */
+    @GetMapping("/users/me/links")
+    public ResponseEntity<UserLinksResponse> getMyLinks(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int size) {
+        String username = getCurrentUsername();
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (size < 1 || size > MAX_LINKS_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_LINKS_PAGE_SIZE);
+        }
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            afterCreatedAt = LocalDateTime.parse(position[0]);
+            afterId = Long.valueOf(position[1]);
+        }
+
+        // One row past the page tells whether another page follows
+        List<ShortUrlRepository.UserLinkRow> rows =
+                urlShortenerService.getLinksCreatedBy(username, afterCreatedAt, afterId, size + 1);
+        List<ShortUrlRepository.UserLinkRow> page = rows.subList(0, Math.min(size, rows.size()));
+        List<UserLink> links = new ArrayList<>(page.size());
+        for (ShortUrlRepository.UserLinkRow row : page) {
+            links.add(new UserLink(row.getShortCode(), row.getOriginalUrl(), row.getClickCount(),
+                    row.getCreatedAt(), row.getExpiresAt()));
+        }
+        String nextCursor = null;
+        if (rows.size() > size) {
+            ShortUrlRepository.UserLinkRow last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+
+        return ResponseEntity.ok(new UserLinksResponse(links, nextCursor));
+    }
+
+    private static String encodeCursor(LocalDateTime createdAt, Long id) {
+        return CURSOR_ENCODER.encodeToString((createdAt + "," + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the createdAt and id a cursor holds
+     * @throws IllegalArgumentException if the cursor was not made by encodeCursor
+     */
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8).split(",");
+            if (position.length == 2) {
+                LocalDateTime.parse(position[0]);
+                Long.parseLong(position[1]);
+                return position;
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
     private String getCurrentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated() 
@@ -0,0 +1,42 @@
+package com.urlshortener.dto;
+
+import com.urlshortener.entity.CachePolicy;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchShortenRequest {
+
+    public static final int MAX_URLS = 10_000;
+
+    @NotEmpty(message = "URLs are required")
+    @Size(max = MAX_URLS, message = "At most " + MAX_URLS + " URLs per batch")
+    private List<String> urls;
+
+    /** Optional; applies to every link of the batch. */
+    private CachePolicy cachePolicy;
+
+    public BatchShortenRequest() {
+    }
+
+    public BatchShortenRequest(List<String> urls) {
+        this.urls = urls;
+    }
+
+    public List<String> getUrls() {
+        return urls;
+    }
+
+    public void setUrls(List<String> urls) {
+        this.urls = urls;
+    }
+
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    public void setCachePolicy(CachePolicy cachePolicy) {
+        this.cachePolicy = cachePolicy;
+    }
+}
@@ -0,0 +1,22 @@
+package com.urlshortener.dto;
+
+import java.util.List;
+
+public class BatchShortenResponse {
+    private List<ShortenUrlResponse> results;
+
+    public BatchShortenResponse() {
+    }
+
+    public BatchShortenResponse(List<ShortenUrlResponse> results) {
+        this.results = results;
+    }
+
+    public List<ShortenUrlResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ShortenUrlResponse> results) {
+        this.results = results;
+    }
+}
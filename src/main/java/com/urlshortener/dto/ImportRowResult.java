@@ -0,0 +1,56 @@
+package com.urlshortener.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one row of a bulk import: the new link, or the reason the row was rejected.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportRowResult {
+    private long line;
+    private String shortCode;
+    private String originalUrl;
+    private String error;
+
+    public ImportRowResult() {
+    }
+
+    public ImportRowResult(long line, String shortCode, String originalUrl, String error) {
+        this.line = line;
+        this.shortCode = shortCode;
+        this.originalUrl = originalUrl;
+        this.error = error;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+
+    public String getOriginalUrl() {
+        return originalUrl;
+    }
+
+    public void setOriginalUrl(String originalUrl) {
+        this.originalUrl = originalUrl;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,43 @@
+package com.urlshortener.dto;
+
+/**
+ * Totals of a bulk import, sent as its last line.
+ */
+public class ImportSummary {
+    private long rows;
+    private long created;
+    private long failed;
+
+    public ImportSummary() {
+    }
+
+    public ImportSummary(long rows, long created, long failed) {
+        this.rows = rows;
+        this.created = created;
+        this.failed = failed;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+}
@@ -0,0 +1,46 @@
+package com.urlshortener.dto;
+
+import com.urlshortener.entity.CachePolicy;
+
+import java.time.LocalDateTime;
+
+/**
+ * The minimal view of a short URL needed to serve a redirect.
+ */
+public class RedirectTarget {
+    private final String shortCode;
+    private final String originalUrl;
+    private final LocalDateTime expiresAt;
+    private final CachePolicy cachePolicy;
+
+    public RedirectTarget(String shortCode, String originalUrl, LocalDateTime expiresAt) {
+        this(shortCode, originalUrl, expiresAt, CachePolicy.NO_STORE);
+    }
+
+    public RedirectTarget(String shortCode, String originalUrl, LocalDateTime expiresAt, CachePolicy cachePolicy) {
+        this.shortCode = shortCode;
+        this.originalUrl = originalUrl;
+        this.expiresAt = expiresAt;
+        this.cachePolicy = cachePolicy;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public String getOriginalUrl() {
+        return originalUrl;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    public boolean isExpired() {
+        return LocalDateTime.now().isAfter(expiresAt);
+    }
+}
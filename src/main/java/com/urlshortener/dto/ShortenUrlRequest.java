@@ -1,14 +1,23 @@
 package com.urlshortener.dto;
 
+import com.urlshortener.entity.CachePolicy;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 
+import java.time.Duration;
+
 public class ShortenUrlRequest {
 
     @NotBlank(message = "URL is required")
     @Pattern(regexp = "^https?://.+", message = "URL must start with http:// or https://")
     private String url;
 
+    /** Optional; links default to CachePolicy.NO_STORE. */
+    private CachePolicy cachePolicy;
+
+    /** Optional ISO-8601 duration such as "PT24H"; links default to ShortUrl.DEFAULT_LIFETIME. */
+    private Duration ttl;
+
     public ShortenUrlRequest() {
     }
 
@@ -23,5 +32,21 @@ public class ShortenUrlRequest {
     public void setUrl(String url) {
         this.url = url;
     }
+
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    public void setCachePolicy(CachePolicy cachePolicy) {
+        this.cachePolicy = cachePolicy;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
 }
 
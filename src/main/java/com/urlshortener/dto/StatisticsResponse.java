@@ -9,6 +9,13 @@ public class StatisticsResponse {
     private Long clickCount;
     private LocalDateTime createdAt;
     private LocalDateTime expiresAt;
+    /**
+     * Estimated distinct visitors (by salted client IP hash) from a HyperLogLog sketch:
+     * within 1.6% of the true count for two links in three and within 3.3% for 19 in
+     * 20; counts below a few hundred are nearly exact. Null when visitor counting is
+     * disabled.
+     */
+    private Long uniqueVisitors;
 
     public StatisticsResponse() {
     }
@@ -70,5 +77,13 @@ public class StatisticsResponse {
     public void setExpiresAt(LocalDateTime expiresAt) {
         this.expiresAt = expiresAt;
     }
+
+    public Long getUniqueVisitors() {
+        return uniqueVisitors;
+    }
+
+    public void setUniqueVisitors(Long uniqueVisitors) {
+        this.uniqueVisitors = uniqueVisitors;
+    }
 }
 
@@ -0,0 +1,32 @@
+package com.urlshortener.dto;
+
+import java.time.Instant;
+
+public class TimeseriesPoint {
+    private Instant start;
+    private Long clicks;
+
+    public TimeseriesPoint() {
+    }
+
+    public TimeseriesPoint(Instant start, Long clicks) {
+        this.start = start;
+        this.clicks = clicks;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public void setStart(Instant start) {
+        this.start = start;
+    }
+
+    public Long getClicks() {
+        return clicks;
+    }
+
+    public void setClicks(Long clicks) {
+        this.clicks = clicks;
+    }
+}
@@ -0,0 +1,42 @@
+package com.urlshortener.dto;
+
+import java.util.List;
+
+public class TimeseriesResponse {
+    private String shortCode;
+    private String granularity;
+    private List<TimeseriesPoint> points;
+
+    public TimeseriesResponse() {
+    }
+
+    public TimeseriesResponse(String shortCode, String granularity, List<TimeseriesPoint> points) {
+        this.shortCode = shortCode;
+        this.granularity = granularity;
+        this.points = points;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public List<TimeseriesPoint> getPoints() {
+        return points;
+    }
+
+    public void setPoints(List<TimeseriesPoint> points) {
+        this.points = points;
+    }
+}
@@ -0,0 +1,30 @@
+package com.urlshortener.dto;
+
+public class TopLink {
+    private String shortCode;
+    private Long clicks;
+
+    public TopLink() {
+    }
+
+    public TopLink(String shortCode, Long clicks) {
+        this.shortCode = shortCode;
+        this.clicks = clicks;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+
+    public Long getClicks() {
+        return clicks;
+    }
+
+    public void setClicks(Long clicks) {
+        this.clicks = clicks;
+    }
+}
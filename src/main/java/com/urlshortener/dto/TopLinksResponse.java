@@ -0,0 +1,33 @@
+package com.urlshortener.dto;
+
+import java.time.Duration;
+import java.util.List;
+
+public class TopLinksResponse {
+    private Duration window;
+    private List<TopLink> links;
+
+    public TopLinksResponse() {
+    }
+
+    public TopLinksResponse(Duration window, List<TopLink> links) {
+        this.window = window;
+        this.links = links;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public List<TopLink> getLinks() {
+        return links;
+    }
+
+    public void setLinks(List<TopLink> links) {
+        this.links = links;
+    }
+}
@@ -0,0 +1,63 @@
+package com.urlshortener.dto;
+
+import java.time.LocalDateTime;
+
+public class UserLink {
+    private String shortCode;
+    private String originalUrl;
+    private Long clickCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+
+    public UserLink() {
+    }
+
+    public UserLink(String shortCode, String originalUrl, Long clickCount, LocalDateTime createdAt,
+                    LocalDateTime expiresAt) {
+        this.shortCode = shortCode;
+        this.originalUrl = originalUrl;
+        this.clickCount = clickCount;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+
+    public String getOriginalUrl() {
+        return originalUrl;
+    }
+
+    public void setOriginalUrl(String originalUrl) {
+        this.originalUrl = originalUrl;
+    }
+
+    public Long getClickCount() {
+        return clickCount;
+    }
+
+    public void setClickCount(Long clickCount) {
+        this.clickCount = clickCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,33 @@
+package com.urlshortener.dto;
+
+import java.util.List;
+
+public class UserLinksResponse {
+    private List<UserLink> links;
+    /** Passed back as the cursor parameter for the next page; null on the last page. */
+    private String nextCursor;
+
+    public UserLinksResponse() {
+    }
+
+    public UserLinksResponse(List<UserLink> links, String nextCursor) {
+        this.links = links;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserLink> getLinks() {
+        return links;
+    }
+
+    public void setLinks(List<UserLink> links) {
+        this.links = links;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
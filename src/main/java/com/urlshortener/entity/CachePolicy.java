@@ -0,0 +1,61 @@
+package com.urlshortener.entity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * How browsers and shared caches may reuse the redirect of a link.
+ *
+ * Cacheable policies send {@code public, max-age=N}, where N is the time left until the
+ * link expires, capped by {@code shortener.redirect.max-cache-age}; no cache can keep
+ * serving a link past its expiry. A redirect served from a cache never reaches the
+ * application, so its click is not counted.
+ */
+public enum CachePolicy {
+
+    /** 301; browsers and proxies remember the target. */
+    PERMANENT(301, true),
+
+    /** 302 with max-age. */
+    TEMPORARY(302, true),
+
+    /** 307 with max-age; clients repeat the request method and body at the target. */
+    TEMPORARY_PRESERVE_METHOD(307, true),
+
+    /** 302 that nothing may store, so every click reaches the application. */
+    NO_STORE(302, false);
+
+    public static final String NO_STORE_CACHE_CONTROL = "no-cache, no-store, max-age=0, must-revalidate";
+
+    private final int status;
+    private final boolean cacheable;
+
+    CachePolicy(int status, boolean cacheable) {
+        this.status = status;
+        this.cacheable = cacheable;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @param expiresAt   expiry of the link
+     * @param maxCacheAge upper bound for max-age
+     * @return the Cache-Control header for a redirect of a link with this policy
+     */
+    public String cacheControl(LocalDateTime expiresAt, Duration maxCacheAge) {
+        return cacheControl(expiresAt, maxCacheAge, LocalDateTime.now());
+    }
+
+    String cacheControl(LocalDateTime expiresAt, Duration maxCacheAge, LocalDateTime now) {
+        if (!cacheable) {
+            return NO_STORE_CACHE_CONTROL;
+        }
+        long maxAge = Math.min(Duration.between(now, expiresAt).getSeconds(), maxCacheAge.getSeconds());
+        if (maxAge <= 0) {
+            return NO_STORE_CACHE_CONTROL;
+        }
+        return "public, max-age=" + maxAge;
+    }
+}
@@ -0,0 +1,61 @@
+package com.urlshortener.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * The persisted click rollups of one short code: its minute, hour and day buckets in
+ * the binary form ClickRollups writes.
+ */
+@Entity
+@Table(name = "click_rollups")
+public class ClickRollup {
+
+    @Id
+    @Column(length = 10)
+    private String shortCode;
+
+    @NotNull
+    @Column(nullable = false, length = 1024)
+    private byte[] buckets;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ClickRollup() {
+    }
+
+    public ClickRollup(String shortCode, byte[] buckets, LocalDateTime updatedAt) {
+        this.shortCode = shortCode;
+        this.buckets = buckets;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+
+    public byte[] getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(byte[] buckets) {
+        this.buckets = buckets;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
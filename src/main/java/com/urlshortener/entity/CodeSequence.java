@@ -0,0 +1,45 @@
+package com.urlshortener.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Named counter from which short code allocators lease blocks of IDs.
+ */
+@Entity
+@Table(name = "code_sequences")
+public class CodeSequence {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long nextValue;
+
+    public CodeSequence() {
+    }
+
+    public CodeSequence(String name, Long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
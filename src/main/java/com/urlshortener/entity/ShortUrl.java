@@ -1,18 +1,33 @@
 package com.urlshortener.entity;
 
+import com.urlshortener.service.ShortUrlRules;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
+import java.time.Period;
 
 @Entity
 @Table(name = "short_urls", indexes = {
     @Index(name = "idx_short_code", columnList = "shortCode", unique = true),
-    @Index(name = "idx_original_url", columnList = "originalUrl")
+    @Index(name = "idx_url_hash", columnList = "urlHash, createdBy"),
+    @Index(name = "idx_expires_at", columnList = "expiresAt"),
+    // Only the keyset columns: originalUrl is too wide for a btree entry and clickCount
+    // changes on every click flush, so the listed rows are fetched from the table by id
+    @Index(name = "idx_created_by_created_at_id", columnList = "createdBy, createdAt, id")
 })
 public class ShortUrl {
 
+    /** How long a new link stays resolvable. */
+    public static final Period DEFAULT_LIFETIME = Period.ofYears(1);
+
+    /** IDs handed out per sequence call; Hibernate assigns them without a round trip. */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // A pooled sequence rather than IDENTITY, which would force Hibernate to insert each
+    // row on its own to read the key back and so disable JDBC batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "short_url_seq")
+    @SequenceGenerator(name = "short_url_seq", sequenceName = "short_url_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -23,6 +38,11 @@ public class ShortUrl {
     @Column(nullable = false, length = 2048)
     private String originalUrl;
 
+    // Stands in for originalUrl in lookups by target: an 8-byte key indexes far more
+    // compactly than the 2048-character URL (see ShortUrlRules.urlHash)
+    @Column(nullable = false)
+    private Long urlHash;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -35,16 +55,22 @@ public class ShortUrl {
     @Column(length = 100)
     private String createdBy;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private CachePolicy cachePolicy = CachePolicy.NO_STORE;
+
     public ShortUrl() {
     }
 
     public ShortUrl(String shortCode, String originalUrl, String createdBy) {
         this.shortCode = shortCode;
         this.originalUrl = originalUrl;
+        this.urlHash = ShortUrlRules.urlHash(originalUrl);
         this.createdBy = createdBy;
         this.createdAt = LocalDateTime.now();
-        this.expiresAt = LocalDateTime.now().plusYears(1);
+        this.expiresAt = this.createdAt.plus(DEFAULT_LIFETIME);
         this.clickCount = 0L;
+        this.cachePolicy = CachePolicy.NO_STORE;
     }
 
     // Getters and Setters
@@ -70,6 +96,11 @@ public class ShortUrl {
 
     public void setOriginalUrl(String originalUrl) {
         this.originalUrl = originalUrl;
+        this.urlHash = ShortUrlRules.urlHash(originalUrl);
+    }
+
+    public Long getUrlHash() {
+        return urlHash;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -104,6 +135,14 @@ public class ShortUrl {
         this.createdBy = createdBy;
     }
 
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    public void setCachePolicy(CachePolicy cachePolicy) {
+        this.cachePolicy = cachePolicy;
+    }
+
     public void incrementClickCount() {
         this.clickCount++;
     }
@@ -0,0 +1,61 @@
+package com.urlshortener.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * The persisted unique-visitor HyperLogLog sketch of one short code, merged into by
+ * every node that has seen its clicks.
+ */
+@Entity
+@Table(name = "visitor_sketches")
+public class VisitorSketch {
+
+    @Id
+    @Column(length = 10)
+    private String shortCode;
+
+    @NotNull
+    @Column(nullable = false, length = 4097)
+    private byte[] sketch;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public VisitorSketch() {
+    }
+
+    public VisitorSketch(String shortCode, byte[] sketch, LocalDateTime updatedAt) {
+        this.shortCode = shortCode;
+        this.sketch = sketch;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,40 @@
+package com.urlshortener.importer;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Body formats accepted by the bulk import. Both hold one row per line.
+ */
+public enum ImportFormat {
+
+    /** Comma-separated; the URL is the first field. An initial "url" header line is skipped. */
+    CSV("text/csv"),
+
+    /** One JSON object per line with a "url" property. */
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the content type is neither format
+     */
+    public static ImportFormat forContentType(String contentType) {
+        if (contentType != null) {
+            MediaType parsed = MediaType.parseMediaType(contentType);
+            for (ImportFormat format : values()) {
+                if (parsed.isCompatibleWith(MediaType.parseMediaType(format.mediaType))) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + contentType);
+    }
+}
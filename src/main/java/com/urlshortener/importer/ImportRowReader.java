@@ -0,0 +1,157 @@
+package com.urlshortener.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads import rows one line at a time.
+ *
+ * Only the current line is held in memory, and a line longer than MAX_LINE_LENGTH is
+ * skipped to its end and reported as an invalid row rather than buffered, so memory
+ * stays bounded whatever the body contains.
+ */
+public class ImportRowReader {
+
+    /** Longest URL ShortUrl stores, plus room for the CSV or JSON around it. */
+    static final int MAX_LINE_LENGTH = 4096;
+
+    private final Reader reader;
+    private final ImportFormat format;
+    private final ObjectMapper objectMapper;
+    private final StringBuilder line = new StringBuilder();
+    private long lineNumber;
+    private boolean endOfInput;
+
+    public ImportRowReader(Reader reader, ImportFormat format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the next non-blank row, or null at the end of the body
+     */
+    public Row next() throws IOException {
+        while (true) {
+            boolean tooLong = readLine();
+            if (tooLong) {
+                return Row.invalid(lineNumber, "Line exceeds " + MAX_LINE_LENGTH + " characters");
+            }
+            if (line.length() == 0 && endOfInput) {
+                return null;
+            }
+            String text = line.toString().strip();
+            if (text.isEmpty()) {
+                continue;
+            }
+            if (format == ImportFormat.CSV && lineNumber == 1 && "url".equalsIgnoreCase(firstCsvField(text))) {
+                continue;
+            }
+            return parse(text);
+        }
+    }
+
+    /**
+     * Reads the next line into the buffer without its terminator.
+     *
+     * @return true if the line was too long and has been skipped
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        boolean tooLong = false;
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (line.length() < MAX_LINE_LENGTH) {
+                line.append((char) c);
+            } else {
+                tooLong = true;
+            }
+        }
+        endOfInput = c == -1;
+        if (c != -1 || line.length() > 0 || tooLong) {
+            lineNumber++;
+        }
+        return tooLong;
+    }
+
+    private Row parse(String text) {
+        if (format == ImportFormat.CSV) {
+            return Row.of(lineNumber, firstCsvField(text));
+        }
+        try {
+            JsonNode node = objectMapper.readTree(text);
+            JsonNode url = node == null ? null : node.get("url");
+            if (url == null || !url.isTextual()) {
+                return Row.invalid(lineNumber, "Missing \"url\" property");
+            }
+            return Row.of(lineNumber, url.asText());
+        } catch (JsonProcessingException e) {
+            return Row.invalid(lineNumber, "Malformed JSON");
+        }
+    }
+
+    /**
+     * The first field of an RFC 4180 line; a quoted field may contain commas and doubled quotes.
+     */
+    static String firstCsvField(String text) {
+        if (!text.startsWith("\"")) {
+            int comma = text.indexOf(',');
+            return (comma < 0 ? text : text.substring(0, comma)).strip();
+        }
+        StringBuilder field = new StringBuilder();
+        for (int i = 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    break;
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        return field.toString();
+    }
+
+    /**
+     * One line of the body: a URL to shorten, or the reason the line cannot be read.
+     */
+    public static final class Row {
+
+        private final long line;
+        private final String url;
+        private final String error;
+
+        private Row(long line, String url, String error) {
+            this.line = line;
+            this.url = url;
+            this.error = error;
+        }
+
+        static Row of(long line, String url) {
+            return new Row(line, url, null);
+        }
+
+        static Row invalid(long line, String error) {
+            return new Row(line, null, error);
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.urlshortener.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urlshortener.dto.ImportRowResult;
+import com.urlshortener.dto.ImportSummary;
+import com.urlshortener.service.ShortUrlRules;
+import com.urlshortener.service.UrlShortenerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a bulk import from a CSV or NDJSON body into short links.
+ *
+ * Rows are read one at a time; rows with an unreadable line or a URL the service would
+ * reject are answered at once, the rest are collected into chunks of a fixed size and
+ * each chunk is shortened in its own transaction through UrlShortenerService.shortenUrls.
+ * A result line per row is written as NDJSON and flushed after every chunk, followed by
+ * an ImportSummary line. At most one chunk is held in memory, however large the body.
+ *
+ * Everything runs on the request thread with blocking I/O, which is the backpressure:
+ * the next chunk is only read once the previous one is committed and its results have
+ * been handed to a client that is keeping up with them.
+ */
+@Component
+public class LinkImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinkImporter.class);
+    static final int MAX_URL_LENGTH = 2048;
+
+    private final UrlShortenerService urlShortenerService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    @Autowired
+    public LinkImporter(UrlShortenerService urlShortenerService, ObjectMapper objectMapper,
+                        @Value("${shortener.import.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.urlShortenerService = urlShortenerService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param in       the request body
+     * @param format   how the body is encoded
+     * @param username owner of the imported links
+     * @param out      receives one ImportRowResult line per row, then an ImportSummary line
+     * @return the totals also written as the last line
+     */
+    public ImportSummary importLinks(InputStream in, ImportFormat format, String username, OutputStream out)
+            throws IOException {
+        ImportRowReader rows = new ImportRowReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), format, objectMapper);
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        List<ImportRowReader.Row> chunk = new ArrayList<>(chunkSize);
+        long total = 0;
+        long created = 0;
+
+        ImportRowReader.Row row;
+        while ((row = rows.next()) != null) {
+            total++;
+            String error = row.getError() != null ? row.getError() : validate(row.getUrl());
+            if (error != null) {
+                write(writer, new ImportRowResult(row.getLine(), null, row.getUrl(), error));
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                created += writeChunk(chunk, username, writer);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += writeChunk(chunk, username, writer);
+        }
+
+        ImportSummary summary = new ImportSummary(total, created, total - created);
+        write(writer, summary);
+        writer.flush();
+        logger.info("Imported {} of {} rows for {}", created, total, username);
+        return summary;
+    }
+
+    private int writeChunk(List<ImportRowReader.Row> chunk, String username, Writer writer) throws IOException {
+        List<String> urls = new ArrayList<>(chunk.size());
+        for (ImportRowReader.Row row : chunk) {
+            urls.add(row.getUrl());
+        }
+
+        int created = 0;
+        try {
+            List<String> shortCodes = urlShortenerService.shortenUrls(urls, username, null);
+            for (int i = 0; i < chunk.size(); i++) {
+                write(writer, new ImportRowResult(chunk.get(i).getLine(), shortCodes.get(i), urls.get(i), null));
+            }
+            created = chunk.size();
+        } catch (DataAccessException e) {
+            // The chunk was rolled back as a whole; report it and carry on with the next one
+            logger.warn("Import chunk of {} rows failed", chunk.size(), e);
+            for (int i = 0; i < chunk.size(); i++) {
+                write(writer, new ImportRowResult(chunk.get(i).getLine(), null, urls.get(i), "Could not be saved"));
+            }
+        }
+        chunk.clear();
+        writer.flush();
+        return created;
+    }
+
+    private static String validate(String url) {
+        try {
+            ShortUrlRules.validateUrl(url);
+            // Would otherwise fail its whole chunk on the column length
+            return url.length() > MAX_URL_LENGTH ? "URL exceeds " + MAX_URL_LENGTH + " characters" : null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void write(Writer writer, Object line) throws IOException {
+        writer.write(objectMapper.writeValueAsString(line));
+        writer.write('\n');
+    }
+}
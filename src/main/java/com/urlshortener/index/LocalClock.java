@@ -0,0 +1,56 @@
+package com.urlshortener.index;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * The current local date-time as epoch millis read in UTC, the clock link expiries are
+ * stored in: the same value as {@code LocalDateTime.now().toInstant(ZoneOffset.UTC)},
+ * without allocating on every call. The zone offset is looked up once and reused until
+ * the next offset transition of the default zone.
+ */
+final class LocalClock {
+
+    private static volatile Offset offset = Offset.at(System.currentTimeMillis());
+
+    private LocalClock() {
+    }
+
+    static long nowMillis() {
+        long now = System.currentTimeMillis();
+        Offset current = offset;
+        if (now < current.validFrom || now >= current.validUntil) {
+            current = Offset.at(now);
+            offset = current;
+        }
+        return now + current.millis;
+    }
+
+    /**
+     * The offset of the default zone and the span of epoch millis it applies to.
+     */
+    private static final class Offset {
+
+        final long millis;
+        final long validFrom;
+        final long validUntil;
+
+        private Offset(long millis, long validFrom, long validUntil) {
+            this.millis = millis;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+
+        static Offset at(long epochMillis) {
+            ZoneRules rules = ZoneId.systemDefault().getRules();
+            Instant instant = Instant.ofEpochMilli(epochMillis);
+            ZoneOffsetTransition previous = rules.previousTransition(instant);
+            ZoneOffsetTransition next = rules.nextTransition(instant);
+            return new Offset(rules.getOffset(instant).getTotalSeconds() * 1000L,
+                    previous == null ? Long.MIN_VALUE : previous.getInstant().toEpochMilli(),
+                    next == null ? Long.MAX_VALUE : next.getInstant().toEpochMilli());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.urlshortener.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A file mapped into memory as fixed-size segments and addressed by a long offset,
+ * so regions larger than the 2 GiB limit of a single MappedByteBuffer can be used.
+ *
+ * Segments are mapped on demand and never unmapped while the file is open. Readers
+ * are lock-free; growing the mapping is serialized. Values never straddle a segment
+ * boundary as long as callers keep them naturally aligned.
+ */
+final class MappedSegments implements Closeable {
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final int segmentShift;
+    private final long segmentMask;
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private long mappedSize;
+
+    MappedSegments(Path file, int segmentShift) {
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open " + file, e);
+        }
+    }
+
+    long segmentSize() {
+        return 1L << segmentShift;
+    }
+
+    /**
+     * Maps enough of the file to address every byte below {@code size}, growing the file
+     * if needed. The mapping at least doubles on each growth so appends stay amortized;
+     * a partially used last segment is replaced by a larger mapping of the same pages.
+     */
+    synchronized void ensureMapped(long size) {
+        if (size <= mappedSize) {
+            return;
+        }
+        long target = Math.max(size, mappedSize * 2);
+        int needed = (int) ((target + segmentMask) >>> segmentShift);
+        MappedByteBuffer[] grown = Arrays.copyOf(segments, needed);
+        try {
+            for (int i = 0; i < needed; i++) {
+                long start = (long) i << segmentShift;
+                long length = Math.min(segmentSize(), target - start);
+                if (grown[i] == null || grown[i].capacity() < length) {
+                    grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, length);
+                    grown[i].order(ByteOrder.nativeOrder());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map segment", e);
+        }
+        mappedSize = target;
+        segments = grown;
+    }
+
+    long getLongAcquire(long position) {
+        return (long) LONGS.getAcquire(segment(position), offset(position));
+    }
+
+    void setLongRelease(long position, long value) {
+        LONGS.setRelease(segment(position), offset(position), value);
+    }
+
+    long getLong(long position) {
+        return segment(position).getLong(offset(position));
+    }
+
+    void putLong(long position, long value) {
+        segment(position).putLong(offset(position), value);
+    }
+
+    int getInt(long position) {
+        return segment(position).getInt(offset(position));
+    }
+
+    void putInt(long position, int value) {
+        segment(position).putInt(offset(position), value);
+    }
+
+    short getShort(long position) {
+        return segment(position).getShort(offset(position));
+    }
+
+    void putShort(long position, short value) {
+        segment(position).putShort(offset(position), value);
+    }
+
+    byte get(long position) {
+        return segment(position).get(offset(position));
+    }
+
+    void get(long position, byte[] target, int length) {
+        segment(position).get(offset(position), target, 0, length);
+    }
+
+    void put(long position, byte[] source) {
+        segment(position).put(offset(position), source);
+    }
+
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedByteBuffer segment(long position) {
+        return segments[(int) (position >>> segmentShift)];
+    }
+
+    private int offset(long position) {
+        return (int) (position & segmentMask);
+    }
+}
@@ -0,0 +1,761 @@
+package com.urlshortener.index;
+
+import com.urlshortener.dto.RedirectTarget;
+import com.urlshortener.entity.CachePolicy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Open-addressing hash index from short code to redirect target, stored entirely in
+ * memory-mapped files so that it lives off the Java heap and survives restarts.
+ *
+ * <p>The slot file holds a 64-byte header followed by a power-of-two table of 8-byte
+ * slots. Each occupied slot packs a 24-bit hash fingerprint with the 8-byte-aligned
+ * position of a record in the data file; a removed link leaves a tombstone slot that
+ * the next insert probing past it reuses. Records are appended:
+ * <pre>
+ *   0  long  expiresAt (epoch millis of the local date-time, or REMOVED)
+ *   8  short code length
+ *   10 short cache policy (ordinal)
+ *   12 int   URL length
+ *   16 code bytes (ASCII), URL bytes (UTF-8), padded to 8 bytes
+ * </pre>
+ *
+ * <p>Expiry is tracked off-heap as well. The expiry file holds a ring of EXPIRY_BUCKETS
+ * buckets, each covering {@code expiryBucketMillis} of expiry times, followed by chunks
+ * of record positions; a bucket is a linked list of chunks and emptied chunks go on a
+ * free list. Every put files its record under the bucket of its expiry, or under the
+ * last bucket of the ring's horizon if it expires later than that. evictExpired walks
+ * the buckets whose time has passed, removes the links that expired, drops entries of
+ * records that were replaced or removed meanwhile and files the rest under a later bucket.
+ *
+ * <p>Replaced and removed records stay in the data file as dead bytes. Once tombstones
+ * and live links fill MAX_OCCUPANCY of the table, or dead bytes make up more than half
+ * of the data file, the index is compacted: live, unexpired records are copied into
+ * fresh slot, data and expiry files, which then replace the old ones. The work is
+ * proportional to what compaction reclaims, so it stays amortized over the removals
+ * that caused it.
+ *
+ * <p>Lookups are lock-free: a record is fully written before its slot is published
+ * with release semantics, readers load slots with acquire semantics, and a compaction
+ * publishes its files as a whole while readers finish on the old mappings. Writers are
+ * serialized. The table does not resize; once it holds its load limit of live links
+ * further inserts are rejected and callers fall back to the database.
+ */
+public class OffHeapRedirectIndex implements Closeable {
+
+    static final long MAGIC = 0x5552_4C49_4458_0004L;
+    static final double MAX_LOAD_FACTOR = 0.75;
+    /** Share of the slots live links and tombstones together may take before compaction. */
+    static final double MAX_OCCUPANCY = 0.875;
+    static final long DEFAULT_EXPIRY_BUCKET_MILLIS = 60_000;
+    /** Buckets in the expiry ring; at one minute each they reach 45 days ahead. */
+    static final int EXPIRY_BUCKETS = 1 << 16;
+
+    private static final int HEADER_SIZE = 64;
+    private static final long HEADER_MAGIC = 0;
+    private static final long HEADER_CLEAN = 8;
+    private static final long HEADER_CAPACITY = 16;
+    private static final long HEADER_SIZE_FIELD = 24;
+    private static final long HEADER_DATA_END = 32;
+    private static final long HEADER_LAST_ID = 40;
+    private static final long HEADER_TOMBSTONES = 48;
+    private static final long HEADER_DEAD_BYTES = 56;
+
+    private static final int RECORD_HEADER = 16;
+    private static final long REMOVED = Long.MIN_VALUE;
+    // packSlot never produces an all-zero offset, so this cannot be an occupied slot
+    private static final long TOMBSTONE = Long.MIN_VALUE;
+    private static final long OFFSET_MASK = (1L << 40) - 1;
+    private static final int DATA_SEGMENT_SHIFT = 30;
+    private static final int SLOT_SEGMENT_SHIFT = 30;
+    private static final long INITIAL_DATA_MAPPING = 1 << 20;
+
+    private static final int EXPIRY_SEGMENT_SHIFT = 30;
+    private static final long EXPIRY_BUCKET_MILLIS = 0;
+    private static final long EXPIRY_LAST_BUCKET = 8;
+    private static final long EXPIRY_END = 16;
+    private static final long EXPIRY_FREE_CHUNK = 24;
+    private static final long EXPIRY_SCHEDULED = 32;
+    /** Chunk: next chunk, entry count, then record positions; the header takes one chunk's room. */
+    private static final int CHUNK_SIZE = 256;
+    private static final int CHUNK_ENTRIES = CHUNK_SIZE / Long.BYTES - 2;
+    private static final long EXPIRY_HEADS = CHUNK_SIZE;
+    private static final long FIRST_CHUNK = EXPIRY_HEADS + (long) EXPIRY_BUCKETS * Long.BYTES;
+    private static final CachePolicy[] CACHE_POLICIES = CachePolicy.values();
+
+    private final Path slotFile;
+    private final Path dataFile;
+    private final Path expiryFile;
+    private final long expiryBucketMillis;
+    private final long capacity;
+    private final long mask;
+    private final long maxSize;
+    private final long maxOccupied;
+    private final boolean recovered;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Table table;
+    private long size;
+    private long tombstones;
+    private long dataEnd;
+    private long deadBytes;
+    private long lastIndexedId;
+    private long compactions;
+    private long lastExpiredBucket;
+    private long expiryEnd;
+    private long freeChunk;
+    private long scheduled;
+
+    /**
+     * Opens the index in {@code directory} with expiry buckets of DEFAULT_EXPIRY_BUCKET_MILLIS.
+     */
+    public OffHeapRedirectIndex(Path directory, long expectedLinks, boolean reuseSnapshot) {
+        this(directory, expectedLinks, DEFAULT_EXPIRY_BUCKET_MILLIS, reuseSnapshot);
+    }
+
+    /**
+     * Opens the index in {@code directory}. When {@code reuseSnapshot} is set, a snapshot
+     * left by a clean shutdown with the same capacity and expiry buckets is reopened;
+     * otherwise the index starts empty.
+     *
+     * @param directory Directory holding the slot, data and expiry files
+     * @param expectedLinks Number of links the table must hold without exceeding its load limit
+     * @param expiryBucketMillis Span of expiry times one expiry bucket covers
+     * @param reuseSnapshot Whether an existing snapshot may be reopened
+     */
+    public OffHeapRedirectIndex(Path directory, long expectedLinks, long expiryBucketMillis, boolean reuseSnapshot) {
+        if (expiryBucketMillis < 1) {
+            throw new IllegalArgumentException("Expiry bucket must be at least 1 ms");
+        }
+        this.expiryBucketMillis = expiryBucketMillis;
+        this.capacity = tableCapacity(expectedLinks);
+        this.mask = capacity - 1;
+        this.maxSize = (long) (capacity * MAX_LOAD_FACTOR);
+        this.maxOccupied = (long) (capacity * MAX_OCCUPANCY);
+
+        this.slotFile = directory.resolve("redirect-index.slots");
+        this.dataFile = directory.resolve("redirect-index.data");
+        this.expiryFile = directory.resolve("redirect-index.expiry");
+        try {
+            Files.createDirectories(directory);
+            boolean reusable = reuseSnapshot && isReusableSnapshot(slotFile, expiryFile, capacity, expiryBucketMillis);
+            if (!reusable) {
+                Files.deleteIfExists(slotFile);
+                Files.deleteIfExists(dataFile);
+                Files.deleteIfExists(expiryFile);
+            }
+            this.recovered = reusable;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open redirect index in " + directory, e);
+        }
+
+        Table opened = openTable(slotFile, dataFile, expiryFile);
+        if (recovered) {
+            size = opened.slots.getLong(HEADER_SIZE_FIELD);
+            dataEnd = opened.slots.getLong(HEADER_DATA_END);
+            lastIndexedId = opened.slots.getLong(HEADER_LAST_ID);
+            tombstones = opened.slots.getLong(HEADER_TOMBSTONES);
+            deadBytes = opened.slots.getLong(HEADER_DEAD_BYTES);
+            lastExpiredBucket = opened.expiry.getLong(EXPIRY_LAST_BUCKET);
+            expiryEnd = opened.expiry.getLong(EXPIRY_END);
+            freeChunk = opened.expiry.getLong(EXPIRY_FREE_CHUNK);
+            scheduled = opened.expiry.getLong(EXPIRY_SCHEDULED);
+            opened.data.ensureMapped(Math.max(dataEnd, INITIAL_DATA_MAPPING));
+            opened.expiry.ensureMapped(expiryEnd);
+        } else {
+            opened.slots.putLong(HEADER_MAGIC, MAGIC);
+            opened.slots.putLong(HEADER_CAPACITY, capacity);
+            opened.expiry.putLong(EXPIRY_BUCKET_MILLIS, expiryBucketMillis);
+            lastExpiredBucket = Math.floorDiv(LocalClock.nowMillis(), expiryBucketMillis) - 1;
+            expiryEnd = FIRST_CHUNK;
+            writeCounts(opened);
+        }
+        // Marked dirty while open so a crash forces a rebuild on the next start
+        opened.slots.putLong(HEADER_CLEAN, 0);
+        opened.slots.force();
+        opened.expiry.force();
+        this.table = opened;
+    }
+
+    /**
+     * Looks up the redirect target for a short code.
+     *
+     * @param shortCode The short code to look up
+     * @return Optional containing the target if indexed, not removed and not expired
+     */
+    public Optional<RedirectTarget> get(String shortCode) {
+        Table current = table;
+        long record = find(current, shortCode);
+        if (record < 0) {
+            return Optional.empty();
+        }
+        MappedSegments data = current.data;
+        long expiresAt = data.getLongAcquire(record);
+        if (expiresAt == REMOVED || expiresAt < LocalClock.nowMillis()) {
+            return Optional.empty();
+        }
+        int codeLength = data.getShort(record + 8);
+        CachePolicy cachePolicy = CACHE_POLICIES[data.getShort(record + 10)];
+        int urlLength = data.getInt(record + 12);
+        byte[] url = new byte[urlLength];
+        data.get(record + RECORD_HEADER + codeLength, url, urlLength);
+        return Optional.of(new RedirectTarget(shortCode, new String(url, StandardCharsets.UTF_8),
+                LocalDateTime.ofEpochSecond(Math.floorDiv(expiresAt, 1000),
+                        (int) Math.floorMod(expiresAt, 1000) * 1_000_000, ZoneOffset.UTC),
+                cachePolicy));
+    }
+
+    /**
+     * Adds or replaces the target for a short code. A new code takes the first tombstone
+     * on its probe path, if any.
+     *
+     * @param target The redirect target to index
+     * @return false if the table holds its load limit of live links and the target was not indexed
+     */
+    public boolean put(RedirectTarget target) {
+        writeLock.lock();
+        try {
+            return insert(target);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Records that every link with a database id up to {@code id} has been indexed, so a
+     * reopened snapshot only needs to catch up on later rows.
+     */
+    public void markIndexedThrough(long id) {
+        writeLock.lock();
+        try {
+            lastIndexedId = Math.max(lastIndexedId, id);
+            table.slots.putLong(HEADER_LAST_ID, lastIndexedId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a short code. Its slot becomes a tombstone and its record dead bytes, both
+     * reclaimed by later inserts or compaction.
+     */
+    public void remove(String shortCode) {
+        writeLock.lock();
+        try {
+            Table current = table;
+            long slotIndex = findSlot(current, shortCode);
+            if (slotIndex >= 0) {
+                removeSlot(current, slotIndex);
+                compactIfWasteful();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the links whose expiry bucket has passed, like remove, and files the
+     * entries that are not due yet under a later bucket. A link is removed within one
+     * bucket span plus the caller's polling interval after it expires; lookups stop
+     * returning it at its exact expiry regardless.
+     *
+     * @return the number of links removed
+     */
+    public int evictExpired() {
+        writeLock.lock();
+        try {
+            Table current = table;
+            long now = LocalClock.nowMillis();
+            long dueBucket = Math.floorDiv(now, expiryBucketMillis) - 1;
+            // After a long pause every bucket of the ring is due once
+            long bucket = Math.max(lastExpiredBucket, dueBucket - EXPIRY_BUCKETS);
+            int removed = 0;
+            while (bucket < dueBucket) {
+                bucket++;
+                lastExpiredBucket = bucket;
+                removed += expireBucket(current, Math.floorMod(bucket, EXPIRY_BUCKETS), now);
+            }
+            writeCounts(current);
+            compactIfWasteful();
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Entries filed in the expiry buckets, including those of records replaced or
+     * removed since, which the next pass over their bucket drops.
+     */
+    public long scheduledExpiries() {
+        writeLock.lock();
+        try {
+            return scheduled;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long size() {
+        writeLock.lock();
+        try {
+            return size;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Bytes of the data file taken by replaced and removed records.
+     */
+    public long deadBytes() {
+        writeLock.lock();
+        try {
+            return deadBytes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long compactions() {
+        writeLock.lock();
+        try {
+            return compactions;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Whether this index was reopened from a snapshot written by a clean shutdown.
+     */
+    public boolean isRecovered() {
+        return recovered;
+    }
+
+    public long lastIndexedId() {
+        writeLock.lock();
+        try {
+            return lastIndexedId;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            Table current = table;
+            current.data.close();
+            current.expiry.close();
+            current.slots.putLong(HEADER_CLEAN, 1);
+            current.slots.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean insert(RedirectTarget target) {
+        Table current = table;
+        String code = target.getShortCode();
+        long hash = Hashing.hash64(code);
+        long fingerprint = fingerprint(hash);
+        long index = hash & mask;
+        long tombstoneIndex = -1;
+        for (long probes = 0; probes < capacity; probes++) {
+            long slotPosition = slotPosition(index);
+            long slot = current.slots.getLong(slotPosition);
+            if (slot == 0) {
+                break;
+            }
+            if (slot == TOMBSTONE) {
+                if (tombstoneIndex < 0) {
+                    tombstoneIndex = index;
+                }
+            } else if ((slot >>> 40) == fingerprint && codeMatches(current.data, recordPosition(slot), code)) {
+                long replaced = recordPosition(slot);
+                long record = append(current.data, target);
+                current.slots.setLongRelease(slotPosition, packSlot(fingerprint, record));
+                deadBytes += recordLength(current.data, replaced);
+                scheduleExpiry(current.expiry, record, current.data.getLong(record));
+                writeCounts(current);
+                compactIfWasteful();
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+
+        if (size >= maxSize) {
+            return false;
+        }
+        if (tombstoneIndex >= 0) {
+            index = tombstoneIndex;
+            tombstones--;
+        } else if (size + tombstones >= maxOccupied) {
+            // Only tombstones stand between this insert and the load limit
+            compact();
+            return insert(target);
+        }
+        long record = append(current.data, target);
+        current.slots.setLongRelease(slotPosition(index), packSlot(fingerprint, record));
+        size++;
+        scheduleExpiry(current.expiry, record, current.data.getLong(record));
+        writeCounts(current);
+        return true;
+    }
+
+    private void removeSlot(Table current, long slotIndex) {
+        long slotPosition = slotPosition(slotIndex);
+        long record = recordPosition(current.slots.getLong(slotPosition));
+        current.slots.setLongRelease(slotPosition, TOMBSTONE);
+        current.data.setLongRelease(record, REMOVED);
+        size--;
+        tombstones++;
+        deadBytes += recordLength(current.data, record);
+        writeCounts(current);
+    }
+
+    /**
+     * Detaches the chunks of one bucket, removes or refiles each entry and frees the chunks.
+     */
+    private int expireBucket(Table current, int bucket, long now) {
+        MappedSegments expiry = current.expiry;
+        long headPosition = EXPIRY_HEADS + (long) bucket * Long.BYTES;
+        long chunk = expiry.getLong(headPosition);
+        expiry.putLong(headPosition, 0);
+        int removed = 0;
+        while (chunk != 0) {
+            long next = expiry.getLong(chunk);
+            int count = (int) expiry.getLong(chunk + 8);
+            for (int i = 0; i < count; i++) {
+                long record = expiry.getLong(chunk + 16 + (long) i * Long.BYTES);
+                scheduled--;
+                long expiresAt = current.data.getLong(record);
+                if (expiresAt == REMOVED) {
+                    continue;
+                }
+                long slotIndex = findSlot(current, readCode(current.data, record));
+                if (slotIndex < 0 || recordPosition(current.slots.getLong(slotPosition(slotIndex))) != record) {
+                    // Replaced since; the newer record has an entry of its own
+                    continue;
+                }
+                if (expiresAt <= now) {
+                    removeSlot(current, slotIndex);
+                    removed++;
+                } else {
+                    scheduleExpiry(expiry, record, expiresAt);
+                }
+            }
+            expiry.putLong(chunk, freeChunk);
+            freeChunk = chunk;
+            chunk = next;
+        }
+        return removed;
+    }
+
+    /**
+     * Files a record under the bucket of its expiry: the next bucket due if that has
+     * passed, the furthest bucket of the ring if the expiry lies beyond it.
+     */
+    private void scheduleExpiry(MappedSegments expiry, long record, long expiresAt) {
+        long bucket = Math.floorDiv(expiresAt, expiryBucketMillis);
+        bucket = Math.min(Math.max(bucket, lastExpiredBucket + 1), lastExpiredBucket + EXPIRY_BUCKETS);
+        long headPosition = EXPIRY_HEADS + Math.floorMod(bucket, EXPIRY_BUCKETS) * (long) Long.BYTES;
+        long chunk = expiry.getLong(headPosition);
+        long count = chunk == 0 ? CHUNK_ENTRIES : expiry.getLong(chunk + 8);
+        if (count == CHUNK_ENTRIES) {
+            long allocated = allocateChunk(expiry);
+            expiry.putLong(allocated, chunk);
+            expiry.putLong(headPosition, allocated);
+            chunk = allocated;
+            count = 0;
+        }
+        expiry.putLong(chunk + 16 + count * Long.BYTES, record);
+        expiry.putLong(chunk + 8, count + 1);
+        scheduled++;
+    }
+
+    private long allocateChunk(MappedSegments expiry) {
+        if (freeChunk != 0) {
+            long chunk = freeChunk;
+            freeChunk = expiry.getLong(chunk);
+            return chunk;
+        }
+        long chunk = expiryEnd;
+        expiry.ensureMapped(chunk + CHUNK_SIZE);
+        expiryEnd = chunk + CHUNK_SIZE;
+        return chunk;
+    }
+
+    /**
+     * Copies every live, unexpired record into fresh files and swaps them in. Readers
+     * still on the old table keep reading its mappings, which stay valid until they are
+     * unreachable.
+     */
+    private void compact() {
+        Table old = table;
+        Path compactedSlots = slotFile.resolveSibling(slotFile.getFileName() + ".compact");
+        Path compactedData = dataFile.resolveSibling(dataFile.getFileName() + ".compact");
+        Path compactedExpiry = expiryFile.resolveSibling(expiryFile.getFileName() + ".compact");
+        long now = LocalClock.nowMillis();
+        try {
+            Files.deleteIfExists(compactedSlots);
+            Files.deleteIfExists(compactedData);
+            Files.deleteIfExists(compactedExpiry);
+            Table compacted = openTable(compactedSlots, compactedData, compactedExpiry);
+            compacted.data.ensureMapped(Math.max(dataEnd - deadBytes, INITIAL_DATA_MAPPING));
+            compacted.expiry.putLong(EXPIRY_BUCKET_MILLIS, expiryBucketMillis);
+            expiryEnd = FIRST_CHUNK;
+            freeChunk = 0;
+            scheduled = 0;
+
+            long liveSize = 0;
+            long liveEnd = 0;
+            for (long index = 0; index < capacity; index++) {
+                long slot = old.slots.getLong(slotPosition(index));
+                if (slot == 0 || slot == TOMBSTONE) {
+                    continue;
+                }
+                long record = recordPosition(slot);
+                long expiresAt = old.data.getLong(record);
+                if (expiresAt == REMOVED || expiresAt < now) {
+                    continue;
+                }
+                int length = (int) recordLength(old.data, record);
+                byte[] bytes = new byte[length];
+                old.data.get(record, bytes, length);
+                long position = alignToSegment(compacted.data, liveEnd, length);
+                compacted.data.ensureMapped(position + length);
+                compacted.data.put(position, bytes);
+                liveEnd = position + length;
+
+                long hash = Hashing.hash64(readCode(old.data, record));
+                long target = hash & mask;
+                while (compacted.slots.getLong(slotPosition(target)) != 0) {
+                    target = (target + 1) & mask;
+                }
+                compacted.slots.putLong(slotPosition(target), packSlot(fingerprint(hash), position));
+                scheduleExpiry(compacted.expiry, position, expiresAt);
+                liveSize++;
+            }
+
+            compacted.slots.putLong(HEADER_MAGIC, MAGIC);
+            compacted.slots.putLong(HEADER_CAPACITY, capacity);
+            compacted.slots.putLong(HEADER_CLEAN, 0);
+            compacted.slots.putLong(HEADER_LAST_ID, lastIndexedId);
+            size = liveSize;
+            tombstones = 0;
+            dataEnd = liveEnd;
+            deadBytes = 0;
+            writeCounts(compacted);
+            compacted.data.force();
+            compacted.expiry.force();
+            compacted.slots.force();
+
+            old.data.close();
+            old.expiry.close();
+            old.slots.close();
+            Files.move(compactedData, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(compactedExpiry, expiryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(compactedSlots, slotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            table = compacted;
+            compactions++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact redirect index", e);
+        }
+    }
+
+    private void compactIfWasteful() {
+        if (deadBytes >= INITIAL_DATA_MAPPING && deadBytes * 2 > dataEnd) {
+            compact();
+        }
+    }
+
+    private void writeCounts(Table current) {
+        current.slots.putLong(HEADER_SIZE_FIELD, size);
+        current.slots.putLong(HEADER_DATA_END, dataEnd);
+        current.slots.putLong(HEADER_TOMBSTONES, tombstones);
+        current.slots.putLong(HEADER_DEAD_BYTES, deadBytes);
+        current.expiry.putLong(EXPIRY_LAST_BUCKET, lastExpiredBucket);
+        current.expiry.putLong(EXPIRY_END, expiryEnd);
+        current.expiry.putLong(EXPIRY_FREE_CHUNK, freeChunk);
+        current.expiry.putLong(EXPIRY_SCHEDULED, scheduled);
+    }
+
+    private Table openTable(Path slots, Path data, Path expiry) {
+        Table opened = new Table(new MappedSegments(slots, SLOT_SEGMENT_SHIFT),
+                new MappedSegments(data, DATA_SEGMENT_SHIFT), new MappedSegments(expiry, EXPIRY_SEGMENT_SHIFT));
+        opened.slots.ensureMapped(HEADER_SIZE + capacity * Long.BYTES);
+        opened.expiry.ensureMapped(FIRST_CHUNK);
+        return opened;
+    }
+
+    /**
+     * @return the position of the code's record, or -1; reads slots as a lock-free reader
+     */
+    private long find(Table current, String code) {
+        long hash = Hashing.hash64(code);
+        long fingerprint = fingerprint(hash);
+        long index = hash & mask;
+        for (long probes = 0; probes < capacity; probes++) {
+            long slot = current.slots.getLongAcquire(slotPosition(index));
+            if (slot == 0) {
+                return -1;
+            }
+            if (slot != TOMBSTONE && (slot >>> 40) == fingerprint
+                    && codeMatches(current.data, recordPosition(slot), code)) {
+                return recordPosition(slot);
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the code's slot, or -1; only for writers holding the lock
+     */
+    private long findSlot(Table current, String code) {
+        long hash = Hashing.hash64(code);
+        long fingerprint = fingerprint(hash);
+        long index = hash & mask;
+        for (long probes = 0; probes < capacity; probes++) {
+            long slot = current.slots.getLongAcquire(slotPosition(index));
+            if (slot == 0) {
+                return -1;
+            }
+            if (slot != TOMBSTONE && (slot >>> 40) == fingerprint
+                    && codeMatches(current.data, recordPosition(slot), code)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static boolean codeMatches(MappedSegments data, long record, String code) {
+        if (data.getShort(record + 8) != code.length()) {
+            return false;
+        }
+        long position = record + RECORD_HEADER;
+        for (int i = 0; i < code.length(); i++) {
+            if (data.get(position + i) != (byte) code.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readCode(MappedSegments data, long record) {
+        byte[] code = new byte[data.getShort(record + 8)];
+        data.get(record + RECORD_HEADER, code, code.length);
+        return new String(code, StandardCharsets.US_ASCII);
+    }
+
+    private static long recordLength(MappedSegments data, long record) {
+        return align(RECORD_HEADER + data.getShort(record + 8) + data.getInt(record + 12));
+    }
+
+    private long append(MappedSegments data, RedirectTarget target) {
+        byte[] code = target.getShortCode().getBytes(StandardCharsets.US_ASCII);
+        byte[] url = target.getOriginalUrl().getBytes(StandardCharsets.UTF_8);
+        long length = align(RECORD_HEADER + code.length + url.length);
+
+        long position = alignToSegment(data, dataEnd, length);
+        data.ensureMapped(position + length);
+
+        data.putShort(position + 8, (short) code.length);
+        data.putShort(position + 10, (short) target.getCachePolicy().ordinal());
+        data.putInt(position + 12, url.length);
+        data.put(position + RECORD_HEADER, code);
+        data.put(position + RECORD_HEADER + code.length, url);
+        data.setLongRelease(position, target.getExpiresAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+
+        dataEnd = position + length;
+        return position;
+    }
+
+    /**
+     * Records never straddle a segment; one that would is moved to the start of the next.
+     */
+    private static long alignToSegment(MappedSegments data, long position, long length) {
+        long segmentSize = data.segmentSize();
+        if ((position % segmentSize) + length > segmentSize) {
+            return (position / segmentSize + 1) * segmentSize;
+        }
+        return position;
+    }
+
+    private static boolean isReusableSnapshot(Path slotFile, Path expiryFile, long capacity, long expiryBucketMillis)
+            throws IOException {
+        if (!Files.exists(slotFile) || Files.size(slotFile) < HEADER_SIZE
+                || !Files.exists(expiryFile) || Files.size(expiryFile) < FIRST_CHUNK) {
+            return false;
+        }
+        try (MappedSegments header = new MappedSegments(slotFile, SLOT_SEGMENT_SHIFT);
+             MappedSegments expiryHeader = new MappedSegments(expiryFile, EXPIRY_SEGMENT_SHIFT)) {
+            header.ensureMapped(HEADER_SIZE);
+            expiryHeader.ensureMapped(CHUNK_SIZE);
+            return header.getLong(HEADER_MAGIC) == MAGIC
+                    && header.getLong(HEADER_CLEAN) == 1
+                    && header.getLong(HEADER_CAPACITY) == capacity
+                    && expiryHeader.getLong(EXPIRY_BUCKET_MILLIS) == expiryBucketMillis;
+        }
+    }
+
+    static long tableCapacity(long expectedLinks) {
+        long needed = (long) Math.ceil(Math.max(expectedLinks, 1) / MAX_LOAD_FACTOR);
+        return Long.highestOneBit(Math.max(needed - 1, 1)) << 1;
+    }
+
+    private static long slotPosition(long index) {
+        return HEADER_SIZE + index * Long.BYTES;
+    }
+
+    private static long packSlot(long fingerprint, long recordPosition) {
+        return (fingerprint << 40) | ((recordPosition >>> 3) + 1);
+    }
+
+    private static long recordPosition(long slot) {
+        return ((slot & OFFSET_MASK) - 1) << 3;
+    }
+
+    private static long align(long length) {
+        return (length + 7) & ~7L;
+    }
+
+    private static long fingerprint(long hash) {
+        return hash >>> 40;
+    }
+
+    /**
+     * The mapped slot, data and expiry files of one generation of the index.
+     */
+    private static final class Table {
+
+        final MappedSegments slots;
+        final MappedSegments data;
+        final MappedSegments expiry;
+
+        Table(MappedSegments slots, MappedSegments data, MappedSegments expiry) {
+            this.slots = slots;
+            this.data = data;
+            this.expiry = expiry;
+        }
+    }
+}
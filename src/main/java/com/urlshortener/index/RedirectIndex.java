@@ -0,0 +1,220 @@
+package com.urlshortener.index;
+
+import com.urlshortener.dto.RedirectTarget;
+import com.urlshortener.entity.ShortUrl;
+import com.urlshortener.repository.ShortUrlRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the off-heap redirect index in step with the database and exposes it to the
+ * redirect path.
+ *
+ * The index is opened once the application is ready. A snapshot left by a clean
+ * shutdown is reopened and caught up with rows inserted since; otherwise the index is
+ * rebuilt from ShortUrlRepository in keyset-paged batches on a background thread.
+ * Until loading finishes every lookup misses, so the redirect path simply falls back
+ * to the database. The index only answers positively: a miss is never treated as
+ * proof that a link does not exist.
+ *
+ * Every indexed link is also filed in the index's off-heap expiry buckets
+ * ({@code shortener.index.expiry-bucket-ms} wide), which a scheduled task walks every
+ * {@code shortener.index.expiry-tick-ms}. Expired links are removed and their space is
+ * reclaimed by the index's compaction, so neither the heap nor the mapped files grow
+ * with links that no longer resolve.
+ */
+@Component
+public class RedirectIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedirectIndex.class);
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ShortUrlRepository shortUrlRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Path directory;
+    private final long expectedLinks;
+    private final long expiryBucketMs;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rejected;
+    private final Counter expired;
+
+    private volatile OffHeapRedirectIndex index;
+    private volatile boolean ready;
+
+    @Autowired
+    public RedirectIndex(ShortUrlRepository shortUrlRepository,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${shortener.index.enabled:false}") boolean enabled,
+                         @Value("${shortener.index.directory:./data/redirect-index}") Path directory,
+                         @Value("${shortener.index.expected-links:10000000}") long expectedLinks,
+                         @Value("${shortener.index.expiry-bucket-ms:60000}") long expiryBucketMs) {
+        this.shortUrlRepository = shortUrlRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.directory = directory;
+        this.expectedLinks = expectedLinks;
+        this.expiryBucketMs = expiryBucketMs;
+        this.hits = Counter.builder("shortener.index.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("shortener.index.lookups").tag("result", "miss").register(meterRegistry);
+        this.rejected = Counter.builder("shortener.index.rejected")
+                .description("Links not indexed because the table reached its load limit")
+                .register(meterRegistry);
+        this.expired = Counter.builder("shortener.index.expired")
+                .description("Links removed from the index when they expired")
+                .register(meterRegistry);
+        meterRegistry.gauge("shortener.index.links", this, RedirectIndex::size);
+        meterRegistry.gauge("shortener.index.dead.bytes", this, RedirectIndex::deadBytes);
+        meterRegistry.gauge("shortener.index.expiry.scheduled", this, RedirectIndex::scheduledExpiries);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::load, "redirect-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Looks up a redirect target in the index.
+     *
+     * @return Optional containing the target if the index is loaded and holds a live entry
+     */
+    public Optional<RedirectTarget> get(String shortCode) {
+        OffHeapRedirectIndex current = index;
+        if (!ready || current == null) {
+            return Optional.empty();
+        }
+        Optional<RedirectTarget> target = current.get(shortCode);
+        (target.isPresent() ? hits : misses).increment();
+        return target;
+    }
+
+    /**
+     * Indexes a newly created link. Links created before the index is opened are picked
+     * up by the load.
+     */
+    public void add(ShortUrl shortUrl) {
+        OffHeapRedirectIndex current = index;
+        if (current != null) {
+            put(current, shortUrl);
+        }
+    }
+
+    public void remove(String shortCode) {
+        OffHeapRedirectIndex current = index;
+        if (current != null) {
+            current.remove(shortCode);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Removes the links whose expiry bucket has passed.
+     *
+     * @return the number of links removed
+     */
+    @Scheduled(fixedDelayString = "${shortener.index.expiry-tick-ms:1000}")
+    public int evictExpired() {
+        OffHeapRedirectIndex current = index;
+        if (current == null) {
+            return 0;
+        }
+        int removed = current.evictExpired();
+        expired.increment(removed);
+        return removed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        OffHeapRedirectIndex current = index;
+        ready = false;
+        index = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    void load() {
+        long started = System.nanoTime();
+        long maxId = shortUrlRepository.findMaxId().orElse(0L);
+
+        OffHeapRedirectIndex opened = new OffHeapRedirectIndex(directory, expectedLinks, expiryBucketMs, true);
+        if (opened.isRecovered() && opened.lastIndexedId() > maxId) {
+            // The snapshot knows rows the database does not, e.g. after a database reset
+            logger.info("Redirect index snapshot is ahead of the database, rebuilding");
+            opened.close();
+            opened = new OffHeapRedirectIndex(directory, expectedLinks, expiryBucketMs, false);
+        }
+        index = opened;
+
+        long afterId = opened.lastIndexedId();
+        long loaded = 0;
+        while (true) {
+            long from = afterId;
+            List<ShortUrl> batch = readOnlyTransaction.execute(status ->
+                    shortUrlRepository.findByIdGreaterThanOrderByIdAsc(from, PageRequest.of(0, LOAD_BATCH_SIZE)));
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            for (ShortUrl shortUrl : batch) {
+                put(opened, shortUrl);
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+            opened.markIndexedThrough(afterId);
+            loaded += batch.size();
+        }
+        ready = true;
+        logger.info("Redirect index ready: {} links ({} loaded{}) in {} ms", opened.size(), loaded,
+                opened.isRecovered() ? " after reopening snapshot" : "",
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void put(OffHeapRedirectIndex target, ShortUrl shortUrl) {
+        RedirectTarget redirectTarget = new RedirectTarget(
+                shortUrl.getShortCode(), shortUrl.getOriginalUrl(), shortUrl.getExpiresAt(), shortUrl.getCachePolicy());
+        if (!target.put(redirectTarget)) {
+            rejected.increment();
+        }
+    }
+
+    private double scheduledExpiries() {
+        OffHeapRedirectIndex current = index;
+        return current == null ? 0 : current.scheduledExpiries();
+    }
+
+    private double size() {
+        OffHeapRedirectIndex current = index;
+        return current == null ? 0 : current.size();
+    }
+
+    private double deadBytes() {
+        OffHeapRedirectIndex current = index;
+        return current == null ? 0 : current.deadBytes();
+    }
+}
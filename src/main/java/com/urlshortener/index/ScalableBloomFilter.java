@@ -0,0 +1,192 @@
+package com.urlshortener.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scalable Bloom filter over short codes (Almeida et al., "Scalable Bloom Filters").
+ *
+ * The filter is a chain of plain Bloom filters. Codes are added to the newest stage;
+ * once it holds its design capacity a stage twice as large is appended, sized for half
+ * the false-positive rate of the previous one. The compound false-positive rate stays
+ * below the configured target however many codes are added, without knowing the final
+ * count up front. Each stage derives its k bit positions from one 64-bit hash by double
+ * hashing, so a lookup costs a single pass over the code.
+ *
+ * Adds and lookups are lock-free and may run concurrently; only appending a stage is
+ * synchronized.
+ */
+public class ScalableBloomFilter {
+
+    static final int GROWTH_FACTOR = 2;
+    static final double TIGHTENING_RATIO = 0.5;
+
+    private final double falsePositiveRate;
+    private volatile Stage[] stages;
+
+    /**
+     * @param initialCapacity   number of codes the first stage is sized for
+     * @param falsePositiveRate upper bound for the compound false-positive rate
+     */
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("Initial capacity must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        // Stage error rates form a geometric series p0 * r^i summing to at most the target
+        this.stages = new Stage[] { new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)) };
+    }
+
+    public void add(String shortCode) {
+        long hash = Hashing.hash64(shortCode);
+        Stage[] current = stages;
+        for (Stage stage : current) {
+            if (stage.mightContain(hash)) {
+                return;
+            }
+        }
+        Stage last = current[current.length - 1];
+        last.add(hash);
+        if (last.count() >= last.capacity) {
+            grow(last);
+        }
+    }
+
+    /**
+     * @return false only if the code was definitely never added
+     */
+    public boolean mightContain(String shortCode) {
+        long hash = Hashing.hash64(shortCode);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Estimates the current false-positive probability from the fill ratio of each stage.
+     */
+    public double expectedFalsePositiveRate() {
+        double allStagesNegative = 1.0;
+        for (Stage stage : stages) {
+            allStagesNegative *= 1.0 - stage.expectedFalsePositiveRate();
+        }
+        return 1.0 - allStagesNegative;
+    }
+
+    /**
+     * @return number of distinct codes added, give or take false positives at add time
+     */
+    public long approximateCount() {
+        long count = 0;
+        for (Stage stage : stages) {
+            count += stage.count();
+        }
+        return count;
+    }
+
+    public int stageCount() {
+        return stages.length;
+    }
+
+    public long bitSize() {
+        long bits = 0;
+        for (Stage stage : stages) {
+            bits += stage.numBits;
+        }
+        return bits;
+    }
+
+    public double targetFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    private synchronized void grow(Stage full) {
+        Stage[] current = stages;
+        if (current[current.length - 1] != full) {
+            return;
+        }
+        Stage[] grown = new Stage[current.length + 1];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[current.length] = new Stage(full.capacity * GROWTH_FACTOR, full.falsePositiveRate * TIGHTENING_RATIO);
+        stages = grown;
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long numBits;
+        private final int numHashes;
+        private final AtomicLongArray bits;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder bitsSet = new LongAdder();
+
+        Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            double ln2 = Math.log(2);
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+            long words = Math.max(1, (optimalBits + 63) / 64);
+            if (words > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Bloom filter stage too large: " + capacity + " codes");
+            }
+            this.numBits = words * 64;
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / capacity * ln2));
+            this.bits = new AtomicLongArray((int) words);
+        }
+
+        void add(long hash) {
+            long h2 = secondHash(hash);
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Long.remainderUnsigned(hash + i * h2, numBits);
+                if (setBit(bit)) {
+                    bitsSet.increment();
+                }
+            }
+            count.increment();
+        }
+
+        boolean mightContain(long hash) {
+            long h2 = secondHash(hash);
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Long.remainderUnsigned(hash + i * h2, numBits);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow((double) bitsSet.sum() / numBits, numHashes);
+        }
+
+        private boolean setBit(long bit) {
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long old;
+            do {
+                old = bits.get(word);
+                if ((old & mask) != 0) {
+                    return false;
+                }
+            } while (!bits.compareAndSet(word, old, old | mask));
+            return true;
+        }
+
+        private static long secondHash(long hash) {
+            // Odd, so successive probes never collapse onto one bit
+            return Hashing.mix64(hash ^ 0x9e3779b97f4a7c15L) | 1;
+        }
+    }
+}
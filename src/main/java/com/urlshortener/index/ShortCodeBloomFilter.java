@@ -0,0 +1,194 @@
+package com.urlshortener.index;
+
+import com.urlshortener.repository.ShortUrlRepository;
+import com.urlshortener.repository.ShortUrlRepository.ShortCodeRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloom filter over every existing short code, consulted before the database on the
+ * redirect path and in the uniqueness check of new links.
+ *
+ * The filter is built from ShortUrlRepository in keyset-paged batches shortly after
+ * startup and rebuilt on a fixed delay, which sheds deleted codes and picks up links
+ * created by other instances. Until the first build finishes every code "might exist",
+ * so callers fall back to the database. New codes are added as soon as they are saved;
+ * codes added while a rebuild is scanning are carried over into the rebuilt filter so a
+ * swap never forgets a link.
+ *
+ * Single instance only, hence off unless {@code shortener.bloom.enabled}: callers take a
+ * negative answer as definite, but for links created by another instance it is only as
+ * fresh as the last rebuild. With several instances sharing the database, such a link
+ * would 404 here and its code could be handed out again, failing on the unique key.
+ */
+@Component
+public class ShortCodeBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShortCodeBloomFilter.class);
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ShortUrlRepository shortUrlRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final long expectedLinks;
+    private final double falsePositiveRate;
+    private final Counter positives;
+    private final Counter negatives;
+    private final Counter falsePositives;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile ScalableBloomFilter filter;
+    private volatile Set<String> recentlyAdded = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ShortCodeBloomFilter(ShortUrlRepository shortUrlRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${shortener.bloom.enabled:false}") boolean enabled,
+                                @Value("${shortener.bloom.expected-links:1000000}") long expectedLinks,
+                                @Value("${shortener.bloom.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.shortUrlRepository = shortUrlRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedLinks = expectedLinks;
+        this.falsePositiveRate = falsePositiveRate;
+        this.positives = Counter.builder("shortener.bloom.checks").tag("result", "positive").register(meterRegistry);
+        this.negatives = Counter.builder("shortener.bloom.checks").tag("result", "negative").register(meterRegistry);
+        this.falsePositives = Counter.builder("shortener.bloom.false.positives")
+                .description("Positive answers for codes the database did not hold")
+                .register(meterRegistry);
+        meterRegistry.gauge("shortener.bloom.false.positive.rate", this, ShortCodeBloomFilter::expectedFalsePositiveRate);
+        meterRegistry.gauge("shortener.bloom.codes", this, ShortCodeBloomFilter::approximateCount);
+    }
+
+    /**
+     * @return false only if no link with this code exists (as of the last rebuild for
+     *         links created by other instances)
+     */
+    public boolean mightContain(String shortCode) {
+        ScalableBloomFilter current = filter;
+        if (!enabled || current == null) {
+            return true;
+        }
+        boolean result = current.mightContain(shortCode);
+        (result ? positives : negatives).increment();
+        return result;
+    }
+
+    public void add(String shortCode) {
+        if (!enabled) {
+            return;
+        }
+        // Recorded before the live filter so a concurrent rebuild either replays the
+        // code or has already swapped in the filter this add lands in
+        recentlyAdded.add(shortCode);
+        ScalableBloomFilter current = filter;
+        if (current != null) {
+            current.add(shortCode);
+        }
+    }
+
+    /**
+     * Records that a positive answer was contradicted by the database. Ignored while
+     * mightContain answers true without a filter, disabled or before the first build,
+     * so the counter only holds misses the filter could have ruled out.
+     */
+    public void recordFalsePositive() {
+        if (enabled && filter != null) {
+            falsePositives.increment();
+        }
+    }
+
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${shortener.bloom.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Short code Bloom filter rebuild failed, keeping the previous filter", e);
+        }
+    }
+
+    void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildFilter();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildFilter() {
+        long started = System.nanoTime();
+        Set<String> carried = recentlyAdded;
+        recentlyAdded = ConcurrentHashMap.newKeySet();
+
+        ScalableBloomFilter current = filter;
+        long capacity = Math.max(expectedLinks, current == null ? 0 : current.approximateCount());
+        ScalableBloomFilter rebuilt = new ScalableBloomFilter(capacity, falsePositiveRate);
+
+        try {
+            scan(rebuilt);
+        } catch (RuntimeException e) {
+            // Keep the carried codes for the next attempt
+            recentlyAdded.addAll(carried);
+            throw e;
+        }
+
+        // Codes saved in transactions the scan could not see yet
+        carried.forEach(rebuilt::add);
+        filter = rebuilt;
+        recentlyAdded.forEach(rebuilt::add);
+
+        logger.info("Short code Bloom filter rebuilt: {} codes, {} stages, {} KiB, expected false-positive rate {} in {} ms",
+                rebuilt.approximateCount(), rebuilt.stageCount(), rebuilt.bitSize() / 8 / 1024,
+                String.format("%.5f", rebuilt.expectedFalsePositiveRate()), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void scan(ScalableBloomFilter target) {
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            List<ShortCodeRow> batch = readOnlyTransaction.execute(status ->
+                    shortUrlRepository.findShortCodesAfterId(from, PageRequest.of(0, LOAD_BATCH_SIZE)));
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            for (ShortCodeRow row : batch) {
+                target.add(row.getShortCode());
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    private double expectedFalsePositiveRate() {
+        ScalableBloomFilter current = filter;
+        return current == null ? 0 : current.expectedFalsePositiveRate();
+    }
+
+    private double approximateCount() {
+        ScalableBloomFilter current = filter;
+        return current == null ? 0 : current.approximateCount();
+    }
+}
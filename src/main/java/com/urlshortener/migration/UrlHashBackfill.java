@@ -0,0 +1,95 @@
+package com.urlshortener.migration;
+
+import com.urlshortener.repository.ShortUrlRepository;
+import com.urlshortener.repository.ShortUrlRepository.UrlRow;
+import com.urlshortener.service.ShortUrlRules;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills ShortUrl.urlHash for links stored before the column existed. The PostgreSQL
+ * upgrade script (db/postgresql/upgrade-short-urls.sql) adds the column empty because
+ * the hash is computed in Java; until it is filled in, deduplication does not find
+ * those links.
+ *
+ * Runs once the application is ready, walking the rows without a hash by id in
+ * transactions of {@code shortener.migration.url-hash-batch-size}. On a schema Hibernate
+ * created every row has a hash and the run is a single empty query.
+ */
+@Component
+public class UrlHashBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(UrlHashBackfill.class);
+
+    private final ShortUrlRepository shortUrlRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    @Autowired
+    public UrlHashBackfill(ShortUrlRepository shortUrlRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${shortener.migration.url-hash-backfill:true}") boolean enabled,
+                           @Value("${shortener.migration.url-hash-batch-size:1000}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("url_hash backfill batch size must be positive: " + batchSize);
+        }
+        this.shortUrlRepository = shortUrlRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long filled = backfill();
+            if (filled > 0) {
+                logger.info("Filled url_hash of {} links; short_urls.url_hash can now be made NOT NULL", filled);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("url_hash backfill failed, the remaining links are retried on the next start", e);
+        }
+    }
+
+    /**
+     * Computes the url hash of every link that has none.
+     *
+     * @return the number of links filled in
+     */
+    public long backfill() {
+        long filled = 0;
+        long lastId = 0;
+        while (true) {
+            long afterId = lastId;
+            List<UrlRow> rows = transactionTemplate.execute(status -> {
+                List<UrlRow> batch = shortUrlRepository.findUrlsWithoutHashAfterId(afterId, PageRequest.of(0, batchSize));
+                for (UrlRow row : batch) {
+                    shortUrlRepository.setUrlHash(row.getId(), ShortUrlRules.urlHash(row.getOriginalUrl()));
+                }
+                return batch;
+            });
+            if (rows == null || rows.isEmpty()) {
+                return filled;
+            }
+            filled += rows.size();
+            lastId = rows.get(rows.size() - 1).getId();
+            if (rows.size() < batchSize) {
+                return filled;
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.urlshortener.purge;
+
+import com.urlshortener.cache.RedirectCache;
+import com.urlshortener.index.RedirectIndex;
+import com.urlshortener.repository.ShortUrlRepository;
+import com.urlshortener.repository.ShortUrlRepository.ShortCodeRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Deletes links whose expiresAt has passed, which the redirect path only ever skips.
+ *
+ * A run walks the idx_expires_at index up to the moment it started and deletes the
+ * expired rows in chunks of {@code shortener.purge.chunk-size}, each in its own short
+ * transaction, so row locks are held for one chunk only. Runs pause
+ * {@code shortener.purge.chunk-delay-ms} between chunks to leave the database to live
+ * traffic, and stop after {@code shortener.purge.max-chunks-per-run}; the rest waits for
+ * the next run. Once a chunk commits, the codes it deleted are dropped from the redirect
+ * cache and the redirect index; the short code Bloom filter sheds them at its next
+ * rebuild. Links extended between the select and the delete are left alone.
+ *
+ * Deleted links and run durations are published as shortener.purge.links and
+ * shortener.purge.duration.
+ */
+@Component
+public class ExpiredLinkPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredLinkPurger.class);
+
+    private final ShortUrlRepository shortUrlRepository;
+    private final RedirectCache redirectCache;
+    private final RedirectIndex redirectIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final long chunkDelayMs;
+    private final int maxChunksPerRun;
+    private final Counter purgedLinks;
+    private final Timer runTimer;
+    // Not synchronized: a run sleeps between chunks and must not pin a virtual thread's carrier
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    @Autowired
+    public ExpiredLinkPurger(ShortUrlRepository shortUrlRepository,
+                             RedirectCache redirectCache,
+                             RedirectIndex redirectIndex,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${shortener.purge.enabled:true}") boolean enabled,
+                             @Value("${shortener.purge.chunk-size:1000}") int chunkSize,
+                             @Value("${shortener.purge.chunk-delay-ms:100}") long chunkDelayMs,
+                             @Value("${shortener.purge.max-chunks-per-run:1000}") int maxChunksPerRun) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Purge chunk size must be positive: " + chunkSize);
+        }
+        this.shortUrlRepository = shortUrlRepository;
+        this.redirectCache = redirectCache;
+        this.redirectIndex = redirectIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.chunkDelayMs = chunkDelayMs;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.purgedLinks = Counter.builder("shortener.purge.links")
+                .description("Expired links deleted")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("shortener.purge.duration")
+                .description("Time taken by a purge run, pauses included")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${shortener.purge.initial-delay-ms:60000}",
+            fixedDelayString = "${shortener.purge.interval-ms:3600000}")
+    public void scheduledPurge() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            logger.warn("Expired link purge failed, the remaining links wait for the next run", e);
+        }
+    }
+
+    /**
+     * Deletes links that expired before now, at most max-chunks-per-run chunks of them.
+     *
+     * @return the number of links deleted
+     */
+    public long purge() {
+        runLock.lock();
+        try {
+            return purgeExpiredBefore(LocalDateTime.now());
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private long purgeExpiredBefore(LocalDateTime now) {
+        long started = System.nanoTime();
+        long purged = 0;
+        int chunks = 0;
+        try {
+            while (chunks < maxChunksPerRun) {
+                if (chunks > 0 && !pause()) {
+                    break;
+                }
+                PurgedChunk chunk = transactionTemplate.execute(status -> purgeChunk(now));
+                if (chunk == null || chunk.selected == 0) {
+                    break;
+                }
+                chunks++;
+                for (String shortCode : chunk.goneCodes) {
+                    redirectCache.invalidate(shortCode);
+                    redirectIndex.remove(shortCode);
+                }
+                purgedLinks.increment(chunk.deleted);
+                purged += chunk.deleted;
+                if (chunk.selected < chunkSize) {
+                    break;
+                }
+            }
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (purged > 0) {
+                logger.info("Purged {} expired links in {} chunks in {} ms", purged, chunks, elapsed / 1_000_000);
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * Deletes the next chunk of links that expired before now. The delete rechecks
+     * expiresAt, so a link extended since the select survives; when fewer rows were
+     * deleted than selected, the survivors are looked up so only the codes that are gone
+     * leave the caches.
+     */
+    private PurgedChunk purgeChunk(LocalDateTime now) {
+        List<ShortCodeRow> rows = shortUrlRepository.findExpiredShortCodes(now, PageRequest.of(0, chunkSize));
+        if (rows.isEmpty()) {
+            return new PurgedChunk(0, 0, List.of());
+        }
+        List<String> shortCodes = rows.stream().map(ShortCodeRow::getShortCode).toList();
+        int deleted = shortUrlRepository.deleteExpiredByIds(rows.stream().map(ShortCodeRow::getId).toList(), now);
+        if (deleted == rows.size()) {
+            return new PurgedChunk(rows.size(), deleted, shortCodes);
+        }
+        Set<String> survivors = new HashSet<>(shortUrlRepository.findExistingShortCodes(shortCodes));
+        List<String> goneCodes = shortCodes.stream().filter(shortCode -> !survivors.contains(shortCode)).toList();
+        return new PurgedChunk(rows.size(), deleted, goneCodes);
+    }
+
+    /**
+     * @return false if the thread was interrupted, which ends the run
+     */
+    private boolean pause() {
+        if (chunkDelayMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(chunkDelayMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class PurgedChunk {
+        private final int selected;
+        private final int deleted;
+        /** Codes no longer in the table, including any another purge deleted first. */
+        private final List<String> goneCodes;
+
+        private PurgedChunk(int selected, int deleted, List<String> goneCodes) {
+            this.selected = selected;
+            this.deleted = deleted;
+            this.goneCodes = goneCodes;
+        }
+    }
+}
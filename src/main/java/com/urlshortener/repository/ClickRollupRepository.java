@@ -0,0 +1,18 @@
+package com.urlshortener.repository;
+
+import com.urlshortener.entity.ClickRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ClickRollupRepository extends JpaRepository<ClickRollup, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ClickRollup r WHERE r.shortCode = :shortCode")
+    Optional<ClickRollup> findByShortCodeForUpdate(String shortCode);
+}
@@ -1,11 +1,16 @@
 package com.urlshortener.repository;
 
+import com.urlshortener.dto.RedirectTarget;
 import com.urlshortener.entity.ShortUrl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,11 +18,115 @@ public interface ShortUrlRepository extends JpaRepository<ShortUrl, Long> {
     
     Optional<ShortUrl> findByShortCode(String shortCode);
     
+    /**
+     * Links of a creator (null for anonymous) whose URL has the given ShortUrl.urlHash.
+     * The hash is truncated, so callers compare the URLs of the matches.
+     */
+    List<ShortUrl> findByUrlHashAndCreatedBy(Long urlHash, String createdBy);
+    
+    @Query("SELECT s.shortCode FROM ShortUrl s WHERE s.shortCode IN :shortCodes")
+    List<String> findExistingShortCodes(Collection<String> shortCodes);
+    
+    @Query("SELECT new com.urlshortener.dto.RedirectTarget(s.shortCode, s.originalUrl, s.expiresAt, s.cachePolicy) "
+            + "FROM ShortUrl s WHERE s.shortCode = :shortCode")
+    Optional<RedirectTarget> findRedirectTargetByShortCode(String shortCode);
+    
     @Modifying
     @Query("UPDATE ShortUrl s SET s.clickCount = s.clickCount + 1 WHERE s.shortCode = :shortCode")
     void incrementClickCount(String shortCode);
     
+    @Modifying
+    @Query("UPDATE ShortUrl s SET s.clickCount = s.clickCount + :delta WHERE s.shortCode IN :shortCodes")
+    int addClickCounts(long delta, Collection<String> shortCodes);
+    
+    List<ShortUrl> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    
+    @Query("SELECT s.id AS id, s.shortCode AS shortCode FROM ShortUrl s WHERE s.id > :id ORDER BY s.id")
+    List<ShortCodeRow> findShortCodesAfterId(Long id, Pageable pageable);
+    
+    @Query("SELECT MAX(s.id) FROM ShortUrl s")
+    Optional<Long> findMaxId();
+    
+    /**
+     * Links that expired before the given time, oldest expiry first, read through the
+     * expiresAt index.
+     */
+    @Query("SELECT s.id AS id, s.shortCode AS shortCode FROM ShortUrl s WHERE s.expiresAt < :now ORDER BY s.expiresAt")
+    List<ShortCodeRow> findExpiredShortCodes(LocalDateTime now, Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM ShortUrl s WHERE s.id IN :ids AND s.expiresAt < :now")
+    int deleteExpiredByIds(Collection<Long> ids, LocalDateTime now);
+    
+    /**
+     * Links stored before url_hash existed, by id. See UrlHashBackfill.
+     */
+    @Query("SELECT s.id AS id, s.originalUrl AS originalUrl FROM ShortUrl s "
+            + "WHERE s.urlHash IS NULL AND s.id > :id ORDER BY s.id")
+    List<UrlRow> findUrlsWithoutHashAfterId(Long id, Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE ShortUrl s SET s.urlHash = :urlHash WHERE s.id = :id")
+    int setUrlHash(Long id, Long urlHash);
+    
     @Query("SELECT COUNT(s) FROM ShortUrl s WHERE s.createdBy = :username")
     Long countByCreatedBy(String username);
+    
+    /**
+     * The newest links of a creator, read in index order from the
+     * (createdBy, createdAt, id) index; the page's rows, at most
+     * UrlController.MAX_LINKS_PAGE_SIZE + 1, are then fetched from the table by id.
+     */
+    @Query("SELECT s.id AS id, s.shortCode AS shortCode, s.originalUrl AS originalUrl, s.clickCount AS clickCount, "
+            + "s.createdAt AS createdAt, s.expiresAt AS expiresAt FROM ShortUrl s "
+            + "WHERE s.createdBy = :createdBy ORDER BY s.createdAt DESC, s.id DESC")
+    List<UserLinkRow> findLinksByCreator(String createdBy, Pageable pageable);
+    
+    /**
+     * The links of a creator that come after (createdAt, id) in newest-first order, so a
+     * page starts with a seek into the (createdBy, createdAt, id) index rather than by
+     * skipping the rows of the pages before it.
+     */
+    @Query("SELECT s.id AS id, s.shortCode AS shortCode, s.originalUrl AS originalUrl, s.clickCount AS clickCount, "
+            + "s.createdAt AS createdAt, s.expiresAt AS expiresAt FROM ShortUrl s "
+            + "WHERE s.createdBy = :createdBy "
+            + "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id)) "
+            + "ORDER BY s.createdAt DESC, s.id DESC")
+    List<UserLinkRow> findLinksByCreatorBefore(String createdBy, LocalDateTime createdAt, Long id, Pageable pageable);
+    
+    /**
+     * Keyset-paging projection carrying only the short code.
+     */
+    interface ShortCodeRow {
+        Long getId();
+        
+        String getShortCode();
+    }
+    
+    /**
+     * Projection of a link's id and target URL.
+     */
+    interface UrlRow {
+        Long getId();
+        
+        String getOriginalUrl();
+    }
+    
+    /**
+     * Projection of a link as listed to its creator, with the keyset columns.
+     */
+    interface UserLinkRow {
+        Long getId();
+        
+        String getShortCode();
+        
+        String getOriginalUrl();
+        
+        Long getClickCount();
+        
+        LocalDateTime getCreatedAt();
+        
+        LocalDateTime getExpiresAt();
+    }
 }
 
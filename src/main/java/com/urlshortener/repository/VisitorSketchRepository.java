@@ -0,0 +1,18 @@
+package com.urlshortener.repository;
+
+import com.urlshortener.entity.VisitorSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface VisitorSketchRepository extends JpaRepository<VisitorSketch, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM VisitorSketch v WHERE v.shortCode = :shortCode")
+    Optional<VisitorSketch> findByShortCodeForUpdate(String shortCode);
+}
@@ -0,0 +1,158 @@
+package com.urlshortener.service;
+
+import com.urlshortener.codegen.ShortCodeEncoder;
+import com.urlshortener.entity.CachePolicy;
+import com.urlshortener.entity.ShortUrl;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * URL validation and short code derivation shared by the servlet and reactive flavors,
+ * so both accept the same URLs and derive the same code for the same input.
+ */
+public final class ShortUrlRules {
+
+    public static final int SHORT_CODE_LENGTH = 8;
+
+    /** Longest lifetime a link may ask for in place of ShortUrl.DEFAULT_LIFETIME. */
+    public static final Duration MAX_TTL = Duration.ofDays(3650);
+
+    private ShortUrlRules() {
+    }
+
+    /**
+     * Rejects URLs the service does not shorten.
+     *
+     * @throws IllegalArgumentException if the URL is null, empty or not http(s)
+     *
+     * @ensures originalUrl != null && !originalUrl.isEmpty() && isValidUrl(originalUrl)
+     */
+    public static void validateUrl(String originalUrl) {
+        if (originalUrl == null || originalUrl.isEmpty()) {
+            throw new IllegalArgumentException("Original URL cannot be null or empty");
+        }
+        
+        if (!isValidUrl(originalUrl)) {
+            throw new IllegalArgumentException("Invalid URL format");
+        }
+    }
+
+    /**
+     * Rejects lifetimes a link may not ask for; null stands for ShortUrl.DEFAULT_LIFETIME.
+     *
+     * @throws IllegalArgumentException if the TTL is not positive or exceeds MAX_TTL
+     *
+     * @ensures ttl == null || (ttl.compareTo(Duration.ZERO) > 0 && ttl.compareTo(MAX_TTL) <= 0)
+     */
+    public static void validateTtl(Duration ttl) {
+        if (ttl != null && (ttl.isNegative() || ttl.isZero() || ttl.compareTo(MAX_TTL) > 0)) {
+            throw new IllegalArgumentException("TTL must be positive and at most " + MAX_TTL.toDays() + " days");
+        }
+    }
+
+    /**
+     * The form of a URL that deduplication compares: surrounding whitespace is dropped and
+     * the scheme and host, which are case-insensitive, are lower-cased. Path, query and
+     * fragment are kept as given.
+     * 
+     * @requires url != null
+     * @ensures \result != null
+     */
+    public static String normalizeUrl(String url) {
+        String trimmed = url.strip();
+        int schemeEnd = trimmed.indexOf("://");
+        if (schemeEnd < 0) {
+            return trimmed;
+        }
+        int authorityStart = schemeEnd + 3;
+        int authorityEnd = authorityStart;
+        while (authorityEnd < trimmed.length() && "/?#".indexOf(trimmed.charAt(authorityEnd)) < 0) {
+            authorityEnd++;
+        }
+        // User info is case-sensitive; only what follows it is the host
+        int hostStart = trimmed.lastIndexOf('@', authorityEnd - 1) + 1;
+        if (hostStart < authorityStart) {
+            hostStart = authorityStart;
+        }
+        return trimmed.substring(0, authorityStart).toLowerCase(Locale.ROOT)
+                + trimmed.substring(authorityStart, hostStart)
+                + trimmed.substring(hostStart, authorityEnd).toLowerCase(Locale.ROOT)
+                + trimmed.substring(authorityEnd);
+    }
+
+    /**
+     * Fixed-width digest of the normalized URL, stored in ShortUrl.urlHash so links can be
+     * looked up by target without indexing the URL itself. The first 64 bits of its
+     * SHA-256; equal digests do not prove equal URLs, so matches are compared in full.
+     * 
+     * @requires url != null
+     * @ensures \result == urlHash(normalizeUrl(url))
+     */
+    public static long urlHash(String url) {
+        return ShortCodeEncoder.hash64(normalizeUrl(url));
+    }
+
+    /**
+     * Whether deduplication may hand back an existing link, found through the url hash
+     * index, in place of a new link of the same creator: it must be unexpired, have the
+     * same cache policy and a URL that normalizes the same.
+     * 
+     * @requires existing != null && normalizedUrl.equals(normalizeUrl(normalizedUrl))
+     */
+    public static boolean isDuplicate(ShortUrl existing, String normalizedUrl, CachePolicy cachePolicy) {
+        return existing.getCachePolicy() == cachePolicy
+                && !existing.isExpired()
+                && normalizeUrl(existing.getOriginalUrl()).equals(normalizedUrl);
+    }
+
+    /**
+     * Input for the next hash attempt after the code derived from a URL was taken.
+     */
+    public static String rehashInput(String originalUrl) {
+        return originalUrl + System.currentTimeMillis();
+    }
+
+    /**
+     * Like rehashInput(String), distinct for each attempt so that equal URLs rehashed
+     * within the same millisecond still get different codes.
+     */
+    public static String rehashInput(String originalUrl, int attempt) {
+        return rehashInput(originalUrl) + "#" + attempt;
+    }
+
+    /**
+     * Generates a short code from a URL using SHA-256 hashing.
+     * The hash is base62-encoded by ShortCodeEncoder, which reuses per-thread digest state.
+     * 
+     * @param url The URL to generate a code for
+     * @return A short code of length SHORT_CODE_LENGTH
+     * 
+     * @requires url != null && !url.isEmpty()
+     * @ensures \result != null && \result.length() == SHORT_CODE_LENGTH
+     */
+    public static String generateShortCode(String url) {
+        //@ assert url != null && !url.isEmpty();
+        
+        String code = ShortCodeEncoder.encode(url, SHORT_CODE_LENGTH);
+        
+        //@ assert code != null && code.length() == SHORT_CODE_LENGTH;
+        return code;
+    }
+
+    /**
+     * Validates if a string is a valid URL.
+     * 
+     * @param url The URL string to validate
+     * @return true if the URL is valid, false otherwise
+     * 
+     * @requires url != null
+     * @ensures \result == (url.startsWith("http://") || url.startsWith("https://"))
+     */
+    public static boolean isValidUrl(String url) {
+        //@ assert url != null;
+        boolean result = url.startsWith("http://") || url.startsWith("https://");
+        //@ assert \result == (url.startsWith("http://") || url.startsWith("https://"));
+        return result;
+    }
+}
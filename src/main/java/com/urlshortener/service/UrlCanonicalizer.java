@@ -0,0 +1,164 @@
+package com.urlshortener.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Rewrites URLs into one canonical form before they are shortened, so variants of the
+ * same target share a row, a dedup match and a cache entry.
+ *
+ * Scheme and host are lower-cased, the scheme's default port is dropped, an empty path
+ * becomes "/" and a trailing slash on any other path is removed. The fragment is dropped,
+ * query parameters named in {@code shortener.canonicalize.tracking-params} are removed
+ * (a name ending in '*' is a prefix) and the rest are sorted by name, keeping the order
+ * of repeated names. Percent-escapes and user info are left as given. Strings that are
+ * not of the form scheme://authority are only trimmed.
+ *
+ * Each step changes what the link points at for servers that care about the difference,
+ * so canonicalization is opt-in with {@code shortener.canonicalize.enabled}.
+ */
+@Component
+public class UrlCanonicalizer {
+
+    private final boolean enabled;
+    private final Set<String> trackingParams = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final List<String> trackingPrefixes = new ArrayList<>();
+
+    @Autowired
+    public UrlCanonicalizer(@Value("${shortener.canonicalize.enabled:false}") boolean enabled,
+                            @Value("${shortener.canonicalize.tracking-params:utm_*,gclid,fbclid}") List<String> trackingParams) {
+        this.enabled = enabled;
+        for (String param : trackingParams) {
+            String name = param.strip().toLowerCase(Locale.ROOT);
+            if (name.endsWith("*")) {
+                this.trackingPrefixes.add(name.substring(0, name.length() - 1));
+            } else if (!name.isEmpty()) {
+                this.trackingParams.add(name);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the canonical form of the URL, or the URL unchanged when disabled
+     *
+     * @requires url != null
+     * @ensures !isEnabled() ==> \result == url
+     * @ensures isEnabled() ==> canonicalize(\result).equals(\result)
+     */
+    public String canonicalize(String url) {
+        if (!enabled) {
+            return url;
+        }
+        String trimmed = url.strip();
+        int schemeEnd = trimmed.indexOf("://");
+        if (schemeEnd <= 0) {
+            return trimmed;
+        }
+        String scheme = trimmed.substring(0, schemeEnd).toLowerCase(Locale.ROOT);
+        int authorityStart = schemeEnd + 3;
+        int authorityEnd = indexOfAny(trimmed, "/?#", authorityStart);
+        int fragmentStart = trimmed.indexOf('#', authorityEnd);
+        int end = fragmentStart < 0 ? trimmed.length() : fragmentStart;
+        int queryStart = trimmed.indexOf('?', authorityEnd);
+        if (queryStart > end) {
+            queryStart = -1;
+        }
+        int pathEnd = queryStart < 0 ? end : queryStart;
+
+        StringBuilder canonical = new StringBuilder(trimmed.length());
+        canonical.append(scheme).append("://");
+        appendAuthority(canonical, scheme, trimmed.substring(authorityStart, authorityEnd));
+        appendPath(canonical, trimmed.substring(authorityEnd, pathEnd));
+        if (queryStart >= 0) {
+            appendQuery(canonical, trimmed.substring(queryStart + 1, end));
+        }
+        return canonical.toString();
+    }
+
+    private static void appendAuthority(StringBuilder canonical, String scheme, String authority) {
+        int hostStart = authority.lastIndexOf('@') + 1;
+        String hostAndPort = authority.substring(hostStart);
+        // An IPv6 literal holds colons of its own; the port follows the closing bracket
+        int portSeparator = hostAndPort.lastIndexOf(':');
+        if (portSeparator < hostAndPort.lastIndexOf(']')) {
+            portSeparator = -1;
+        }
+        String host = portSeparator < 0 ? hostAndPort : hostAndPort.substring(0, portSeparator);
+        String port = portSeparator < 0 ? "" : hostAndPort.substring(portSeparator + 1);
+
+        canonical.append(authority, 0, hostStart).append(host.toLowerCase(Locale.ROOT));
+        if (!port.isEmpty() && !port.equals(defaultPort(scheme))) {
+            canonical.append(':').append(port);
+        }
+    }
+
+    private static String defaultPort(String scheme) {
+        return switch (scheme) {
+            case "http" -> "80";
+            case "https" -> "443";
+            default -> null;
+        };
+    }
+
+    private static void appendPath(StringBuilder canonical, String path) {
+        int length = path.length();
+        while (length > 1 && path.charAt(length - 1) == '/') {
+            length--;
+        }
+        canonical.append(length == 0 ? "/" : path.substring(0, length));
+    }
+
+    private void appendQuery(StringBuilder canonical, String query) {
+        List<String> params = new ArrayList<>();
+        for (String param : query.split("&")) {
+            if (!param.isEmpty() && !isTracking(name(param))) {
+                params.add(param);
+            }
+        }
+        if (params.isEmpty()) {
+            return;
+        }
+        // List.sort is stable, so repeated names keep their order
+        params.sort(Comparator.comparing(UrlCanonicalizer::name));
+        canonical.append('?').append(String.join("&", params));
+    }
+
+    private boolean isTracking(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (trackingParams.contains(lower)) {
+            return true;
+        }
+        for (String prefix : trackingPrefixes) {
+            if (lower.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String name(String param) {
+        int equals = param.indexOf('=');
+        return equals < 0 ? param : param.substring(0, equals);
+    }
+
+    private static int indexOfAny(String text, String chars, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (chars.indexOf(text.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return text.length();
+    }
+}
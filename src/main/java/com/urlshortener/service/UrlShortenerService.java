@@ -1,16 +1,35 @@
 package com.urlshortener.service;
 
+import com.urlshortener.analytics.ClickCounter;
+import com.urlshortener.cache.RedirectCache;
+import com.urlshortener.codegen.ShortCodeGenerator;
+import com.urlshortener.dto.RedirectTarget;
+import com.urlshortener.entity.CachePolicy;
 import com.urlshortener.entity.ShortUrl;
+import com.urlshortener.index.RedirectIndex;
+import com.urlshortener.index.ShortCodeBloomFilter;
 import com.urlshortener.repository.ShortUrlRepository;
+import com.urlshortener.writebehind.LinkWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service for URL shortening operations with JML specifications.
@@ -20,12 +39,45 @@ import java.util.Optional;
 public class UrlShortenerService {
 
     private final ShortUrlRepository shortUrlRepository;
-    private static final int SHORT_CODE_LENGTH = 8;
+    private final RedirectCache redirectCache;
+    private final ClickCounter clickCounter;
+    private final RedirectIndex redirectIndex;
+    private final ShortCodeBloomFilter shortCodeFilter;
+    private final ShortCodeGenerator shortCodeGenerator;
+    private final LinkWriter linkWriter;
+    private final UrlCanonicalizer urlCanonicalizer;
     private static final String BASE_URL = "http://localhost:8080/";
+    /** Keeps IN lists within what every supported database accepts. */
+    private static final int UNIQUENESS_QUERY_CHUNK = 1000;
+    private boolean deduplicate;
 
     @Autowired
-    public UrlShortenerService(ShortUrlRepository shortUrlRepository) {
+    public UrlShortenerService(ShortUrlRepository shortUrlRepository, RedirectCache redirectCache,
+                               ClickCounter clickCounter, RedirectIndex redirectIndex,
+                               ShortCodeBloomFilter shortCodeFilter, ShortCodeGenerator shortCodeGenerator,
+                               LinkWriter linkWriter, UrlCanonicalizer urlCanonicalizer) {
         this.shortUrlRepository = shortUrlRepository;
+        this.redirectCache = redirectCache;
+        this.clickCounter = clickCounter;
+        this.redirectIndex = redirectIndex;
+        this.shortCodeFilter = shortCodeFilter;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.linkWriter = linkWriter;
+        this.urlCanonicalizer = urlCanonicalizer;
+        if (linkWriter.isEnabled() && !shortCodeGenerator.isCollisionFree()) {
+            // Another instance could insert an acknowledged link's code before the committer does
+            throw new IllegalStateException("shortener.write-behind.enabled needs a collision-free "
+                    + "shortener.codes.strategy (counter or snowflake)");
+        }
+    }
+
+    /**
+     * When on, shortenUrl hands back the code of an unexpired link the same creator already
+     * made for the same URL and cache policy instead of inserting another row.
+     */
+    @Value("${shortener.links.deduplicate:false}")
+    void setDeduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
     }
 
     /**
@@ -35,38 +87,146 @@ public class UrlShortenerService {
      * @param username The username creating the short URL (can be null for anonymous)
      * @return The short code for the URL
      * 
-     * @requires originalUrl != null && !originalUrl.isEmpty() && isValidUrl(originalUrl)
-     * @ensures \result != null && !\result.isEmpty() && \result.length() == SHORT_CODE_LENGTH
+     * @requires originalUrl != null && !originalUrl.isEmpty() && ShortUrlRules.isValidUrl(originalUrl)
+     * @ensures \result != null && !\result.isEmpty() && \result.length() == ShortUrlRules.SHORT_CODE_LENGTH
      * @ensures shortUrlRepository.findByShortCode(\result).isPresent()
      */
     public String shortenUrl(String originalUrl, String username) {
+        return shortenUrl(originalUrl, username, null);
+    }
+
+    /**
+     * Shortens a long URL to a short code whose redirects follow the given cache policy.
+     * The URL is validated as given, then stored in the form the UrlCanonicalizer produces.
+     * In deduplication mode an existing link of the same creator for the same normalized
+     * URL and policy is returned instead; candidates are found through the url hash index.
+     * In write-behind mode, which requires a collision-free code strategy, the link is
+     * handed to the LinkWriter, which commits it later in a group; until then it is served
+     * from the writer's pending links.
+     * 
+     * @param originalUrl The original URL to shorten (must not be null or empty)
+     * @param username The username creating the short URL (can be null for anonymous)
+     * @param cachePolicy How redirects may be cached (null for CachePolicy.NO_STORE)
+     * @return The short code for the URL
+     * 
+     * @requires originalUrl != null && !originalUrl.isEmpty() && ShortUrlRules.isValidUrl(originalUrl)
+     * @ensures \result != null && !\result.isEmpty() && \result.length() == ShortUrlRules.SHORT_CODE_LENGTH
+     * @ensures shortUrlRepository.findByShortCode(\result).isPresent()
+     */
+    public String shortenUrl(String originalUrl, String username, CachePolicy cachePolicy) {
+        return shortenUrl(originalUrl, username, cachePolicy, null);
+    }
+
+    /**
+     * Shortens a long URL like shortenUrl(originalUrl, username, cachePolicy) into a link
+     * that expires after the given TTL instead of ShortUrl.DEFAULT_LIFETIME. Links with a
+     * custom TTL are never deduplicated, since an existing link would keep its own expiry.
+     * 
+     * @param ttl How long the link stays resolvable (null for ShortUrl.DEFAULT_LIFETIME)
+     * @return The short code for the URL
+     * 
+     * @requires originalUrl != null && !originalUrl.isEmpty() && ShortUrlRules.isValidUrl(originalUrl)
+     * @requires ttl == null || (ttl.compareTo(Duration.ZERO) > 0 && ttl.compareTo(ShortUrlRules.MAX_TTL) <= 0)
+     * @ensures \result != null && !\result.isEmpty() && \result.length() == ShortUrlRules.SHORT_CODE_LENGTH
+     */
+    public String shortenUrl(String originalUrl, String username, CachePolicy cachePolicy, Duration ttl) {
         //@ assert originalUrl != null && !originalUrl.isEmpty();
         
-        if (originalUrl == null || originalUrl.isEmpty()) {
-            throw new IllegalArgumentException("Original URL cannot be null or empty");
-        }
+        ShortUrlRules.validateUrl(originalUrl);
+        ShortUrlRules.validateTtl(ttl);
+        String url = urlCanonicalizer.canonicalize(originalUrl);
         
-        if (!isValidUrl(originalUrl)) {
-            throw new IllegalArgumentException("Invalid URL format");
+        if (deduplicate && ttl == null) {
+            Optional<String> existing = findExistingCode(url, username,
+                    cachePolicy != null ? cachePolicy : CachePolicy.NO_STORE);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
         }
         
-        String shortCode = generateShortCode(originalUrl);
+        String shortCode = allocateCode(url);
         
-        // Ensure uniqueness
-        while (shortUrlRepository.findByShortCode(shortCode).isPresent()) {
-            shortCode = generateShortCode(originalUrl + System.currentTimeMillis());
+        ShortUrl shortUrl = new ShortUrl(shortCode, url, username);
+        if (cachePolicy != null) {
+            shortUrl.setCachePolicy(cachePolicy);
+        }
+        if (ttl != null) {
+            shortUrl.setExpiresAt(shortUrl.getCreatedAt().plus(ttl));
+        }
+        if (linkWriter.isEnabled()) {
+            // Filter first, so a concurrent uniqueness check never skips a pending code
+            shortCodeFilter.add(shortCode);
+            linkWriter.submit(shortUrl);
+        } else {
+            shortUrlRepository.save(shortUrl);
+            shortCodeFilter.add(shortCode);
+            afterCommit(() -> redirectIndex.add(shortUrl));
         }
-        
-        ShortUrl shortUrl = new ShortUrl(shortCode, originalUrl, username);
-        shortUrlRepository.save(shortUrl);
         
         //@ assert shortCode != null && !shortCode.isEmpty();
         //@ assert shortUrlRepository.findByShortCode(shortCode).isPresent();
         return shortCode;
     }
 
+    /**
+     * Shortens many URLs in one transaction.
+     * All URLs are validated before anything is written, then canonicalized. Codes are
+     * derived for the whole batch, then checked for uniqueness with set-based queries (codes the Bloom filter has
+     * never seen skip the database) and rederived until none collides with an existing link
+     * or another link of the batch. The links are saved with batched inserts.
+     * 
+     * @param originalUrls The URLs to shorten (must not be null or empty)
+     * @param username The username creating the short URLs (can be null for anonymous)
+     * @param cachePolicy How redirects may be cached (null for CachePolicy.NO_STORE)
+     * @return The short codes, in the order of the URLs
+     * @throws IllegalArgumentException naming the position of the first URL that is not accepted
+     * 
+     * @requires originalUrls != null && !originalUrls.isEmpty()
+     * @ensures \result.size() == originalUrls.size()
+     * @ensures (\forall int i; 0 <= i && i < \result.size(); shortUrlRepository.findByShortCode(\result.get(i)).isPresent())
+     */
+    public List<String> shortenUrls(List<String> originalUrls, String username, CachePolicy cachePolicy) {
+        //@ assert originalUrls != null && !originalUrls.isEmpty();
+        
+        if (originalUrls == null || originalUrls.isEmpty()) {
+            throw new IllegalArgumentException("URLs cannot be null or empty");
+        }
+        for (int i = 0; i < originalUrls.size(); i++) {
+            try {
+                ShortUrlRules.validateUrl(originalUrls.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("URL " + i + ": " + e.getMessage());
+            }
+        }
+        
+        List<String> urls = originalUrls.stream().map(urlCanonicalizer::canonicalize).toList();
+        String[] shortCodes = allocateCodes(urls);
+        
+        List<ShortUrl> shortUrls = new ArrayList<>(shortCodes.length);
+        for (int i = 0; i < shortCodes.length; i++) {
+            ShortUrl shortUrl = new ShortUrl(shortCodes[i], urls.get(i), username);
+            if (cachePolicy != null) {
+                shortUrl.setCachePolicy(cachePolicy);
+            }
+            shortUrls.add(shortUrl);
+        }
+        shortUrlRepository.saveAll(shortUrls);
+        shortUrls.forEach(shortUrl -> shortCodeFilter.add(shortUrl.getShortCode()));
+        afterCommit(() -> shortUrls.forEach(redirectIndex::add));
+        
+        //@ assert shortCodes.length == originalUrls.size();
+        return Arrays.asList(shortCodes);
+    }
+
     /**
      * Retrieves the original URL from a short code.
+     * Hot links are served from the redirect cache, then the off-heap redirect index is
+     * consulted, then links still waiting for the write-behind committer; codes the short
+     * code Bloom filter rules out are answered without touching the database. Only the remaining misses run a read-only projection query that
+     * fetches just the target URL and expiry instead of loading a managed entity.
+     * The click is recorded in the ClickCounter and written to the database asynchronously.
+     * No transaction is opened up front, so cache and index hits never borrow a pooled
+     * connection; the projection query runs in the repository's own read-only transaction.
      * 
      * @param shortCode The short code to look up (must not be null or empty)
      * @return Optional containing the original URL if found, empty otherwise
@@ -76,31 +236,63 @@ public class UrlShortenerService {
      * @ensures shortUrlRepository.findByShortCode(shortCode).isPresent() ==>
      *          \result.isPresent() && \result.get().equals(shortUrlRepository.findByShortCode(shortCode).get().getOriginalUrl())
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<String> getOriginalUrl(String shortCode) {
+        return resolve(shortCode).map(RedirectTarget::getOriginalUrl);
+    }
+
+    /**
+     * Resolves a short code like getOriginalUrl, keeping the expiry and cache policy the
+     * redirect response is built from.
+     * 
+     * @param shortCode The short code to look up (must not be null or empty)
+     * @return Optional containing the unexpired redirect target if found, empty otherwise
+     * 
+     * @requires shortCode != null && !shortCode.isEmpty()
+     * @ensures \result != null
+     * @ensures \result.isPresent() ==> !\result.get().isExpired()
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<RedirectTarget> resolve(String shortCode) {
         //@ assert shortCode != null && !shortCode.isEmpty();
         
         if (shortCode == null || shortCode.isEmpty()) {
             return Optional.empty();
         }
         
-        Optional<ShortUrl> shortUrl = shortUrlRepository.findByShortCode(shortCode);
+        Optional<RedirectTarget> target = redirectCache.get(shortCode);
         
-        if (shortUrl.isEmpty()) {
-            return Optional.empty();
+        if (target.isEmpty()) {
+            target = redirectIndex.get(shortCode);
         }
         
-        ShortUrl url = shortUrl.get();
+        if (target.isEmpty()) {
+            target = linkWriter.getPending(shortCode).map(UrlShortenerService::toRedirectTarget);
+        }
         
-        if (url.isExpired()) {
-            return Optional.empty();
+        if (target.isEmpty()) {
+            if (!shortCodeFilter.mightContain(shortCode)) {
+                return Optional.empty();
+            }
+            
+            target = shortUrlRepository.findRedirectTargetByShortCode(shortCode);
+            
+            if (target.isEmpty()) {
+                shortCodeFilter.recordFalsePositive();
+                return Optional.empty();
+            }
+            
+            if (target.get().isExpired()) {
+                return Optional.empty();
+            }
+            
+            redirectCache.put(target.get());
         }
         
-        // Increment click count
-        url.incrementClickCount();
-        shortUrlRepository.save(url);
+        clickCounter.record(shortCode);
         
         //@ assert \result != null;
-        return Optional.of(url.getOriginalUrl());
+        return target;
     }
 
     /**
@@ -119,57 +311,149 @@ public class UrlShortenerService {
             return Optional.empty();
         }
         
+        Optional<ShortUrl> pending = linkWriter.getPending(shortCode);
+        if (pending.isPresent()) {
+            return pending;
+        }
+        
         //@ assert \result != null;
         return shortUrlRepository.findByShortCode(shortCode);
     }
 
     /**
-     * Generates a short code from a URL using SHA-256 hashing.
+     * Lists the links a user created, newest first, one page at a time. A page after the
+     * first starts right after the (createdAt, id) of the previous page's last link, so
+     * every page costs one index seek however deep it is. Links still pending in the
+     * write-behind buffer are listed once they are inserted.
      * 
-     * @param url The URL to generate a code for
-     * @return A short code of length SHORT_CODE_LENGTH
+     * @param username The creator of the links
+     * @param afterCreatedAt createdAt of the previous page's last link, or null for the first page
+     * @param afterId id of the previous page's last link, or null for the first page
+     * @param limit The most links to return
+     * @return the links, newest first
      * 
-     * @requires url != null && !url.isEmpty()
-     * @ensures \result != null && \result.length() == SHORT_CODE_LENGTH
+     * @requires username != null && limit > 0
+     * @requires (afterCreatedAt == null) == (afterId == null)
+     * @ensures \result.size() <= limit
+     */
+    public List<ShortUrlRepository.UserLinkRow> getLinksCreatedBy(String username, LocalDateTime afterCreatedAt,
+                                                                  Long afterId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (afterCreatedAt == null || afterId == null) {
+            return shortUrlRepository.findLinksByCreator(username, page);
+        }
+        return shortUrlRepository.findLinksByCreatorBefore(username, afterCreatedAt, afterId, page);
+    }
+
+    /**
+     * @return the code of an unexpired link with this URL, creator and cache policy, if any
      */
-    private String generateShortCode(String url) {
-        //@ assert url != null && !url.isEmpty();
+    private Optional<String> findExistingCode(String originalUrl, String username, CachePolicy cachePolicy) {
+        String normalized = ShortUrlRules.normalizeUrl(originalUrl);
+        for (ShortUrl candidate : shortUrlRepository.findByUrlHashAndCreatedBy(ShortUrlRules.urlHash(originalUrl), username)) {
+            if (ShortUrlRules.isDuplicate(candidate, normalized, cachePolicy)) {
+                return Optional.of(candidate.getShortCode());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Asks the short code generator for candidates until one is unused.
+     * Codes the Bloom filter has never seen skip the database.
+     */
+    private String allocateCode(String originalUrl) {
+        String shortCode = shortCodeGenerator.generate(originalUrl, 0);
         
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(url.getBytes(StandardCharsets.UTF_8));
-            String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
-            
-            // Take first SHORT_CODE_LENGTH characters and ensure alphanumeric
-            String code = encoded.substring(0, Math.min(SHORT_CODE_LENGTH, encoded.length()))
-                    .replaceAll("[^a-zA-Z0-9]", "A");
-            
-            // Pad if necessary
-            while (code.length() < SHORT_CODE_LENGTH) {
-                code += "A";
+        for (int attempt = 1; isTaken(shortCode); attempt++) {
+            shortCode = shortCodeGenerator.generate(originalUrl, attempt);
+        }
+        return shortCode;
+    }
+
+    /**
+     * Derives a code for every URL of a batch, rederiving the codes that are already taken
+     * until all are unique.
+     */
+    private String[] allocateCodes(List<String> originalUrls) {
+        String[] shortCodes = new String[originalUrls.size()];
+        Set<String> batchCodes = new HashSet<>();
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < shortCodes.length; i++) {
+            pending.add(i);
+        }
+        
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            Map<String, Integer> candidates = new LinkedHashMap<>();
+            List<Integer> retry = new ArrayList<>();
+            for (int i : pending) {
+                String shortCode = shortCodeGenerator.generate(originalUrls.get(i), attempt);
+                if (batchCodes.contains(shortCode) || candidates.putIfAbsent(shortCode, i) != null) {
+                    retry.add(i);
+                }
             }
             
-            //@ assert code != null && code.length() == SHORT_CODE_LENGTH;
-            return code.substring(0, SHORT_CODE_LENGTH);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
+            Set<String> taken = findTakenCodes(candidates.keySet());
+            candidates.forEach((shortCode, i) -> {
+                if (taken.contains(shortCode)) {
+                    retry.add(i);
+                } else {
+                    shortCodes[i] = shortCode;
+                    batchCodes.add(shortCode);
+                }
+            });
+            pending = retry;
         }
+        return shortCodes;
     }
 
     /**
-     * Validates if a string is a valid URL.
-     * 
-     * @param url The URL string to validate
-     * @return true if the URL is valid, false otherwise
-     * 
-     * @requires url != null
-     * @ensures \result == (url.startsWith("http://") || url.startsWith("https://"))
+     * @return the codes that already belong to a link, queried in IN-list chunks
      */
-    private boolean isValidUrl(String url) {
-        //@ assert url != null;
-        boolean result = url.startsWith("http://") || url.startsWith("https://");
-        //@ assert \result == (url.startsWith("http://") || url.startsWith("https://"));
-        return result;
+    private Set<String> findTakenCodes(Collection<String> shortCodes) {
+        List<String> unknown = new ArrayList<>();
+        for (String shortCode : shortCodes) {
+            if (shortCodeFilter.mightContain(shortCode)) {
+                unknown.add(shortCode);
+            }
+        }
+        Set<String> taken = new HashSet<>();
+        for (String shortCode : unknown) {
+            if (linkWriter.isPending(shortCode)) {
+                taken.add(shortCode);
+            }
+        }
+        for (int from = 0; from < unknown.size(); from += UNIQUENESS_QUERY_CHUNK) {
+            List<String> chunk = unknown.subList(from, Math.min(from + UNIQUENESS_QUERY_CHUNK, unknown.size()));
+            taken.addAll(shortUrlRepository.findExistingShortCodes(chunk));
+        }
+        return taken;
+    }
+
+    private boolean isTaken(String shortCode) {
+        return shortCodeFilter.mightContain(shortCode)
+                && (linkWriter.isPending(shortCode) || shortUrlRepository.findByShortCode(shortCode).isPresent());
+    }
+
+    private static RedirectTarget toRedirectTarget(ShortUrl shortUrl) {
+        return new RedirectTarget(shortUrl.getShortCode(), shortUrl.getOriginalUrl(),
+                shortUrl.getExpiresAt(), shortUrl.getCachePolicy());
     }
-}
 
+    /**
+     * Runs an action once the current transaction commits, or immediately outside one,
+     * so in-memory structures never see links that were rolled back.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
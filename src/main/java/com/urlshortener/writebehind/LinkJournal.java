@@ -0,0 +1,271 @@
+package com.urlshortener.writebehind;
+
+import com.urlshortener.entity.CachePolicy;
+import com.urlshortener.entity.ShortUrl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of links accepted by the LinkWriter but not yet committed.
+ *
+ * Every link is appended to the current segment, and sync forces the segment to disk up
+ * to a given record. A sync finds every record appended before it started on disk when
+ * it returns, so concurrent submitters share one force instead of paying one each. Each
+ * flush rolls to a new segment, forcing the old one first; the old one is deleted once
+ * all its links are in the database, so the journal only ever holds links that still
+ * need writing.
+ *
+ * A record is its length, a CRC32 and the link's fields. Reading stops at the first
+ * record that is cut short or fails its checksum, which is how a write torn by a crash
+ * shows up; such a link was never acknowledged.
+ *
+ * append, roll and close must not run concurrently, which the LinkWriter ensures; sync
+ * may run alongside any of them.
+ */
+public class LinkJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinkJournal.class);
+    private static final String SEGMENT_PREFIX = "links-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    // Guards channel and synced against a concurrent roll or close
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private long segment;
+    private FileChannel channel;
+    /** Records appended since the journal was opened. */
+    private volatile long appended;
+    /** Records known to be on disk. */
+    private volatile long synced;
+
+    public LinkJournal(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            segment = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1));
+            open(segment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open link journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Reads the links of every segment older than the current one, oldest first.
+     */
+    public List<ShortUrl> readAll() {
+        List<ShortUrl> links = new ArrayList<>();
+        try {
+            for (Path path : segments()) {
+                if (segmentNumber(path) < segment) {
+                    read(path, links);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read link journal in " + directory, e);
+        }
+        return links;
+    }
+
+    /**
+     * Appends a link without forcing it to disk.
+     *
+     * @return the record's number, to be passed to sync
+     */
+    public long append(ShortUrl link) {
+        byte[] payload = encode(link);
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.length);
+        record.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to link journal", e);
+        }
+        return ++appended;
+    }
+
+    /**
+     * Returns once the given record, and every record before it, is on disk. Callers
+     * that arrive while a force is running wait for it and then share the next one.
+     */
+    public void sync(long record) {
+        if (synced >= record) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced >= record) {
+                return;
+            }
+            // Records appended while the force runs may miss it; they wait for the next
+            long target = appended;
+            channel.force(false);
+            synced = target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot force link journal", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public long currentSegment() {
+        return segment;
+    }
+
+    /**
+     * Starts a new segment for subsequent appends.
+     *
+     * @return the number of the segment that was current, to be passed to deleteThrough
+     */
+    public long roll() {
+        long previous = segment;
+        syncLock.lock();
+        try {
+            long target = appended;
+            channel.force(false);
+            synced = target;
+            channel.close();
+            open(segment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll link journal", e);
+        } finally {
+            syncLock.unlock();
+        }
+        return previous;
+    }
+
+    /**
+     * Deletes every segment up to and including the given one.
+     */
+    public void deleteThrough(long lastSegment) {
+        try {
+            for (Path path : segments()) {
+                if (segmentNumber(path) <= lastSegment) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        } catch (IOException e) {
+            // Left-over segments are harmless: their links are skipped on replay
+            logger.warn("Cannot delete link journal segments through {}", lastSegment, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        syncLock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Cannot close link journal", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void open(long number) throws IOException {
+        channel = FileChannel.open(directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment = number;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void read(Path path, List<ShortUrl> links) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                int checksum;
+                byte[] payload;
+                try {
+                    checksum = in.readInt();
+                    payload = in.readNBytes(Math.max(length, 0));
+                } catch (EOFException e) {
+                    payload = null;
+                    checksum = 0;
+                }
+                if (payload == null || length < 0 || payload.length < length || checksum(payload) != checksum) {
+                    logger.warn("Link journal {} ends in a torn record", path.getFileName());
+                    return;
+                }
+                links.add(decode(payload));
+            }
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    static byte[] encode(ShortUrl link) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + link.getOriginalUrl().length());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(link.getShortCode());
+            out.writeUTF(link.getOriginalUrl());
+            out.writeBoolean(link.getCreatedBy() != null);
+            if (link.getCreatedBy() != null) {
+                out.writeUTF(link.getCreatedBy());
+            }
+            out.writeUTF(link.getCreatedAt().toString());
+            out.writeUTF(link.getExpiresAt().toString());
+            out.writeUTF(link.getCachePolicy().name());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static ShortUrl decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String shortCode = in.readUTF();
+        String originalUrl = in.readUTF();
+        String createdBy = in.readBoolean() ? in.readUTF() : null;
+        ShortUrl link = new ShortUrl(shortCode, originalUrl, createdBy);
+        link.setCreatedAt(LocalDateTime.parse(in.readUTF()));
+        link.setExpiresAt(LocalDateTime.parse(in.readUTF()));
+        link.setCachePolicy(CachePolicy.valueOf(in.readUTF()));
+        return link;
+    }
+}
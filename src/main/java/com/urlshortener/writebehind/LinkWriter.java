@@ -0,0 +1,377 @@
+package com.urlshortener.writebehind;
+
+import com.urlshortener.entity.ShortUrl;
+import com.urlshortener.index.RedirectIndex;
+import com.urlshortener.index.ShortCodeBloomFilter;
+import com.urlshortener.repository.ShortUrlRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind for link creation: links are acknowledged once they are held in memory
+ * (and, with the journal on, forced to a local append-only file) and are inserted by a
+ * background committer in group commits. Concurrent submitters share journal forces the
+ * same way, so neither the database nor the disk syncs once per link.
+ *
+ * The committer wakes when {@code shortener.write-behind.max-batch-size} links are
+ * pending or {@code shortener.write-behind.max-delay-ms} after the last flush, whichever
+ * comes first, and saves everything pending in transactions of at most max-batch-size
+ * links each. A link stays in the pending map until its transaction has committed, so
+ * UrlShortenerService can serve redirects, statistics and uniqueness checks from it in
+ * the meantime.
+ *
+ * Acknowledging before the insert is only safe when no other instance can insert the
+ * same code meanwhile, so UrlShortenerService refuses write-behind unless the short code
+ * strategy is collision-free. A group that violates a constraint is retried link by
+ * link, and a link the database still rejects, which that leaves to malformed links, is
+ * dropped and logged. Any other failure, such as a lost connection or an exhausted pool,
+ * would hit every link alike, so the flush stops there and the committer leaves the
+ * links pending until the next flush. With the journal on, links left over from a crash
+ * are replayed on startup.
+ */
+@Component
+public class LinkWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinkWriter.class);
+    /** Keeps IN lists within what every supported database accepts. */
+    private static final int REPLAY_QUERY_CHUNK = 1000;
+
+    private final ConcurrentHashMap<String, ShortUrl> pending = new ConcurrentHashMap<>();
+    // Not synchronized: flushes block on JDBC and must not pin a virtual thread's carrier
+    private final ReentrantLock submitLock = new ReentrantLock();
+    private final Condition batchReady = submitLock.newCondition();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ShortUrlRepository shortUrlRepository;
+    private final RedirectIndex redirectIndex;
+    private final ShortCodeBloomFilter shortCodeFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayMs;
+    private final boolean journalEnabled;
+    private final Path journalDirectory;
+    private final Counter committedLinks;
+    private final Counter droppedLinks;
+
+    private LinkJournal journal;
+    private Thread committer;
+    private volatile boolean running;
+    private volatile boolean backingOff;
+
+    @Autowired
+    public LinkWriter(ShortUrlRepository shortUrlRepository,
+                      RedirectIndex redirectIndex,
+                      ShortCodeBloomFilter shortCodeFilter,
+                      PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry,
+                      @Value("${shortener.write-behind.enabled:false}") boolean enabled,
+                      @Value("${shortener.write-behind.max-batch-size:500}") int maxBatchSize,
+                      @Value("${shortener.write-behind.max-delay-ms:50}") long maxDelayMs,
+                      @Value("${shortener.write-behind.journal.enabled:true}") boolean journalEnabled,
+                      @Value("${shortener.write-behind.journal.directory:./data/link-journal}") Path journalDirectory) {
+        if (maxBatchSize < 1 || maxDelayMs < 1) {
+            throw new IllegalArgumentException("Write-behind batch size and delay must be positive");
+        }
+        this.shortUrlRepository = shortUrlRepository;
+        this.redirectIndex = redirectIndex;
+        this.shortCodeFilter = shortCodeFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMs = maxDelayMs;
+        this.journalEnabled = journalEnabled;
+        this.journalDirectory = journalDirectory;
+        this.committedLinks = Counter.builder("shortener.links.committed")
+                .description("Links inserted by the write-behind committer")
+                .register(meterRegistry);
+        this.droppedLinks = Counter.builder("shortener.links.dropped")
+                .description("Write-behind links the database rejected")
+                .register(meterRegistry);
+        meterRegistry.gauge("shortener.links.pending", pending, ConcurrentHashMap::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (journalEnabled) {
+            journal = new LinkJournal(journalDirectory);
+            replay();
+        }
+        running = true;
+        committer = new Thread(this::run, "link-writer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accepts a new link for writing. When this returns the link is visible through
+     * getPending and, with the journal on, durable on local disk.
+     *
+     * @requires isEnabled() && link.getShortCode() != null
+     */
+    public void submit(ShortUrl link) {
+        long record = 0;
+        submitLock.lock();
+        try {
+            if (journal != null) {
+                record = journal.append(link);
+            }
+            pending.put(link.getShortCode(), link);
+            if (pending.size() >= maxBatchSize) {
+                batchReady.signal();
+            }
+        } finally {
+            submitLock.unlock();
+        }
+        if (journal != null) {
+            // Outside the submit lock, so links appended meanwhile share this force
+            journal.sync(record);
+        }
+    }
+
+    /**
+     * Returns a link that has been submitted but not committed yet.
+     */
+    public Optional<ShortUrl> getPending(String shortCode) {
+        return Optional.ofNullable(pending.get(shortCode));
+    }
+
+    public boolean isPending(String shortCode) {
+        return pending.containsKey(shortCode);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Commits every pending link in groups of at most max-batch-size.
+     *
+     * @return the number of links committed
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushPending() {
+        List<ShortUrl> links;
+        long journalSegment;
+        submitLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            links = new ArrayList<>(pending.values());
+            // Everything in the rolled segment is in links, so it can go once they are written
+            journalSegment = journal != null ? journal.roll() : 0;
+        } finally {
+            submitLock.unlock();
+        }
+
+        int committed = 0;
+        int from = 0;
+        List<ShortUrl> unwritten = new ArrayList<>();
+        try {
+            for (; from < links.size(); from += maxBatchSize) {
+                List<ShortUrl> group = links.subList(from, Math.min(from + maxBatchSize, links.size()));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> shortUrlRepository.saveAll(group));
+                    group.forEach(this::committed);
+                    committed += group.size();
+                } catch (DataIntegrityViolationException e) {
+                    logger.warn("Group commit of {} links was rejected, retrying them one by one", group.size(), e);
+                    // The rolled-back insert may have assigned IDs; a link with an ID would be merged
+                    group.forEach(link -> link.setId(null));
+                    for (ShortUrl link : group) {
+                        if (saveOne(link)) {
+                            committed++;
+                        }
+                    }
+                }
+            }
+            backingOff = false;
+        } catch (RuntimeException e) {
+            logger.warn("Link commit failed, {} links stay pending until the next flush", links.size() - from, e);
+            for (ShortUrl link : links.subList(from, links.size())) {
+                link.setId(null);
+                if (pending.containsKey(link.getShortCode())) {
+                    unwritten.add(link);
+                }
+            }
+            backingOff = true;
+        }
+
+        if (journal != null) {
+            long record = 0;
+            submitLock.lock();
+            try {
+                for (ShortUrl link : unwritten) {
+                    record = journal.append(link);
+                }
+            } finally {
+                submitLock.unlock();
+            }
+            journal.sync(record);
+            journal.deleteThrough(journalSegment);
+        }
+        return committed;
+    }
+
+    /**
+     * @return true if the link was committed; a link the database rejects is dropped, any
+     *         other failure is thrown to the caller
+     */
+    private boolean saveOne(ShortUrl link) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> shortUrlRepository.save(link));
+            committed(link);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            link.setId(null);
+            if (isStored(link)) {
+                // An earlier commit went through although it reported a failure
+                committed(link);
+                return true;
+            }
+            logger.error("Dropping link {}, rejected by the database", link.getShortCode(), e);
+            pending.remove(link.getShortCode(), link);
+            droppedLinks.increment();
+            return false;
+        }
+    }
+
+    private boolean isStored(ShortUrl link) {
+        try {
+            return shortUrlRepository.findByShortCode(link.getShortCode())
+                    .filter(stored -> stored.getOriginalUrl().equals(link.getOriginalUrl())
+                            && Objects.equals(stored.getCreatedBy(), link.getCreatedBy()))
+                    .isPresent();
+        } catch (RuntimeException e) {
+            logger.warn("Cannot check whether link {} is already stored", link.getShortCode(), e);
+            return false;
+        }
+    }
+
+    private void committed(ShortUrl link) {
+        redirectIndex.add(link);
+        pending.remove(link.getShortCode(), link);
+        committedLinks.increment();
+    }
+
+    private void run() {
+        while (running) {
+            submitLock.lock();
+            try {
+                // Checked under the lock so the signal from shutdown cannot be missed. After a
+                // failed flush a full batch does not cut the wait short, only shutdown does
+                long waitNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (running && waitNanos > 0 && (backingOff || pending.size() < maxBatchSize)) {
+                    waitNanos = batchReady.awaitNanos(waitNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                submitLock.unlock();
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                logger.warn("Link flush failed, pending links will be retried on the next flush", e);
+            }
+        }
+    }
+
+    /**
+     * Puts the links of a previous run that never reached the database back in the
+     * pending map and the current journal segment.
+     */
+    private void replay() {
+        List<ShortUrl> links = journal.readAll();
+        long replayedSegment = journal.currentSegment() - 1;
+        if (links.isEmpty()) {
+            journal.deleteThrough(replayedSegment);
+            return;
+        }
+
+        Set<String> existing = new HashSet<>();
+        List<String> shortCodes = links.stream().map(ShortUrl::getShortCode).toList();
+        for (int from = 0; from < shortCodes.size(); from += REPLAY_QUERY_CHUNK) {
+            existing.addAll(shortUrlRepository.findExistingShortCodes(
+                    shortCodes.subList(from, Math.min(from + REPLAY_QUERY_CHUNK, shortCodes.size()))));
+        }
+        int replayed = 0;
+        long record = 0;
+        for (ShortUrl link : links) {
+            if (!existing.contains(link.getShortCode()) && !pending.containsKey(link.getShortCode())) {
+                // Filter first, as for a submit, so the committed link is never ruled out
+                shortCodeFilter.add(link.getShortCode());
+                pending.put(link.getShortCode(), link);
+                record = journal.append(link);
+                replayed++;
+            }
+        }
+        journal.sync(record);
+        journal.deleteThrough(replayedSegment);
+        logger.info("Replayed {} uncommitted links from the link journal", replayed);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        // Not interrupted: the committer may be inside a JDBC call
+        submitLock.lock();
+        try {
+            running = false;
+            batchReady.signal();
+        } finally {
+            submitLock.unlock();
+        }
+        try {
+            committer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int committed = flush();
+        logger.info("Committed {} pending links on shutdown", committed);
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+-- Brings a PostgreSQL short_urls table created by an earlier version (IDENTITY ids, an
+-- index on original_url, no url_hash or cache_policy) up to the current ShortUrl
+-- mapping. Run it once with the application stopped, before the first start of this
+-- version with ddl-auto update or validate; the create-drop default never needs it.
+-- Every step is safe to rerun.
+
+BEGIN;
+
+-- IDs now come from short_url_seq in blocks of ShortUrl.ID_ALLOCATION_SIZE, and Hibernate
+-- treats each value as the top of a block, so the next value must lie a block past
+-- MAX(id) (and past any block already handed out when rerun).
+ALTER TABLE short_urls ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS short_url_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('short_url_seq',
+              GREATEST(COALESCE((SELECT MAX(id) FROM short_urls), 0), (SELECT last_value FROM short_url_seq)) + 50,
+              false);
+
+-- Links are looked up by target through url_hash instead of the URL itself
+DROP INDEX IF EXISTS idx_original_url;
+-- Left NULL here: see the url_hash step below
+ALTER TABLE short_urls ADD COLUMN IF NOT EXISTS url_hash BIGINT;
+
+-- Existing links keep the redirect they always had
+ALTER TABLE short_urls ADD COLUMN IF NOT EXISTS cache_policy VARCHAR(30) DEFAULT 'NO_STORE' NOT NULL;
+
+COMMIT;
+
+-- url_hash is a SHA-256 of ShortUrlRules.normalizeUrl, which SQL does not reproduce, so
+-- UrlHashBackfill fills it in for the existing links when the application starts and
+-- logs "Filled url_hash of N links". Once it has, finish with:
+--
+--   ALTER TABLE short_urls ALTER COLUMN url_hash SET NOT NULL;
@@ -0,0 +1,223 @@
+package com.urlshortener.reactive;
+
+import com.urlshortener.dto.ShortenUrlRequest;
+import com.urlshortener.dto.ShortenUrlResponse;
+import com.urlshortener.entity.CachePolicy;
+import com.urlshortener.entity.ShortUrl;
+import com.urlshortener.security.JwtTokenProvider;
+import com.urlshortener.service.ShortUrlRules;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ReactiveUrlShortenerApplication.class,
+        properties = { "spring.main.web-application-type=reactive", "shortener.links.deduplicate=true",
+                "shortener.canonicalize.enabled=true" })
+@AutoConfigureWebTestClient
+@ActiveProfiles({ "test", "reactive" })
+class ReactiveUrlShortenerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveUrlShortenerService urlShortenerService;
+
+    @Autowired
+    private ReactiveShortUrlRepository shortUrlRepository;
+
+    @Autowired
+    private ReactiveClickCounter clickCounter;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testShortenAndRedirect_EndToEnd() {
+        // Given
+        ShortenUrlRequest request = new ShortenUrlRequest("https://www.example.com/reactive");
+
+        // When
+        ShortenUrlResponse response = webTestClient.post().uri("/api/shorten")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ShortenUrlResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        // Then
+        assertNotNull(response);
+        assertEquals("https://www.example.com/reactive", response.getOriginalUrl());
+        String shortCode = response.getShortCode();
+        webTestClient.get().uri("/" + shortCode)
+                .exchange()
+                .expectStatus().isFound()
+                .expectHeader().valueEquals(HttpHeaders.LOCATION, "https://www.example.com/reactive");
+    }
+
+    @Test
+    void testShortenUrl_SameCodeAsServletFlavor() {
+        // When
+        String shortCode = urlShortenerService.shortenUrl("https://www.example.com/same", null, null).block();
+
+        // Then
+        assertEquals(ShortUrlRules.generateShortCode("https://www.example.com/same"), shortCode);
+    }
+
+    @Test
+    void testShortenUrl_TrackingParameters_StoredCanonical() {
+        // When
+        String shortCode = urlShortenerService.shortenUrl("https://WWW.Example.com/canon/?utm_source=x&b=2&a=1", null, null)
+                .block();
+
+        // Then
+        ShortUrl saved = shortUrlRepository.findByShortCode(shortCode).block();
+        assertNotNull(saved);
+        assertEquals("https://www.example.com/canon?a=1&b=2", saved.getOriginalUrl());
+        assertEquals(ShortUrlRules.generateShortCode("https://www.example.com/canon?a=1&b=2"), shortCode);
+    }
+
+    @Test
+    void testShortenUrl_SameCreatorTwice_Deduplicated() {
+        // When
+        String first = urlShortenerService.shortenUrl("https://www.example.com/dedup", "dedupuser", null).block();
+        String second = urlShortenerService.shortenUrl("https://WWW.EXAMPLE.COM/dedup", "dedupuser", null).block();
+        String otherCreator = urlShortenerService.shortenUrl("https://www.example.com/dedup", "otheruser", null).block();
+        String anonymous = urlShortenerService.shortenUrl("https://www.example.com/dedup", null, null).block();
+        String anonymousAgain = urlShortenerService.shortenUrl("https://www.example.com/dedup", null, null).block();
+
+        // Then
+        assertEquals(first, second);
+        assertNotEquals(first, otherCreator);
+        assertNotEquals(first, anonymous);
+        assertNotEquals(otherCreator, anonymous);
+        assertEquals(anonymous, anonymousAgain);
+    }
+
+    @Test
+    void testShortenUrl_CustomTtl_NotDeduplicated() {
+        // Given
+        String first = urlShortenerService.shortenUrl("https://www.example.com/ttl", "ttluser", null).block();
+
+        // When
+        String withTtl = urlShortenerService.shortenUrl("https://www.example.com/ttl", "ttluser", null, Duration.ofDays(1))
+                .block();
+
+        // Then
+        assertNotEquals(first, withTtl);
+    }
+
+    @Test
+    void testRedirect_RecordsClickEvent() {
+        // Given
+        String shortCode = urlShortenerService.shortenUrl("https://www.example.com/events", null, null).block();
+        double before = meterRegistry.counter("shortener.click.events").count();
+
+        // When
+        webTestClient.get().uri("/" + shortCode)
+                .header(HttpHeaders.REFERER, "https://referrer.example.com/")
+                .exchange()
+                .expectStatus().isFound();
+
+        // Then
+        assertEquals(before + 1, meterRegistry.counter("shortener.click.events").count());
+    }
+
+    @Test
+    void testRedirect_PermanentPolicy_Cacheable() {
+        // Given
+        ShortenUrlRequest request = new ShortenUrlRequest("https://www.example.com/permanent");
+        request.setCachePolicy(CachePolicy.PERMANENT);
+        webTestClient.post().uri("/api/shorten").bodyValue(request).exchange().expectStatus().isOk();
+
+        // When & Then
+        webTestClient.get().uri("/" + ShortUrlRules.generateShortCode("https://www.example.com/permanent"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.MOVED_PERMANENTLY)
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "public, max-age=604800");
+    }
+
+    @Test
+    void testShortenUrl_Authenticated_RecordsCreator() {
+        // Given
+        String token = tokenProvider.generateToken("reactiveuser");
+
+        // When
+        webTestClient.post().uri("/api/shorten")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(new ShortenUrlRequest("https://www.example.com/owned"))
+                .exchange()
+                .expectStatus().isOk();
+
+        // Then
+        ShortUrl saved = shortUrlRepository.findByShortCode(ShortUrlRules.generateShortCode("https://www.example.com/owned")).block();
+        assertNotNull(saved);
+        assertEquals("reactiveuser", saved.getCreatedBy());
+    }
+
+    @Test
+    void testShortenUrl_InvalidUrl_BadRequest() {
+        webTestClient.post().uri("/api/shorten")
+                .bodyValue(new ShortenUrlRequest("ftp://example.com"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.url").isEqualTo("URL must start with http:// or https://");
+    }
+
+    @Test
+    void testRedirect_UnknownOrExpired_NotFound() {
+        // Given
+        ShortUrl expired = new ShortUrl("REXPIRD1", "https://www.example.com/expired", null);
+        expired.setExpiresAt(LocalDateTime.now().minusDays(1));
+        shortUrlRepository.insert(expired).block();
+
+        // When & Then
+        webTestClient.get().uri("/REXPIRD1").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/NOPE1234").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testRedirect_CountsClicksAfterFlush() {
+        // Given
+        String shortCode = urlShortenerService.shortenUrl("https://www.example.com/clicks", null, null).block();
+
+        // When
+        webTestClient.get().uri("/" + shortCode).exchange().expectStatus().isFound();
+        webTestClient.get().uri("/" + shortCode).exchange().expectStatus().isFound();
+        assertEquals(2, clickCounter.pendingCount(shortCode));
+        StepVerifier.create(clickCounter.flush())
+                .assertNext(written -> assertTrue(written >= 2))
+                .verifyComplete();
+
+        // Then
+        assertEquals(0, clickCounter.pendingCount(shortCode));
+        webTestClient.get().uri("/api/stats/" + shortCode)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenProvider.generateToken("reactiveuser"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.clickCount").isEqualTo(2);
+    }
+
+    @Test
+    void testStatistics_Unauthenticated_Forbidden() {
+        webTestClient.get().uri("/api/stats/ANYCODE1").exchange().expectStatus().isForbidden();
+    }
+}
@@ -0,0 +1,104 @@
+package com.urlshortener.reactive;
+
+import com.urlshortener.analytics.PendingClicks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reactive counterpart of ClickCounter: clicks are tallied in the same PendingClicks
+ * structure and flushed as the same batched bulk UPDATEs, issued through R2DBC.
+ */
+@Component
+public class ReactiveClickCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveClickCounter.class);
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final PendingClicks pending = new PendingClicks();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private final ReactiveShortUrlRepository shortUrlRepository;
+    private final int maxBatchSize;
+    private final boolean flushOnShutdown;
+    private final Counter flushedClicks;
+
+    public ReactiveClickCounter(ReactiveShortUrlRepository shortUrlRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${shortener.clicks.max-batch-size:500}") int maxBatchSize,
+                                @Value("${shortener.clicks.flush-on-shutdown:true}") boolean flushOnShutdown) {
+        this.shortUrlRepository = shortUrlRepository;
+        this.maxBatchSize = maxBatchSize;
+        this.flushOnShutdown = flushOnShutdown;
+        this.flushedClicks = Counter.builder("shortener.clicks.flushed")
+                .description("Clicks written to the database")
+                .register(meterRegistry);
+        meterRegistry.gauge("shortener.clicks.pending.links", pending, PendingClicks::size);
+    }
+
+    public void record(String shortCode) {
+        pending.record(shortCode);
+    }
+
+    public long pendingCount(String shortCode) {
+        return pending.pendingCount(shortCode);
+    }
+
+    /**
+     * Runs on the scheduler thread, never on an event loop, so waiting for the flush
+     * keeps the fixed delay between flushes.
+     */
+    @Scheduled(fixedDelayString = "${shortener.clicks.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush().onErrorResume(e -> {
+            logger.warn("Click flush failed, counts will be retried on the next flush", e);
+            return Mono.empty();
+        }).block();
+    }
+
+    /**
+     * Drains all pending counters into the database. A flush requested while another
+     * is running completes immediately with 0.
+     *
+     * @return the number of clicks written
+     */
+    public Mono<Long> flush() {
+        return Mono.defer(() -> {
+            if (!flushing.compareAndSet(false, true)) {
+                return Mono.just(0L);
+            }
+            Map<String, Long> deltas = pending.drain();
+            return Flux.fromIterable(PendingClicks.batches(deltas, maxBatchSize))
+                    .concatMap(batch -> shortUrlRepository.addClickCounts(batch.getDelta(), batch.getShortCodes())
+                            .then(Mono.fromCallable(() -> {
+                                batch.getShortCodes().forEach(deltas::remove);
+                                flushedClicks.increment(batch.getClicks());
+                                return batch.getClicks();
+                            })))
+                    .reduce(0L, Long::sum)
+                    // Put the unwritten counts back so the next flush retries them
+                    .doOnError(e -> pending.restore(deltas))
+                    .doOnCancel(() -> pending.restore(deltas))
+                    .doFinally(signal -> flushing.set(false));
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flushOnShutdown) {
+            Long written = flush().block(SHUTDOWN_FLUSH_TIMEOUT);
+            logger.info("Flushed {} pending clicks on shutdown", written);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.urlshortener.reactive;
+
+import com.urlshortener.analytics.ClickEventPipeline;
+import com.urlshortener.entity.CachePolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+@RestController
+public class ReactiveRedirectController {
+
+    private final ReactiveUrlShortenerService urlShortenerService;
+    private final Duration maxCacheAge;
+    private final ClickEventPipeline clickEvents;
+
+    public ReactiveRedirectController(ReactiveUrlShortenerService urlShortenerService,
+                                      @Value("${shortener.redirect.max-cache-age:P7D}") Duration maxCacheAge,
+                                      ClickEventPipeline clickEvents) {
+        this.urlShortenerService = urlShortenerService;
+        this.maxCacheAge = maxCacheAge;
+        this.clickEvents = clickEvents;
+    }
+
+    @GetMapping("/{shortCode}")
+    public Mono<ResponseEntity<Void>> redirect(@PathVariable String shortCode, ServerHttpRequest request) {
+        return urlShortenerService.resolve(shortCode)
+                .map(target -> {
+                    CachePolicy cachePolicy = target.getCachePolicy();
+                    HttpHeaders headers = request.getHeaders();
+                    InetSocketAddress remoteAddress = request.getRemoteAddress();
+                    clickEvents.record(shortCode, headers.getFirst(HttpHeaders.REFERER), headers.getFirst(HttpHeaders.USER_AGENT),
+                            remoteAddress != null ? remoteAddress.getHostString() : null);
+                    return ResponseEntity.status(cachePolicy.getStatus())
+                            .header("Location", target.getOriginalUrl())
+                            .header(HttpHeaders.CACHE_CONTROL, cachePolicy.cacheControl(target.getExpiresAt(), maxCacheAge))
+                            .<Void>build();
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,69 @@
+package com.urlshortener.reactive;
+
+import com.urlshortener.security.JwtTokenProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux equivalent of SecurityConfig: stateless, authenticated by the same JWT bearer
+ * tokens, with the same public endpoints.
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtTokenProvider tokenProvider) {
+        return http
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+            .logout(ServerHttpSecurity.LogoutSpec::disable)
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .authorizeExchange(exchanges -> exchanges
+                .pathMatchers("/").permitAll()
+                .pathMatchers("/api/shorten").permitAll()
+                .pathMatchers("/actuator/**").permitAll()
+                .pathMatchers(HttpMethod.GET, "/{shortCode}").permitAll()
+                .anyExchange().authenticated()
+            )
+            // Unauthenticated requests are forbidden, as with the servlet flavor's default entry point
+            .exceptionHandling(handling -> handling.authenticationEntryPoint((exchange, ex) -> Mono.fromRunnable(
+                    () -> exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN))))
+            .addFilterAt(jwtAuthenticationFilter(tokenProvider), SecurityWebFiltersOrder.AUTHENTICATION)
+            .build();
+    }
+
+    private static WebFilter jwtAuthenticationFilter(JwtTokenProvider tokenProvider) {
+        return (exchange, chain) -> {
+            String jwt = getJwtFromRequest(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
+                UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(tokenProvider.getUsernameFromToken(jwt), null, null);
+                return chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    private static String getJwtFromRequest(String bearerToken) {
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+}
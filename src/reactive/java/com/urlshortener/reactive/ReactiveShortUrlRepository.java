@@ -0,0 +1,106 @@
+package com.urlshortener.reactive;
+
+import com.urlshortener.dto.RedirectTarget;
+import com.urlshortener.entity.CachePolicy;
+import com.urlshortener.entity.ShortUrl;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Non-blocking access to the {@code short_urls} table the JPA entity ShortUrl maps.
+ */
+@Repository
+public class ReactiveShortUrlRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveShortUrlRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<RedirectTarget> findRedirectTargetByShortCode(String shortCode) {
+        return databaseClient.sql("SELECT short_code, original_url, expires_at, cache_policy FROM short_urls WHERE short_code = :shortCode")
+                .bind("shortCode", shortCode)
+                .map((row, metadata) -> new RedirectTarget(
+                        row.get("short_code", String.class),
+                        row.get("original_url", String.class),
+                        row.get("expires_at", LocalDateTime.class),
+                        CachePolicy.valueOf(row.get("cache_policy", String.class))))
+                .one();
+    }
+
+    public Mono<ShortUrl> findByShortCode(String shortCode) {
+        return databaseClient.sql("SELECT id, short_code, original_url, created_at, expires_at, click_count, created_by, cache_policy "
+                        + "FROM short_urls WHERE short_code = :shortCode")
+                .bind("shortCode", shortCode)
+                .map((row, metadata) -> toShortUrl(row))
+                .one();
+    }
+
+    /**
+     * Links of a creator (null for anonymous links) whose normalized URL has this hash,
+     * through the same url hash index as ShortUrlRepository.findByUrlHashAndCreatedBy.
+     */
+    public Flux<ShortUrl> findByUrlHashAndCreatedBy(long urlHash, String createdBy) {
+        String select = "SELECT id, short_code, original_url, created_at, expires_at, click_count, created_by, cache_policy "
+                + "FROM short_urls WHERE url_hash = :urlHash AND ";
+        DatabaseClient.GenericExecuteSpec query = createdBy == null
+                ? databaseClient.sql(select + "created_by IS NULL")
+                : databaseClient.sql(select + "created_by = :createdBy").bind("createdBy", createdBy);
+        return query.bind("urlHash", urlHash)
+                .map((row, metadata) -> toShortUrl(row))
+                .all();
+    }
+
+    public Mono<Boolean> existsByShortCode(String shortCode) {
+        return databaseClient.sql("SELECT 1 FROM short_urls WHERE short_code = :shortCode")
+                .bind("shortCode", shortCode)
+                .map((row, metadata) -> Boolean.TRUE)
+                .first()
+                .hasElement();
+    }
+
+    public Mono<Void> insert(ShortUrl shortUrl) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(
+                        "INSERT INTO short_urls (short_code, original_url, url_hash, created_at, expires_at, click_count, created_by, cache_policy) "
+                                + "VALUES (:shortCode, :originalUrl, :urlHash, :createdAt, :expiresAt, :clickCount, :createdBy, :cachePolicy)")
+                .bind("shortCode", shortUrl.getShortCode())
+                .bind("originalUrl", shortUrl.getOriginalUrl())
+                .bind("urlHash", shortUrl.getUrlHash())
+                .bind("createdAt", shortUrl.getCreatedAt())
+                .bind("expiresAt", shortUrl.getExpiresAt())
+                .bind("clickCount", shortUrl.getClickCount())
+                .bind("cachePolicy", shortUrl.getCachePolicy().name());
+        insert = shortUrl.getCreatedBy() == null
+                ? insert.bindNull("createdBy", String.class)
+                : insert.bind("createdBy", shortUrl.getCreatedBy());
+        return insert.fetch().rowsUpdated().then();
+    }
+
+    public Mono<Long> addClickCounts(long delta, Collection<String> shortCodes) {
+        return databaseClient.sql("UPDATE short_urls SET click_count = click_count + :delta WHERE short_code IN (:shortCodes)")
+                .bind("delta", delta)
+                .bind("shortCodes", shortCodes)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static ShortUrl toShortUrl(Row row) {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setId(row.get("id", Long.class));
+        shortUrl.setShortCode(row.get("short_code", String.class));
+        shortUrl.setOriginalUrl(row.get("original_url", String.class));
+        shortUrl.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        shortUrl.setExpiresAt(row.get("expires_at", LocalDateTime.class));
+        shortUrl.setClickCount(row.get("click_count", Long.class));
+        shortUrl.setCreatedBy(row.get("created_by", String.class));
+        shortUrl.setCachePolicy(CachePolicy.valueOf(row.get("cache_policy", String.class)));
+        return shortUrl;
+    }
+}
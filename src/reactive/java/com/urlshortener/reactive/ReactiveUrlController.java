@@ -0,0 +1,59 @@
+package com.urlshortener.reactive;
+
+import com.urlshortener.dto.ShortenUrlRequest;
+import com.urlshortener.dto.ShortenUrlResponse;
+import com.urlshortener.dto.StatisticsResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api")
+public class ReactiveUrlController {
+
+    private final ReactiveUrlShortenerService urlShortenerService;
+    private static final String BASE_URL = "http://localhost:8080/";
+
+    public ReactiveUrlController(ReactiveUrlShortenerService urlShortenerService) {
+        this.urlShortenerService = urlShortenerService;
+    }
+
+    @PostMapping("/shorten")
+    public Mono<ResponseEntity<ShortenUrlResponse>> shortenUrl(@Valid @RequestBody ShortenUrlRequest request) {
+        return currentUsername()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(username -> urlShortenerService.shortenUrl(request.getUrl(), username.orElse(null),
+                        request.getCachePolicy(), request.getTtl()))
+                .map(shortCode -> ResponseEntity.ok(new ShortenUrlResponse(
+                        BASE_URL + shortCode,
+                        shortCode,
+                        request.getUrl())));
+    }
+
+    @GetMapping("/stats/{shortCode}")
+    public Mono<ResponseEntity<StatisticsResponse>> getStatistics(@PathVariable String shortCode) {
+        return urlShortenerService.getStatistics(shortCode)
+                .map(shortUrl -> ResponseEntity.ok(new StatisticsResponse(
+                        shortUrl.getShortCode(),
+                        shortUrl.getOriginalUrl(),
+                        BASE_URL + shortUrl.getShortCode(),
+                        shortUrl.getClickCount(),
+                        shortUrl.getCreatedAt(),
+                        shortUrl.getExpiresAt())))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private Mono<String> currentUsername() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(Authentication::isAuthenticated)
+                .map(Authentication::getName);
+    }
+}
@@ -0,0 +1,59 @@
+package com.urlshortener.reactive;
+
+import com.urlshortener.analytics.ClickEventPipeline;
+import com.urlshortener.cache.RedirectCache;
+import com.urlshortener.config.ShortCodeConfig;
+import com.urlshortener.security.JwtTokenProvider;
+import com.urlshortener.service.UrlCanonicalizer;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Reactive flavor: the redirect and URL endpoints on WebFlux and Netty over R2DBC.
+ *
+ * Redirect and shorten semantics (URL validation and canonicalization, the
+ * {@code shortener.codes.strategy} code generator, per-creator deduplication, link
+ * lifetime and expiry, the redirect cache, batched click counting, the click event
+ * pipeline and JWT authentication) come from the same classes the servlet flavor uses.
+ * Both flavors read and write the same {@code short_urls} table. Authentication
+ * endpoints stay with the servlet flavor. The short code Bloom filter, off-heap redirect
+ * index, write-behind, counter codes and the click event listeners are servlet-only;
+ * click events still reach the click event log.
+ *
+ * Built only with the reactive Maven profile, and runs on an embedded H2 database by
+ * default: mvn -Preactive spring-boot:run
+ */
+@SpringBootApplication(exclude = {
+        DataSourceAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        ReactiveUserDetailsServiceAutoConfiguration.class
+})
+@Import({ RedirectCache.class, JwtTokenProvider.class, ShortCodeConfig.class, UrlCanonicalizer.class,
+        ClickEventPipeline.class })
+@EnableScheduling
+public class ReactiveUrlShortenerApplication {
+
+    static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveUrlShortenerApplication.class);
+        application.setAdditionalProfiles(PROFILE);
+        application.run(args);
+    }
+
+    /**
+     * Tomcat is on the classpath for the servlet flavor and would otherwise be picked
+     * as the reactive server too; serve from Netty's event loops instead.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,156 @@
+package com.urlshortener.reactive;
+
+import com.urlshortener.cache.RedirectCache;
+import com.urlshortener.codegen.ShortCodeGenerator;
+import com.urlshortener.dto.RedirectTarget;
+import com.urlshortener.entity.CachePolicy;
+import com.urlshortener.entity.ShortUrl;
+import com.urlshortener.service.ShortUrlRules;
+import com.urlshortener.service.UrlCanonicalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking counterpart of UrlShortenerService with the same semantics: URLs are
+ * validated by ShortUrlRules and stored in the form the UrlCanonicalizer produces, codes
+ * come from the configured ShortCodeGenerator, creators get their existing link back in
+ * deduplication mode, links expire after ShortUrl.DEFAULT_LIFETIME or the TTL they ask
+ * for, expired links resolve to nothing, hot targets are served from the shared
+ * RedirectCache and clicks are counted asynchronously.
+ */
+@Service
+public class ReactiveUrlShortenerService {
+
+    /** Inserts racing for the same code lose to the unique index and try the next code. */
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private final ReactiveShortUrlRepository shortUrlRepository;
+    private final RedirectCache redirectCache;
+    private final ReactiveClickCounter clickCounter;
+    private final ShortCodeGenerator shortCodeGenerator;
+    private final UrlCanonicalizer urlCanonicalizer;
+    private boolean deduplicate;
+
+    public ReactiveUrlShortenerService(ReactiveShortUrlRepository shortUrlRepository, RedirectCache redirectCache,
+                                       ReactiveClickCounter clickCounter, ShortCodeGenerator shortCodeGenerator,
+                                       UrlCanonicalizer urlCanonicalizer) {
+        this.shortUrlRepository = shortUrlRepository;
+        this.redirectCache = redirectCache;
+        this.clickCounter = clickCounter;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.urlCanonicalizer = urlCanonicalizer;
+    }
+
+    /**
+     * When on, shortenUrl hands back the code of an unexpired link the same creator already
+     * made for the same URL and cache policy instead of inserting another row.
+     */
+    @Value("${shortener.links.deduplicate:false}")
+    void setDeduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+    }
+
+    /**
+     * Shortens a URL; errors with IllegalArgumentException if the URL is not accepted.
+     *
+     * @return the short code of the new link
+     */
+    public Mono<String> shortenUrl(String originalUrl, String username, CachePolicy cachePolicy) {
+        return shortenUrl(originalUrl, username, cachePolicy, null);
+    }
+
+    /**
+     * Shortens a URL into a link that expires after the given TTL (null for
+     * ShortUrl.DEFAULT_LIFETIME); errors with IllegalArgumentException if the URL or TTL
+     * is not accepted. Links with a custom TTL are never deduplicated.
+     *
+     * @return the short code of the new link, or of the creator's existing link
+     */
+    public Mono<String> shortenUrl(String originalUrl, String username, CachePolicy cachePolicy, Duration ttl) {
+        return Mono.fromCallable(() -> {
+                    ShortUrlRules.validateUrl(originalUrl);
+                    ShortUrlRules.validateTtl(ttl);
+                    return urlCanonicalizer.canonicalize(originalUrl);
+                })
+                .flatMap(url -> (deduplicate && ttl == null
+                        ? findExistingCode(url, username, cachePolicy != null ? cachePolicy : CachePolicy.NO_STORE)
+                        : Mono.<String>empty())
+                        .switchIfEmpty(Mono.defer(() -> insertLink(url, username, cachePolicy, ttl))));
+    }
+
+    /**
+     * Resolves a short code, recording a click when it resolves.
+     *
+     * @return the original URL, or empty if the code is unknown or expired
+     */
+    public Mono<String> getOriginalUrl(String shortCode) {
+        return resolve(shortCode).map(RedirectTarget::getOriginalUrl);
+    }
+
+    /**
+     * Like getOriginalUrl, keeping the expiry and cache policy of the target.
+     */
+    public Mono<RedirectTarget> resolve(String shortCode) {
+        if (shortCode == null || shortCode.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.justOrEmpty(redirectCache.get(shortCode))
+                .switchIfEmpty(Mono.defer(() -> shortUrlRepository.findRedirectTargetByShortCode(shortCode)
+                        .filter(target -> !target.isExpired())
+                        .doOnNext(redirectCache::put)))
+                .doOnNext(target -> clickCounter.record(shortCode));
+    }
+
+    public Mono<ShortUrl> getStatistics(String shortCode) {
+        if (shortCode == null || shortCode.isEmpty()) {
+            return Mono.empty();
+        }
+        return shortUrlRepository.findByShortCode(shortCode);
+    }
+
+    /**
+     * @return the code of an unexpired link with this URL, creator and cache policy, if any
+     */
+    private Mono<String> findExistingCode(String originalUrl, String username, CachePolicy cachePolicy) {
+        String normalized = ShortUrlRules.normalizeUrl(originalUrl);
+        return shortUrlRepository.findByUrlHashAndCreatedBy(ShortUrlRules.urlHash(originalUrl), username)
+                .filter(candidate -> ShortUrlRules.isDuplicate(candidate, normalized, cachePolicy))
+                .next()
+                .map(ShortUrl::getShortCode);
+    }
+
+    private Mono<String> insertLink(String url, String username, CachePolicy cachePolicy, Duration ttl) {
+        return unusedCode(url, 0)
+                .flatMap(shortCode -> {
+                    ShortUrl shortUrl = new ShortUrl(shortCode, url, username);
+                    if (cachePolicy != null) {
+                        shortUrl.setCachePolicy(cachePolicy);
+                    }
+                    if (ttl != null) {
+                        shortUrl.setExpiresAt(shortUrl.getCreatedAt().plus(ttl));
+                    }
+                    return shortUrlRepository.insert(shortUrl).thenReturn(shortCode);
+                })
+                .retryWhen(Retry.max(MAX_INSERT_ATTEMPTS - 1)
+                        .filter(DataIntegrityViolationException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Asks the short code generator for candidates until one is unused. The generator
+     * may block, as the snowflake generator sleeps once it runs too far ahead of the
+     * clock, so it runs on the bounded elastic scheduler rather than the event loop.
+     */
+    private Mono<String> unusedCode(String originalUrl, int attempt) {
+        return Mono.fromCallable(() -> shortCodeGenerator.generate(originalUrl, attempt))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(candidate -> shortUrlRepository.existsByShortCode(candidate)
+                        .flatMap(taken -> taken ? unusedCode(originalUrl, attempt + 1) : Mono.just(candidate)));
+    }
+}
@@ -0,0 +1,21 @@
+-- The short_urls table as mapped by the ShortUrl entity, for the reactive flavor's
+-- embedded database (the servlet flavor lets Hibernate create it).
+
+-- Hibernate treats each value as the top of a block of 50 IDs (ShortUrl.ID_ALLOCATION_SIZE);
+-- a reactive insert takes a whole block for its single row, so the flavors never collide.
+CREATE SEQUENCE IF NOT EXISTS short_url_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS short_urls (
+    id BIGINT DEFAULT NEXT VALUE FOR short_url_seq PRIMARY KEY,
+    short_code VARCHAR(10) NOT NULL,
+    original_url VARCHAR(2048) NOT NULL,
+    url_hash BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    click_count BIGINT NOT NULL,
+    created_by VARCHAR(100),
+    cache_policy VARCHAR(30) DEFAULT 'NO_STORE' NOT NULL,
+    CONSTRAINT idx_short_code UNIQUE (short_code)
+);
+
+CREATE INDEX IF NOT EXISTS idx_url_hash ON short_urls (url_hash, created_by);
@@ -0,0 +1,202 @@
+package com.urlshortener.analytics;
+
+import com.urlshortener.repository.ShortUrlRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickCounterTest {
+
+    @Mock
+    private ShortUrlRepository shortUrlRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ClickCounter clickCounter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clickCounter = new ClickCounter(shortUrlRepository, transactionManager, meterRegistry, 2, true);
+    }
+
+    @Test
+    void testRecord_AccumulatesWithoutDatabaseWrite() {
+        // When
+        clickCounter.record("ABCD1234");
+        clickCounter.record("ABCD1234");
+
+        // Then
+        assertEquals(2L, clickCounter.pendingCount("ABCD1234"));
+        verifyNoInteractions(shortUrlRepository);
+    }
+
+    @Test
+    void testFlush_GroupsCodesByDelta() {
+        // Given
+        clickCounter.record("AAAA1111");
+        clickCounter.record("BBBB2222");
+        clickCounter.record("CCCC3333");
+        clickCounter.record("CCCC3333");
+
+        // When
+        long written = clickCounter.flush();
+
+        // Then
+        assertEquals(4L, written);
+        verify(shortUrlRepository).addClickCounts(eq(1L),
+                argThat(codes -> Set.copyOf(codes).equals(Set.of("AAAA1111", "BBBB2222"))));
+        verify(shortUrlRepository).addClickCounts(2L, List.of("CCCC3333"));
+        assertEquals(0L, clickCounter.pendingCount("CCCC3333"));
+        assertEquals(4.0, meterRegistry.get("shortener.clicks.flushed").counter().count());
+    }
+
+    @Test
+    void testFlush_SplitsLargeGroupsIntoBatches() {
+        // Given
+        for (String code : Set.of("AAAA1111", "BBBB2222", "CCCC3333", "DDDD4444", "EEEE5555")) {
+            clickCounter.record(code);
+        }
+
+        // When
+        clickCounter.flush();
+
+        // Then - max batch size is 2
+        verify(shortUrlRepository, times(3)).addClickCounts(eq(1L), argThat(codes -> codes.size() <= 2));
+    }
+
+    @Test
+    void testFlush_NothingPending_DoesNotTouchDatabase() {
+        // When
+        long written = clickCounter.flush();
+
+        // Then
+        assertEquals(0L, written);
+        verifyNoInteractions(shortUrlRepository);
+    }
+
+    @Test
+    void testFlush_DatabaseFailure_KeepsCountsForRetry() {
+        // Given
+        clickCounter.record("ABCD1234");
+        when(shortUrlRepository.addClickCounts(anyLong(), anyCollection()))
+                .thenThrow(new IllegalStateException("database unavailable"));
+
+        // When
+        clickCounter.scheduledFlush();
+
+        // Then
+        assertEquals(1L, clickCounter.pendingCount("ABCD1234"));
+    }
+
+    @Test
+    void testFlush_PartialFailure_KeepsOnlyUnwrittenCounts() {
+        // Given
+        clickCounter.record("AAAA1111");
+        clickCounter.record("BBBB2222");
+        clickCounter.record("BBBB2222");
+        when(shortUrlRepository.addClickCounts(eq(1L), anyCollection())).thenReturn(1);
+        when(shortUrlRepository.addClickCounts(eq(2L), anyCollection()))
+                .thenThrow(new IllegalStateException("database unavailable"));
+
+        // When/Then
+        assertThrows(IllegalStateException.class, () -> clickCounter.flush());
+        assertEquals(0L, clickCounter.pendingCount("AAAA1111"));
+        assertEquals(2L, clickCounter.pendingCount("BBBB2222"));
+    }
+
+    @Test
+    void testFlush_IdleCounters_AreEventuallyRemoved() {
+        // Given
+        clickCounter.record("ABCD1234");
+        clickCounter.flush();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            clickCounter.flush();
+        }
+
+        // Then
+        assertEquals(0.0, meterRegistry.get("shortener.clicks.pending.links").gauge().value());
+    }
+
+    @Test
+    void testShutdown_FlushesPendingClicks() {
+        // Given
+        clickCounter.record("ABCD1234");
+
+        // When
+        clickCounter.shutdown();
+
+        // Then
+        verify(shortUrlRepository).addClickCounts(1L, List.of("ABCD1234"));
+    }
+
+    @Test
+    void testShutdown_FlushDisabled_LeavesDatabaseAlone() {
+        // Given
+        ClickCounter noFlush = new ClickCounter(shortUrlRepository, transactionManager, meterRegistry, 2, false);
+        noFlush.record("ABCD1234");
+
+        // When
+        noFlush.shutdown();
+
+        // Then
+        verifyNoInteractions(shortUrlRepository);
+    }
+
+    @Test
+    void testConcurrentRecords_AreNotLost() throws InterruptedException {
+        // Given
+        List<Long> flushed = new ArrayList<>();
+        when(shortUrlRepository.addClickCounts(anyLong(), anyCollection())).thenAnswer(invocation -> {
+            long delta = invocation.getArgument(0);
+            Collection<String> codes = invocation.getArgument(1);
+            flushed.add(delta * codes.size());
+            return codes.size();
+        });
+        int threads = 8;
+        int clicksPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        // When - flush while clicks are still being recorded
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < clicksPerThread; i++) {
+                    clickCounter.record("ABCD1234");
+                }
+                done.countDown();
+            });
+        }
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            clickCounter.flush();
+        }
+        executor.shutdown();
+        clickCounter.flush();
+        clickCounter.flush();
+
+        // Then
+        assertEquals((long) threads * clicksPerThread, flushed.stream().mapToLong(Long::longValue).sum());
+    }
+}
@@ -0,0 +1,123 @@
+package com.urlshortener.analytics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickEventLogTest {
+
+    private static final int SEGMENT_SIZE = ClickEventLog.MAX_RECORD_LENGTH * 2;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndForEach_RoundTripsEvents() {
+        // Given
+        try (ClickEventLog log = new ClickEventLog(directory, SEGMENT_SIZE)) {
+            log.append(new ClickEvent(1000, "ABCD1234", "https://ref.example.com/é", "curl/8.0", 42));
+            log.append(new ClickEvent(2000, "EFGH5678", null, null, -1));
+
+            // When
+            List<String> events = read(log);
+
+            // Then
+            assertEquals(List.of("1000|ABCD1234|https://ref.example.com/é|curl/8.0|42",
+                    "2000|EFGH5678|null|null|-1"), events);
+        }
+    }
+
+    @Test
+    void testAppend_LongText_IsCut() {
+        // Given
+        try (ClickEventLog log = new ClickEventLog(directory, SEGMENT_SIZE)) {
+            log.append(new ClickEvent(1000, "ABCD1234", null, "x".repeat(5000), 0));
+
+            // When
+            List<ClickEvent> events = new ArrayList<>();
+            log.forEach(event -> events.add(new ClickEvent(event.getTimestamp(), event.getShortCode(),
+                    event.getReferrer(), event.getUserAgent(), event.getClientHash())));
+
+            // Then
+            assertEquals(ClickEventLog.MAX_TEXT_LENGTH, events.get(0).getUserAgent().length());
+        }
+    }
+
+    @Test
+    void testAppend_FullSegment_RollsAndTruncatesSealedSegment() throws Exception {
+        // Given
+        String userAgent = "u".repeat(ClickEventLog.MAX_TEXT_LENGTH);
+        try (ClickEventLog log = new ClickEventLog(directory, SEGMENT_SIZE)) {
+            // When
+            for (int i = 0; i < 30; i++) {
+                log.append(new ClickEvent(i, "ABCD1234", null, userAgent, i));
+            }
+
+            // Then
+            assertTrue(log.currentSegment() > 1);
+            assertTrue(Files.size(directory.resolve("clicks-1.log")) < SEGMENT_SIZE);
+            assertEquals(30, read(log).size());
+        }
+    }
+
+    @Test
+    void testOpen_AfterCloseAndTornTail_KeepsIntactRecords() throws Exception {
+        // Given
+        try (ClickEventLog log = new ClickEventLog(directory, SEGMENT_SIZE)) {
+            log.append(new ClickEvent(1000, "ABCD1234", null, null, 1));
+            log.append(new ClickEvent(2000, "EFGH5678", null, null, 2));
+        }
+        Path sealed = directory.resolve("clicks-1.log");
+        try (FileChannel file = FileChannel.open(sealed, StandardOpenOption.WRITE)) {
+            file.truncate(Files.size(sealed) - 3);
+        }
+
+        // When
+        try (ClickEventLog log = new ClickEventLog(directory, SEGMENT_SIZE)) {
+            log.append(new ClickEvent(3000, "IJKL9012", null, null, 3));
+
+            // Then
+            assertEquals(2, log.currentSegment());
+            assertEquals(List.of("1000|ABCD1234|null|null|1", "3000|IJKL9012|null|null|3"), read(log));
+        }
+    }
+
+    @Test
+    void testDeleteOlderThan_DeletesOnlyOldSealedSegments() throws Exception {
+        // Given
+        try (ClickEventLog log = new ClickEventLog(directory, SEGMENT_SIZE)) {
+            log.append(new ClickEvent(1000, "ABCD1234", null, null, 1));
+            log.roll();
+            log.append(new ClickEvent(2000, "EFGH5678", null, null, 2));
+            log.roll();
+            long now = System.currentTimeMillis();
+            Files.setLastModifiedTime(directory.resolve("clicks-1.log"), FileTime.fromMillis(now - 100_000));
+            Files.setLastModifiedTime(directory.resolve("clicks-3.log"), FileTime.fromMillis(now - 100_000));
+
+            // When
+            int deleted = log.deleteOlderThan(now - 50_000);
+
+            // Then
+            assertEquals(1, deleted);
+            assertFalse(Files.exists(directory.resolve("clicks-1.log")));
+            assertTrue(Files.exists(directory.resolve("clicks-2.log")));
+            assertTrue(Files.exists(directory.resolve("clicks-3.log")));
+        }
+    }
+
+    private static List<String> read(ClickEventLog log) {
+        List<String> events = new ArrayList<>();
+        log.forEach(event -> events.add(event.getTimestamp() + "|" + event.getShortCode() + "|"
+                + event.getReferrer() + "|" + event.getUserAgent() + "|" + event.getClientHash()));
+        return events;
+    }
+}
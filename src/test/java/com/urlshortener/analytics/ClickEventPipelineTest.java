@@ -0,0 +1,95 @@
+package com.urlshortener.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickEventPipelineTest {
+
+    @Mock
+    private ObjectProvider<ClickEventListener> listenerProvider;
+
+    private final List<String> received = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ClickEventListener failing = event -> {
+            throw new IllegalStateException("listener failure");
+        };
+        ClickEventListener recording = event -> received.add(event.getShortCode() + "|"
+                + event.getUserAgent() + "|" + event.getClientHash());
+        when(listenerProvider.orderedStream()).thenReturn(Stream.of(failing, recording));
+    }
+
+    private ClickEventPipeline pipeline(int ringSize) {
+        return new ClickEventPipeline(listenerProvider, meterRegistry, true, ringSize, "salt",
+                false, Path.of("unused"), DataSize.ofMegabytes(1), Duration.ofDays(30));
+    }
+
+    @Test
+    void testRecord_DeliversToListenersOffTheCaller() {
+        // Given
+        ClickEventPipeline pipeline = pipeline(16);
+
+        // When
+        assertTrue(pipeline.record("ABCD1234", null, "curl/8.0", "10.0.0.1"));
+        assertTrue(received.isEmpty());
+        int drained = pipeline.drain();
+
+        // Then
+        assertEquals(1, drained);
+        assertEquals(1, received.size());
+        assertTrue(received.get(0).startsWith("ABCD1234|curl/8.0|"));
+        assertFalse(received.get(0).endsWith("|0"));
+        assertEquals(1.0, meterRegistry.counter("shortener.click.events").count());
+    }
+
+    @Test
+    void testRecord_SameClient_SameHash() {
+        // Given
+        ClickEventPipeline pipeline = pipeline(16);
+
+        // When
+        pipeline.record("ABCD1234", null, null, "10.0.0.1");
+        pipeline.record("ABCD1234", null, null, "10.0.0.1");
+        pipeline.record("ABCD1234", null, null, "10.0.0.2");
+        pipeline.drain();
+
+        // Then
+        assertEquals(received.get(0), received.get(1));
+        assertNotEquals(received.get(0), received.get(2));
+    }
+
+    @Test
+    void testRecord_FullRing_DropsAndCounts() {
+        // Given
+        ClickEventPipeline pipeline = pipeline(2);
+
+        // When
+        pipeline.record("AAAA1111", null, null, null);
+        pipeline.record("BBBB2222", null, null, null);
+        boolean accepted = pipeline.record("CCCC3333", null, null, null);
+
+        // Then
+        assertFalse(accepted);
+        assertEquals(1.0, meterRegistry.counter("shortener.click.events.dropped").count());
+        assertEquals(2, pipeline.drain());
+    }
+}
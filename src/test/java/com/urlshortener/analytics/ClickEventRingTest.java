@@ -0,0 +1,94 @@
+package com.urlshortener.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickEventRingTest {
+
+    @Test
+    void testDrain_ReturnsEventsInOfferOrder() {
+        // Given
+        ClickEventRing ring = new ClickEventRing(8);
+        ring.offer(1, "AAAA1111", "https://ref.example.com", "curl/8.0", 11);
+        ring.offer(2, "BBBB2222", null, null, 22);
+
+        // When
+        List<String> drained = new ArrayList<>();
+        int count = ring.drain(event -> drained.add(event.getTimestamp() + ":" + event.getShortCode()
+                + ":" + event.getReferrer() + ":" + event.getClientHash()), 10);
+
+        // Then
+        assertEquals(2, count);
+        assertEquals(List.of("1:AAAA1111:https://ref.example.com:11", "2:BBBB2222:null:22"), drained);
+        assertEquals(0, ring.backlog());
+    }
+
+    @Test
+    void testOffer_FullRing_RejectsUntilDrained() {
+        // Given
+        ClickEventRing ring = new ClickEventRing(3);
+        assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i, "ABCD1234", null, null, 0));
+        }
+
+        // When/Then
+        assertFalse(ring.offer(4, "ABCD1234", null, null, 0));
+        assertEquals(1, ring.drain(event -> { }, 1));
+        assertTrue(ring.offer(4, "ABCD1234", null, null, 0));
+        assertEquals(4, ring.backlog());
+    }
+
+    @Test
+    void testOffer_ConcurrentProducers_DeliversEveryEventOnce() throws Exception {
+        // Given
+        ClickEventRing ring = new ClickEventRing(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(i, "P" + producer, null, null, (long) producer * perProducer + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+        }
+
+        // When
+        start.countDown();
+        Set<Long> seen = new HashSet<>();
+        long[] lastPerProducer = new long[producers];
+        Arrays.fill(lastPerProducer, -1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (seen.size() < producers * perProducer && System.nanoTime() < deadline) {
+            ring.drain(event -> {
+                seen.add(event.getClientHash());
+                int producer = Integer.parseInt(event.getShortCode().substring(1));
+                assertTrue(event.getTimestamp() > lastPerProducer[producer]);
+                lastPerProducer[producer] = event.getTimestamp();
+            }, 128);
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(producers * perProducer, seen.size());
+        assertEquals(0, ring.backlog());
+    }
+}
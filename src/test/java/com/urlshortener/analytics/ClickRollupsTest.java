@@ -0,0 +1,153 @@
+package com.urlshortener.analytics;
+
+import com.urlshortener.entity.ClickRollup;
+import com.urlshortener.repository.ClickRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickRollupsTest {
+
+    private static final long HOUR = RollupGranularity.HOUR.getMillis();
+
+    @Mock
+    private ClickRollupRepository clickRollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ClickRollups clickRollups;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        clickRollups = new ClickRollups(clickRollupRepository, transactionManager, meterRegistry, true, 2);
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    void testOnClick_CountsInTimeseriesWithoutReadingDatabase() {
+        // When
+        clickRollups.onClick(new ClickEvent(now - HOUR, "ABCD1234", null, null, 0));
+        clickRollups.onClick(new ClickEvent(now, "ABCD1234", null, null, 0));
+        clickRollups.onClick(new ClickEvent(now, "ABCD1234", null, null, 0));
+
+        // Then
+        verifyNoInteractions(clickRollupRepository);
+        when(clickRollupRepository.findById("ABCD1234")).thenReturn(Optional.empty());
+        assertArrayEquals(new long[] { 1, 2 }, clickRollups.timeseries("ABCD1234", RollupGranularity.HOUR, 2, now));
+    }
+
+    @Test
+    void testTimeseries_AddsUnpersistedClicksToStoredRow() {
+        // Given
+        when(clickRollupRepository.findById("ABCD1234")).thenReturn(Optional.of(row(now - HOUR)));
+
+        // When
+        clickRollups.onClick(new ClickEvent(now, "ABCD1234", null, null, 0));
+
+        // Then
+        assertArrayEquals(new long[] { 1, 1 }, clickRollups.timeseries("ABCD1234", RollupGranularity.HOUR, 2, now));
+    }
+
+    @Test
+    void testTimeseries_UnknownCode_ReturnsZeros() {
+        // Given
+        when(clickRollupRepository.findById("ABCD1234")).thenReturn(Optional.empty());
+
+        // When/Then
+        assertArrayEquals(new long[3], clickRollups.timeseries("ABCD1234", RollupGranularity.MINUTE, 3, now));
+    }
+
+    @Test
+    void testPersist_NewCode_SavesSeries() {
+        // Given
+        clickRollups.onClick(new ClickEvent(now, "ABCD1234", null, null, 0));
+        when(clickRollupRepository.findByShortCodeForUpdate("ABCD1234")).thenReturn(Optional.empty());
+
+        // When
+        int written = clickRollups.persist();
+
+        // Then
+        assertEquals(1, written);
+        ArgumentCaptor<ClickRollup> saved = ArgumentCaptor.forClass(ClickRollup.class);
+        verify(clickRollupRepository).save(saved.capture());
+        assertArrayEquals(new long[] { 1 }, hourCounts(saved.getValue()));
+        assertEquals(0, clickRollups.persist());
+    }
+
+    @Test
+    void testPersist_ExistingRow_AddsClicksToIt() {
+        // Given: another node has already stored a click of this hour
+        ClickRollup row = row(now);
+        when(clickRollupRepository.findByShortCodeForUpdate("ABCD1234")).thenReturn(Optional.of(row));
+        clickRollups.onClick(new ClickEvent(now, "ABCD1234", null, null, 0));
+        clickRollups.onClick(new ClickEvent(now, "ABCD1234", null, null, 0));
+
+        // When
+        clickRollups.persist();
+
+        // Then
+        verify(clickRollupRepository).save(row);
+        assertArrayEquals(new long[] { 3 }, hourCounts(row));
+    }
+
+    @Test
+    void testPersist_MergesInBatchesAndDropsPersistedSeries() {
+        // Given
+        when(clickRollupRepository.findByShortCodeForUpdate(anyString())).thenReturn(Optional.empty());
+        for (String code : List.of("AAAA1111", "BBBB2222", "CCCC3333")) {
+            clickRollups.onClick(new ClickEvent(now, code, null, null, 0));
+        }
+
+        // When
+        int written = clickRollups.persist();
+
+        // Then
+        assertEquals(3, written);
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(0.0, meterRegistry.get("shortener.rollups.links").gauge().value());
+    }
+
+    @Test
+    void testPersist_Failure_RetriesOnNextPersist() {
+        // Given
+        clickRollups.onClick(new ClickEvent(now, "ABCD1234", null, null, 0));
+        when(clickRollupRepository.findByShortCodeForUpdate("ABCD1234"))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(Optional.empty());
+
+        // When/Then
+        assertThrows(IllegalStateException.class, clickRollups::persist);
+        clickRollups.onClick(new ClickEvent(now, "ABCD1234", null, null, 0));
+        assertEquals(1, clickRollups.persist());
+        ArgumentCaptor<ClickRollup> saved = ArgumentCaptor.forClass(ClickRollup.class);
+        verify(clickRollupRepository).save(saved.capture());
+        assertArrayEquals(new long[] { 2 }, hourCounts(saved.getValue()));
+    }
+
+    private ClickRollup row(long click) {
+        ClickSeries stored = new ClickSeries(click);
+        stored.add(click);
+        return new ClickRollup("ABCD1234", stored.toBytes(), LocalDateTime.now());
+    }
+
+    private long[] hourCounts(ClickRollup row) {
+        return ClickSeries.fromBytes(row.getBuckets()).counts(RollupGranularity.HOUR, now / HOUR, 1);
+    }
+}
@@ -0,0 +1,161 @@
+package com.urlshortener.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickSeriesTest {
+
+    private static final long MINUTE = RollupGranularity.MINUTE.getMillis();
+    private static final long HOUR = RollupGranularity.HOUR.getMillis();
+    private static final long DAY = RollupGranularity.DAY.getMillis();
+    private static final long START = 20_000 * DAY;
+
+    @Test
+    void testCounts_RecentClicks_ByMinuteHourAndDay() {
+        // Given
+        ClickSeries series = new ClickSeries(START);
+        series.add(START);
+        series.add(START + 10_000);
+        series.add(START + MINUTE);
+
+        // When
+        long[] minutes = series.counts(RollupGranularity.MINUTE, START / MINUTE, 3);
+        long[] hours = series.counts(RollupGranularity.HOUR, START / HOUR, 1);
+        long[] days = series.counts(RollupGranularity.DAY, START / DAY, 1);
+
+        // Then
+        assertArrayEquals(new long[] { 2, 1, 0 }, minutes);
+        assertArrayEquals(new long[] { 3 }, hours);
+        assertArrayEquals(new long[] { 3 }, days);
+    }
+
+    @Test
+    void testAdd_AgedMinutes_RollIntoHoursAndDays() {
+        // Given
+        ClickSeries series = new ClickSeries(START);
+        series.add(START);
+        series.add(START + MINUTE);
+
+        // When
+        series.add(START + 3 * HOUR);
+
+        // Then
+        assertArrayEquals(new long[] { 0 }, series.counts(RollupGranularity.MINUTE, START / MINUTE, 1));
+        assertArrayEquals(new long[] { 2 }, series.counts(RollupGranularity.HOUR, START / HOUR, 1));
+
+        // When
+        series.add(START + 3 * DAY);
+
+        // Then
+        assertArrayEquals(new long[] { 0 }, series.counts(RollupGranularity.HOUR, START / HOUR, 1));
+        assertArrayEquals(new long[] { 3, 0, 0, 1 }, series.counts(RollupGranularity.DAY, START / DAY, 4));
+    }
+
+    @Test
+    void testAdd_AfterIdleGap_HourBucketsAgeOut() {
+        // Given
+        ClickSeries series = new ClickSeries(START);
+        series.add(START);
+
+        // When
+        series.add(START + 49 * HOUR);
+
+        // Then
+        assertArrayEquals(new long[] { 0 }, series.counts(RollupGranularity.HOUR, START / HOUR, 1));
+        assertArrayEquals(new long[] { 1 }, series.counts(RollupGranularity.DAY, START / DAY, 1));
+    }
+
+    @Test
+    void testAdd_BeyondDayRetention_DropsOldestDays() {
+        // Given
+        ClickSeries series = new ClickSeries(START);
+        series.add(START);
+
+        // When
+        series.add(START + 100 * DAY);
+
+        // Then
+        assertArrayEquals(new long[] { 0 }, series.counts(RollupGranularity.DAY, START / DAY, 1));
+        assertArrayEquals(new long[] { 1 }, series.counts(RollupGranularity.DAY, START / DAY + 100, 1));
+    }
+
+    @Test
+    void testCounts_RandomClicks_MatchExactCounts() {
+        Random random = new Random(42);
+        long time = START;
+        ClickSeries series = new ClickSeries(time);
+        List<Long> clicks = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            time += random.nextInt(10) == 0 ? random.nextInt((int) (6 * HOUR)) : random.nextInt(30_000);
+            series.add(time);
+            clicks.add(time);
+        }
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            long first = time / granularity.getMillis() - granularity.getBuckets() + 1;
+            long[] counts = series.counts(granularity, first, granularity.getBuckets());
+            for (int i = 0; i < counts.length; i++) {
+                long bucket = first + i;
+                long expected = clicks.stream().filter(click -> click / granularity.getMillis() == bucket).count();
+                assertEquals(expected, counts[i], granularity + " bucket " + bucket);
+            }
+        }
+    }
+
+    @Test
+    void testMerge_SplitClicks_MatchExactCounts() {
+        // Given - one node's clicks in the stored series, another's in a newer delta
+        Random random = new Random(7);
+        long time = START;
+        ClickSeries stored = new ClickSeries(time);
+        List<Long> clicks = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            time += random.nextInt(120_000);
+            stored.add(time);
+            clicks.add(time);
+        }
+        ClickSeries delta = new ClickSeries(time - 3 * HOUR);
+        for (int i = 0; i < 5_000; i++) {
+            long click = time - 3 * HOUR + random.nextInt((int) (5 * HOUR));
+            delta.add(click);
+            clicks.add(click);
+        }
+        long end = time + 2 * HOUR;
+
+        // When
+        stored.merge(delta);
+
+        // Then
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            long first = end / granularity.getMillis() - granularity.getBuckets() + 1;
+            long[] counts = stored.counts(granularity, first, granularity.getBuckets());
+            for (int i = 0; i < counts.length; i++) {
+                long bucket = first + i;
+                long expected = clicks.stream().filter(click -> click / granularity.getMillis() == bucket).count();
+                assertEquals(expected, counts[i], granularity + " bucket " + bucket);
+            }
+        }
+    }
+
+    @Test
+    void testFromBytes_RoundTrip_KeepsCounts() {
+        // Given
+        ClickSeries series = new ClickSeries(START);
+        series.add(START);
+        series.add(START + 2 * HOUR);
+
+        // When
+        ClickSeries copy = ClickSeries.fromBytes(series.toBytes());
+
+        // Then
+        assertEquals(ClickSeries.SERIALIZED_LENGTH, series.toBytes().length);
+        assertArrayEquals(series.counts(RollupGranularity.HOUR, START / HOUR, 3),
+                copy.counts(RollupGranularity.HOUR, START / HOUR, 3));
+        assertThrows(IllegalArgumentException.class, () -> ClickSeries.fromBytes(new byte[10]));
+    }
+}
@@ -0,0 +1,56 @@
+package com.urlshortener.analytics;
+
+import com.urlshortener.index.Hashing;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void testEstimate_NeverUndercounts() {
+        // Given
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add(Hashing.hash64("code" + i % 1000), 1);
+        }
+
+        // When/Then
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(sketch.estimate(Hashing.hash64("code" + i)) >= 10);
+        }
+        assertEquals(10_000, sketch.total());
+    }
+
+    @Test
+    void testEstimate_HeavyKey_WithinErrorBound() {
+        // Given
+        CountMinSketch sketch = new CountMinSketch(4, 1 << 12);
+        sketch.add(Hashing.hash64("HOT00001"), 5_000);
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add(Hashing.hash64("cold" + i), 1);
+        }
+
+        // When
+        long estimate = sketch.estimate(Hashing.hash64("HOT00001"));
+
+        // Then: e / width of the total
+        assertTrue(estimate >= 5_000);
+        assertTrue(estimate <= 5_000 + Math.E / sketch.width() * sketch.total());
+    }
+
+    @Test
+    void testClear_ResetsCounts() {
+        // Given
+        CountMinSketch sketch = new CountMinSketch(2, 100);
+        sketch.add(Hashing.hash64("ABCD1234"), 3);
+
+        // When
+        sketch.clear();
+
+        // Then
+        assertEquals(0, sketch.estimate(Hashing.hash64("ABCD1234")));
+        assertEquals(0, sketch.total());
+        assertEquals(128, sketch.width());
+    }
+}
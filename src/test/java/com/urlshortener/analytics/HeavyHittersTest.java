@@ -0,0 +1,96 @@
+package com.urlshortener.analytics;
+
+import com.urlshortener.dto.TopLink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHittersTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long MINUTE = 60_000L;
+
+    private HeavyHitters heavyHitters(int k) {
+        return new HeavyHitters(new SimpleMeterRegistry(), true, k, Duration.ofMinutes(5), 5, 4, 4096);
+    }
+
+    @Test
+    void testTop_ReturnsMostClickedFirst() {
+        // Given
+        HeavyHitters heavyHitters = heavyHitters(10);
+        click(heavyHitters, "AAAA1111", START, 3);
+        click(heavyHitters, "BBBB2222", START, 7);
+        click(heavyHitters, "CCCC3333", START, 5);
+
+        // When
+        List<TopLink> top = heavyHitters.top(2, START);
+
+        // Then
+        assertEquals(2, top.size());
+        assertEquals("BBBB2222", top.get(0).getShortCode());
+        assertEquals(7L, top.get(0).getClicks());
+        assertEquals("CCCC3333", top.get(1).getShortCode());
+    }
+
+    @Test
+    void testTop_BoundedHeap_KeepsHeavyHittersAmongManyLinks() {
+        // Given: 5 hot links among 50,000 links clicked once or twice
+        HeavyHitters heavyHitters = heavyHitters(10);
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            String code = random.nextInt(10) == 0 ? "HOT" + random.nextInt(5) : "COLD" + random.nextInt(50_000);
+            click(heavyHitters, code, START + i, 1);
+        }
+
+        // When
+        List<TopLink> top = heavyHitters.top(5, START + 100_000);
+
+        // Then
+        for (TopLink link : top) {
+            assertTrue(link.getShortCode().startsWith("HOT"), link.getShortCode());
+            assertTrue(link.getClicks() >= 1_800, link.getShortCode() + " " + link.getClicks());
+        }
+    }
+
+    @Test
+    void testTop_ClicksOlderThanWindow_AreForgotten() {
+        // Given
+        HeavyHitters heavyHitters = heavyHitters(10);
+        click(heavyHitters, "AAAA1111", START, 10);
+        click(heavyHitters, "BBBB2222", START + 3 * MINUTE, 2);
+
+        // When
+        List<TopLink> stillInWindow = heavyHitters.top(10, START + 4 * MINUTE);
+        List<TopLink> afterWindow = heavyHitters.top(10, START + 6 * MINUTE);
+        List<TopLink> afterAll = heavyHitters.top(10, START + 20 * MINUTE);
+
+        // Then
+        assertEquals("AAAA1111", stillInWindow.get(0).getShortCode());
+        assertEquals(1, afterWindow.size());
+        assertEquals("BBBB2222", afterWindow.get(0).getShortCode());
+        assertEquals(2L, afterWindow.get(0).getClicks());
+        assertTrue(afterAll.isEmpty());
+    }
+
+    @Test
+    void testTop_Disabled_ReturnsNothing() {
+        // Given
+        HeavyHitters heavyHitters = new HeavyHitters(new SimpleMeterRegistry(), false, 10,
+                Duration.ofMinutes(5), 5, 4, 4096);
+        click(heavyHitters, "AAAA1111", START, 1);
+
+        // When/Then
+        assertTrue(heavyHitters.top(10, START).isEmpty());
+    }
+
+    private static void click(HeavyHitters heavyHitters, String shortCode, long timestamp, int times) {
+        for (int i = 0; i < times; i++) {
+            heavyHitters.onClick(new ClickEvent(timestamp, shortCode, null, null, 0));
+        }
+    }
+}
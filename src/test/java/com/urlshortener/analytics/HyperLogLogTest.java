@@ -0,0 +1,110 @@
+package com.urlshortener.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void testEstimate_Empty_IsZero() {
+        assertEquals(0, new HyperLogLog().estimate());
+        assertTrue(new HyperLogLog().isEmpty());
+    }
+
+    @Test
+    void testEstimate_RepeatedVisitors_CountedOnce() {
+        // Given
+        HyperLogLog sketch = new HyperLogLog();
+
+        // When
+        for (int repeat = 0; repeat < 5; repeat++) {
+            for (int visitor = 0; visitor < 50; visitor++) {
+                sketch.add(mix(visitor));
+            }
+        }
+
+        // Then
+        assertEquals(50, sketch.estimate(), 1);
+    }
+
+    @Test
+    void testEstimate_LargeCardinalities_WithinErrorBound() {
+        Random random = new Random(7);
+        for (int cardinality : new int[] { 1_000, 10_000, 100_000, 1_000_000 }) {
+            HyperLogLog sketch = new HyperLogLog();
+            long base = random.nextLong();
+            for (int i = 0; i < cardinality; i++) {
+                sketch.add(mix(base + i));
+            }
+            // Four standard errors: a fixed seed, but no flakiness if the hash ever changes
+            assertEquals(cardinality, sketch.estimate(), 4 * HyperLogLog.STANDARD_ERROR * cardinality,
+                    "cardinality " + cardinality);
+        }
+    }
+
+    @Test
+    void testMerge_EqualsSketchOfUnion() {
+        // Given
+        HyperLogLog union = new HyperLogLog();
+        HyperLogLog even = new HyperLogLog();
+        HyperLogLog odd = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            union.add(mix(i));
+            (i % 2 == 0 ? even : odd).add(mix(i));
+        }
+
+        // When
+        even.merge(odd);
+
+        // Then
+        assertArrayEquals(union.toBytes(), even.toBytes());
+    }
+
+    @Test
+    void testMerge_SameSketchTwice_ChangesNothing() {
+        // Given
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            sketch.add(mix(i));
+        }
+        HyperLogLog copy = sketch.copy();
+
+        // When
+        sketch.merge(copy);
+        sketch.merge(copy);
+
+        // Then
+        assertArrayEquals(copy.toBytes(), sketch.toBytes());
+    }
+
+    @Test
+    void testToBytes_SparseAndDense_RoundTrip() {
+        // Given
+        HyperLogLog small = new HyperLogLog();
+        HyperLogLog large = new HyperLogLog();
+        for (int i = 0; i < 10; i++) {
+            small.add(mix(i));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            large.add(mix(i));
+        }
+
+        // When/Then
+        assertEquals(1 + 4 + 10 * 4, small.toBytes().length);
+        assertEquals(1 + HyperLogLog.REGISTERS, large.toBytes().length);
+        assertEquals(small.estimate(), HyperLogLog.fromBytes(small.toBytes()).estimate());
+        assertEquals(large.estimate(), HyperLogLog.fromBytes(large.toBytes()).estimate());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] { 7 }));
+    }
+
+    /** A stand-in for the uniformly distributed client hashes. */
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
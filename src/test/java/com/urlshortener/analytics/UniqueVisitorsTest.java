@@ -0,0 +1,111 @@
+package com.urlshortener.analytics;
+
+import com.urlshortener.codegen.ShortCodeEncoder;
+import com.urlshortener.entity.VisitorSketch;
+import com.urlshortener.repository.VisitorSketchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UniqueVisitorsTest {
+
+    @Mock
+    private VisitorSketchRepository visitorSketchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UniqueVisitors uniqueVisitors;
+
+    @BeforeEach
+    void setUp() {
+        uniqueVisitors = new UniqueVisitors(visitorSketchRepository, transactionManager, new SimpleMeterRegistry(),
+                true, 100);
+    }
+
+    @Test
+    void testEstimate_CountsDistinctClientsNotYetPersisted() {
+        // Given
+        when(visitorSketchRepository.findById("ABCD1234")).thenReturn(Optional.empty());
+        click("ABCD1234", 11);
+        click("ABCD1234", 11);
+        click("ABCD1234", 22);
+        click("ABCD1234", 0);
+        click("EFGH5678", 33);
+
+        // When/Then
+        assertEquals(2L, uniqueVisitors.estimate("ABCD1234"));
+    }
+
+    @Test
+    void testPersist_NewCode_SavesSketch() {
+        // Given
+        click("ABCD1234", 11);
+        when(visitorSketchRepository.findByShortCodeForUpdate("ABCD1234")).thenReturn(Optional.empty());
+
+        // When
+        int written = uniqueVisitors.persist();
+
+        // Then
+        assertEquals(1, written);
+        ArgumentCaptor<VisitorSketch> saved = ArgumentCaptor.forClass(VisitorSketch.class);
+        verify(visitorSketchRepository).save(saved.capture());
+        assertEquals(1, HyperLogLog.fromBytes(saved.getValue().getSketch()).estimate());
+        assertEquals(0, uniqueVisitors.persist());
+    }
+
+    @Test
+    void testPersist_ExistingRow_MergesIntoIt() {
+        // Given: another node has already stored visitors 11 and 22
+        HyperLogLog stored = new HyperLogLog();
+        stored.add(hash(11));
+        stored.add(hash(22));
+        VisitorSketch row = new VisitorSketch("ABCD1234", stored.toBytes(), LocalDateTime.now());
+        when(visitorSketchRepository.findByShortCodeForUpdate("ABCD1234")).thenReturn(Optional.of(row));
+        click("ABCD1234", 22);
+        click("ABCD1234", 33);
+
+        // When
+        uniqueVisitors.persist();
+
+        // Then
+        verify(visitorSketchRepository).save(row);
+        assertEquals(3, HyperLogLog.fromBytes(row.getSketch()).estimate());
+    }
+
+    @Test
+    void testPersist_Failure_RetriesOnNextPersist() {
+        // Given
+        click("ABCD1234", 11);
+        when(visitorSketchRepository.findByShortCodeForUpdate("ABCD1234"))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(Optional.empty());
+
+        // When/Then
+        assertThrows(IllegalStateException.class, uniqueVisitors::persist);
+        assertEquals(1, uniqueVisitors.persist());
+        verify(visitorSketchRepository).save(any(VisitorSketch.class));
+    }
+
+    private void click(String shortCode, long client) {
+        uniqueVisitors.onClick(new ClickEvent(System.currentTimeMillis(), shortCode, null, null,
+                client == 0 ? 0 : hash(client)));
+    }
+
+    private static long hash(long client) {
+        return ShortCodeEncoder.hash64("salt" + client);
+    }
+}
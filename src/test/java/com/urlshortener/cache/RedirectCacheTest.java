@@ -0,0 +1,114 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.dto.RedirectTarget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedirectCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RedirectCache redirectCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        redirectCache = new RedirectCache(100, Duration.ofMinutes(10), meterRegistry);
+    }
+
+    @Test
+    void testGet_CachedTarget_ReturnsTarget() {
+        // Given
+        redirectCache.put(new RedirectTarget("ABCD1234", "https://www.example.com", LocalDateTime.now().plusDays(1)));
+
+        // When
+        Optional<RedirectTarget> result = redirectCache.get("ABCD1234");
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("https://www.example.com", result.get().getOriginalUrl());
+    }
+
+    @Test
+    void testGet_UnknownCode_ReturnsEmpty() {
+        // When
+        Optional<RedirectTarget> result = redirectCache.get("MISSING1");
+
+        // Then
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void testPut_ExpiredTarget_IsNotCached() {
+        // Given
+        redirectCache.put(new RedirectTarget("ABCD1234", "https://www.example.com", LocalDateTime.now().minusSeconds(1)));
+
+        // When
+        Optional<RedirectTarget> result = redirectCache.get("ABCD1234");
+
+        // Then
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void testGet_TargetExpiresWhileCached_ReturnsEmpty() throws InterruptedException {
+        // Given
+        redirectCache.put(new RedirectTarget("ABCD1234", "https://www.example.com", LocalDateTime.now().plusNanos(50_000_000)));
+
+        // When
+        Thread.sleep(100);
+        Optional<RedirectTarget> result = redirectCache.get("ABCD1234");
+
+        // Then
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void testInvalidate_RemovesEntry() {
+        // Given
+        redirectCache.put(new RedirectTarget("ABCD1234", "https://www.example.com", LocalDateTime.now().plusDays(1)));
+
+        // When
+        redirectCache.invalidate("ABCD1234");
+
+        // Then
+        assertFalse(redirectCache.get("ABCD1234").isPresent());
+    }
+
+    @Test
+    void testMaxSize_BoundsEntries() {
+        // Given
+        RedirectCache small = new RedirectCache(10, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            small.put(new RedirectTarget("CODE" + i, "https://www.example.com/" + i, LocalDateTime.now().plusDays(1)));
+        }
+
+        // Then
+        assertTrue(small.estimatedSize() <= 10);
+    }
+
+    @Test
+    void testMetrics_RecordHitsAndMisses() {
+        // Given
+        redirectCache.put(new RedirectTarget("ABCD1234", "https://www.example.com", LocalDateTime.now().plusDays(1)));
+
+        // When
+        redirectCache.get("ABCD1234");
+        redirectCache.get("MISSING1");
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "redirects").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "redirects").tag("result", "miss")
+                .functionCounter().count());
+        assertNotNull(meterRegistry.get("cache.evictions").tag("cache", "redirects").functionCounter());
+    }
+}
@@ -0,0 +1,40 @@
+package com.urlshortener.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Base62Test {
+
+    @Test
+    void testEncode_PadsToFixedWidth() {
+        assertEquals("00000000", Base62.encode(0, 8));
+        assertEquals("0000000z", Base62.encode(61, 8));
+        assertEquals("00000010", Base62.encode(62, 8));
+        assertEquals("zzzzzzzz", Base62.encode(Base62.capacity(8) - 1, 8));
+    }
+
+    @Test
+    void testEncodeDecode_RoundTrips() {
+        for (long value : new long[] { 0, 1, 12345, 987654321L, Base62.capacity(8) - 1 }) {
+            assertEquals(value, Base62.decode(Base62.encode(value, 8)));
+        }
+    }
+
+    @Test
+    void testEncode_OutOfRange_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> Base62.encode(-1, 8));
+        assertThrows(IllegalArgumentException.class, () -> Base62.encode(Base62.capacity(8), 8));
+    }
+
+    @Test
+    void testDecode_InvalidCharacter_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> Base62.decode("ABC-1234"));
+    }
+
+    @Test
+    void testCapacity() {
+        assertEquals(1, Base62.capacity(0));
+        assertEquals(218_340_105_584_896L, Base62.capacity(8));
+    }
+}
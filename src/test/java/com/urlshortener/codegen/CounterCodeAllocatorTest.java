@@ -0,0 +1,111 @@
+package com.urlshortener.codegen;
+
+import com.urlshortener.entity.CodeSequence;
+import com.urlshortener.repository.CodeSequenceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CounterCodeAllocatorTest {
+
+    @Mock
+    private CodeSequenceRepository codeSequenceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testNextCode_FirstLease_CreatesSequenceRow() {
+        // Given
+        when(codeSequenceRepository.findByNameForUpdate(CounterCodeAllocator.SEQUENCE_NAME))
+                .thenReturn(Optional.empty());
+        CounterCodeAllocator allocator = newAllocator(10);
+
+        // When
+        String first = allocator.nextCode();
+        String second = allocator.nextCode();
+
+        // Then
+        assertEquals("00000000", first);
+        assertEquals("00000001", second);
+        verify(codeSequenceRepository, times(1)).saveAndFlush(argThat(sequence ->
+                sequence.getName().equals(CounterCodeAllocator.SEQUENCE_NAME) && sequence.getNextValue() == 10L));
+    }
+
+    @Test
+    void testNextCode_LeasesOneBlockPerBlockSizeCodes() {
+        // Given
+        CodeSequence sequence = new CodeSequence(CounterCodeAllocator.SEQUENCE_NAME, 100L);
+        when(codeSequenceRepository.findByNameForUpdate(CounterCodeAllocator.SEQUENCE_NAME))
+                .thenReturn(Optional.of(sequence));
+        CounterCodeAllocator allocator = newAllocator(3);
+
+        // When
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 7; i++) {
+            codes.add(allocator.nextCode());
+        }
+
+        // Then
+        assertEquals(7, codes.size());
+        assertTrue(codes.contains(Base62.encode(100, 8)));
+        assertTrue(codes.contains(Base62.encode(106, 8)));
+        assertEquals(109L, sequence.getNextValue());
+        assertEquals(3.0, meterRegistry.get("shortener.codes.leases").counter().count());
+        codes.forEach(code -> assertEquals(8, code.length()));
+    }
+
+    @Test
+    void testNextCode_ConcurrentRowCreation_RetriesWithLock() {
+        // Given
+        CodeSequence sequence = new CodeSequence(CounterCodeAllocator.SEQUENCE_NAME, 50L);
+        when(codeSequenceRepository.findByNameForUpdate(CounterCodeAllocator.SEQUENCE_NAME))
+                .thenReturn(Optional.empty(), Optional.of(sequence));
+        when(codeSequenceRepository.saveAndFlush(any(CodeSequence.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        CounterCodeAllocator allocator = newAllocator(10);
+
+        // When
+        String code = allocator.nextCode();
+
+        // Then
+        assertEquals(Base62.encode(50, 8), code);
+        assertEquals(60L, sequence.getNextValue());
+    }
+
+    @Test
+    void testNextCode_SequenceBeyondCodeSpace_Throws() {
+        // Given
+        CodeSequence sequence = new CodeSequence(CounterCodeAllocator.SEQUENCE_NAME, Base62.capacity(8));
+        when(codeSequenceRepository.findByNameForUpdate(CounterCodeAllocator.SEQUENCE_NAME))
+                .thenReturn(Optional.of(sequence));
+        CounterCodeAllocator allocator = newAllocator(10);
+
+        // When/Then
+        assertThrows(IllegalStateException.class, allocator::nextCode);
+    }
+
+    @Test
+    void testBlockSize_MustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> newAllocator(0));
+    }
+
+    private CounterCodeAllocator newAllocator(int blockSize) {
+        return new CounterCodeAllocator(codeSequenceRepository, transactionManager, meterRegistry, blockSize);
+    }
+}
@@ -0,0 +1,51 @@
+package com.urlshortener.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortCodeEncoderTest {
+
+    @Test
+    void testEncode_FixedLengthBase62() {
+        for (String url : new String[] { "https://www.example.com", "https://www.example.com/ünïcödé", "x" }) {
+            String code = ShortCodeEncoder.encode(url, 8);
+            assertEquals(8, code.length());
+            assertTrue(code.chars().allMatch(c -> Base62.ALPHABET.indexOf(c) >= 0), code);
+        }
+    }
+
+    @Test
+    void testEncode_MatchesLeadingHashBits() throws Exception {
+        // Given
+        String url = "https://www.example.com/ünïcödé";
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+        long leading = ByteBuffer.wrap(hash).getLong();
+
+        // Then
+        assertEquals(leading, ShortCodeEncoder.hash64(url));
+        assertEquals(Base62.encode(Long.remainderUnsigned(leading, Base62.capacity(8)), 8),
+                ShortCodeEncoder.encode(url, 8));
+    }
+
+    @Test
+    void testEncode_LongAsciiInputFallsBack() throws Exception {
+        // Given
+        String url = "https://www.example.com/" + "a".repeat(4096);
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        assertEquals(ByteBuffer.wrap(hash).getLong(), ShortCodeEncoder.hash64(url));
+        assertEquals(ShortCodeEncoder.encode(url, 8), ShortCodeEncoder.encode(url, 8));
+    }
+
+    @Test
+    void testEncode_InvalidLength_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> ShortCodeEncoder.encode("https://www.example.com", 0));
+        assertThrows(IllegalArgumentException.class, () -> ShortCodeEncoder.encode("https://www.example.com", 11));
+    }
+}
@@ -0,0 +1,57 @@
+package com.urlshortener.codegen;
+
+import com.urlshortener.service.ShortUrlRules;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShortCodeGeneratorTest {
+
+    private static final String URL = "https://www.example.com/generator";
+
+    @Test
+    void testGenerate_EveryStrategyHonorsCodeContract() {
+        CounterCodeAllocator allocator = mock(CounterCodeAllocator.class);
+        when(allocator.nextCode()).thenReturn("0000001a", "0000001b", "0000001c");
+
+        List<ShortCodeGenerator> generators = List.of(new Sha256CodeGenerator(), new FastHashCodeGenerator(),
+                new RandomCodeGenerator(), new CounterCodeGenerator(allocator), new SnowflakeCodeGenerator(3, 5));
+        for (ShortCodeGenerator generator : generators) {
+            String strategy = generator.getClass().getSimpleName();
+            Set<String> codes = new HashSet<>();
+            for (int attempt = 0; attempt < 3; attempt++) {
+                String code = generator.generate(URL, attempt);
+                assertEquals(ShortUrlRules.SHORT_CODE_LENGTH, code.length(), strategy + ": " + code);
+                assertTrue(code.chars().allMatch(c -> Base62.ALPHABET.indexOf(c) >= 0), strategy + ": " + code);
+                codes.add(code);
+            }
+            assertEquals(3, codes.size(), strategy + " repeated a code across attempts");
+        }
+    }
+
+    @Test
+    void testGenerate_HashStrategiesAreDeterministic() {
+        for (ShortCodeGenerator generator : List.of(new Sha256CodeGenerator(), new FastHashCodeGenerator())) {
+            assertEquals(generator.generate(URL, 0), generator.generate(URL, 0));
+            assertNotEquals(generator.generate(URL, 0), generator.generate(URL + "/other", 0));
+        }
+        assertEquals(new FastHashCodeGenerator().generate(URL, 2), new FastHashCodeGenerator().generate(URL, 2));
+        assertEquals(ShortUrlRules.generateShortCode(URL), new Sha256CodeGenerator().generate(URL, 0));
+    }
+
+    @Test
+    void testStrategy_ParsesPropertyValues() {
+        assertEquals(ShortCodeStrategy.HASH, ShortCodeStrategy.of("hash"));
+        assertEquals(ShortCodeStrategy.FAST_HASH, ShortCodeStrategy.of("Fast-Hash"));
+        assertEquals(ShortCodeStrategy.RANDOM, ShortCodeStrategy.of(" random "));
+        assertEquals(ShortCodeStrategy.COUNTER, ShortCodeStrategy.of("COUNTER"));
+        assertEquals(ShortCodeStrategy.SNOWFLAKE, ShortCodeStrategy.of("snowflake"));
+        assertEquals("fast-hash", ShortCodeStrategy.FAST_HASH.toString());
+        assertThrows(IllegalArgumentException.class, () -> ShortCodeStrategy.of("md5"));
+    }
+}
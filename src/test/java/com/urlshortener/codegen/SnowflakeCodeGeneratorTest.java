@@ -0,0 +1,109 @@
+package com.urlshortener.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeCodeGeneratorTest {
+
+    private final MutableClock clock = new MutableClock(SnowflakeCodeGenerator.EPOCH_SECOND + 1000);
+
+    @Test
+    void testNextId_PacksTimestampNodeAndSequence() {
+        // Given
+        SnowflakeCodeGenerator generator = new SnowflakeCodeGenerator(3, 5, clock);
+
+        // When
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        // Then
+        assertEquals((1000L << 17) | (3L << 12), first);
+        assertEquals(first + 1, second);
+        assertEquals(first, Base62.decode(new SnowflakeCodeGenerator(3, 5, clock).generate("ignored", 0)));
+    }
+
+    @Test
+    void testNextId_NodesNeverCollide() {
+        // Given
+        SnowflakeCodeGenerator node1 = new SnowflakeCodeGenerator(1, 5, clock);
+        SnowflakeCodeGenerator node2 = new SnowflakeCodeGenerator(2, 5, clock);
+        Set<Long> ids = new HashSet<>();
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(node1.nextId());
+            ids.add(node2.nextId());
+        }
+
+        // Then
+        assertEquals(20_000, ids.size());
+    }
+
+    @Test
+    void testNextId_ClockRegression_KeepsIncreasing() {
+        // Given
+        SnowflakeCodeGenerator generator = new SnowflakeCodeGenerator(0, 5, clock);
+        long before = generator.nextId();
+
+        // When
+        clock.second -= 60;
+        long after = generator.nextId();
+
+        // Then
+        assertTrue(after > before);
+        assertEquals(before >>> 17, after >>> 17);
+    }
+
+    @Test
+    void testNextId_SequenceExhausted_BorrowsNextSecond() {
+        // Given - 16 node bits leave a 1-bit sequence: two codes per second
+        SnowflakeCodeGenerator generator = new SnowflakeCodeGenerator(0, 16, clock);
+        long last = -1;
+
+        // When/Then - the clock stands still, up to MAX_SECONDS_AHEAD seconds are borrowed
+        for (int i = 0; i < 2 * (SnowflakeCodeGenerator.MAX_SECONDS_AHEAD + 1); i++) {
+            long id = generator.nextId();
+            assertTrue(id > last);
+            last = id;
+        }
+        assertEquals(1000 + SnowflakeCodeGenerator.MAX_SECONDS_AHEAD, last >>> 17);
+    }
+
+    @Test
+    void testConstructor_RejectsNodeOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeCodeGenerator(32, 5, clock));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeCodeGenerator(-1, 5, clock));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeCodeGenerator(0, 17, clock));
+    }
+
+    private static final class MutableClock extends Clock {
+        private long second;
+
+        MutableClock(long second) {
+            this.second = second;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochSecond(second);
+        }
+    }
+}
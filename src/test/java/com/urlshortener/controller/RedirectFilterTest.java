@@ -0,0 +1,142 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.analytics.ClickEventPipeline;
+import com.urlshortener.dto.RedirectTarget;
+import com.urlshortener.entity.CachePolicy;
+import com.urlshortener.service.UrlShortenerService;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedirectFilterTest {
+
+    @Mock
+    private UrlShortenerService urlShortenerService;
+
+    @Mock
+    private ClickEventPipeline clickEvents;
+
+    @Mock
+    private FilterChain chain;
+
+    private RedirectFilter filter;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RedirectFilter(urlShortenerService, Duration.ofDays(7), clickEvents);
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void testDoFilter_KnownCode_RedirectsWithoutChain() throws Exception {
+        // Given
+        when(urlShortenerService.resolve("ABCD1234")).thenReturn(Optional.of(
+                new RedirectTarget("ABCD1234", "https://www.example.com", LocalDateTime.now().plusDays(1))));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ABCD1234");
+        request.addHeader("Referer", "https://news.example.org/");
+        request.addHeader("User-Agent", "curl/8.0");
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertEquals(302, response.getStatus());
+        assertEquals("https://www.example.com", response.getHeader("Location"));
+        assertEquals(CachePolicy.NO_STORE_CACHE_CONTROL, response.getHeader("Cache-Control"));
+        verify(clickEvents).record("ABCD1234", "https://news.example.org/", "curl/8.0", "127.0.0.1");
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void testDoFilter_PermanentPolicy_CacheableUntilCap() throws Exception {
+        // Given
+        when(urlShortenerService.resolve("ABCD1234")).thenReturn(Optional.of(new RedirectTarget(
+                "ABCD1234", "https://www.example.com", LocalDateTime.now().plusYears(1), CachePolicy.PERMANENT)));
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/ABCD1234"), response, chain);
+
+        // Then
+        assertEquals(301, response.getStatus());
+        assertEquals("https://www.example.com", response.getHeader("Location"));
+        assertEquals("public, max-age=604800", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void testDoFilter_UnknownOrExpiredCode_ReturnsNotFound() throws Exception {
+        // Given
+        when(urlShortenerService.resolve("INVALID")).thenReturn(Optional.empty());
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/INVALID"), response, chain);
+
+        // Then
+        assertEquals(404, response.getStatus());
+        assertNull(response.getHeader("Location"));
+        assertEquals("", response.getContentAsString());
+        verifyNoInteractions(chain, clickEvents);
+    }
+
+    @Test
+    void testDoFilter_ConnectionPoolExhausted_ReturnsServiceUnavailable() throws Exception {
+        // Given
+        when(urlShortenerService.resolve("ABCD1234"))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available"));
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/ABCD1234"), response, chain);
+
+        // Then
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void testDoFilter_OtherRequests_PassThrough() throws Exception {
+        String[][] requests = {
+                { "GET", "/" },
+                { "GET", "/api" },
+                { "GET", "/actuator" },
+                { "GET", "/error" },
+                { "GET", "/api/stats/ABCD1234" },
+                { "GET", "/h2-console" },
+                { "GET", "/favicon.ico" },
+                { "GET", "/ABCDEFGHIJK" },
+                { "POST", "/ABCD1234" },
+                { "DELETE", "/ABCD1234" },
+        };
+        for (String[] request : requests) {
+            MockHttpServletRequest servletRequest = new MockHttpServletRequest(request[0], request[1]);
+            filter.doFilter(servletRequest, response, chain);
+            verify(chain).doFilter(servletRequest, response);
+        }
+        verifyNoInteractions(urlShortenerService);
+    }
+
+    @Test
+    void testShortCode_HonoursContextPathAndHead() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/app/ABCD1234");
+        request.setContextPath("/app");
+
+        // When/Then
+        assertEquals("ABCD1234", RedirectFilter.shortCode(request));
+    }
+}
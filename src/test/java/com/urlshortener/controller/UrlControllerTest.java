@@ -1,8 +1,18 @@
 package com.urlshortener.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urlshortener.analytics.ClickEventPipeline;
+import com.urlshortener.analytics.ClickRollups;
+import com.urlshortener.analytics.HeavyHitters;
+import com.urlshortener.analytics.RollupGranularity;
+import com.urlshortener.analytics.UniqueVisitors;
+import com.urlshortener.dto.BatchShortenRequest;
+import com.urlshortener.dto.RedirectTarget;
 import com.urlshortener.dto.ShortenUrlRequest;
+import com.urlshortener.dto.TopLink;
+import com.urlshortener.entity.CachePolicy;
 import com.urlshortener.entity.ShortUrl;
+import com.urlshortener.repository.ShortUrlRepository;
 import com.urlshortener.security.JwtTokenProvider;
 import com.urlshortener.service.UrlShortenerService;
 import org.junit.jupiter.api.Test;
@@ -14,11 +24,16 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,6 +51,18 @@ class UrlControllerTest {
     @MockBean
     private JwtTokenProvider tokenProvider;
 
+    @MockBean
+    private ClickEventPipeline clickEventPipeline;
+
+    @MockBean
+    private ClickRollups clickRollups;
+
+    @MockBean
+    private UniqueVisitors uniqueVisitors;
+
+    @MockBean
+    private HeavyHitters heavyHitters;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -44,7 +71,7 @@ class UrlControllerTest {
         // Given
         ShortenUrlRequest request = new ShortenUrlRequest("https://www.example.com");
         String shortCode = "ABCD1234";
-        when(urlShortenerService.shortenUrl(anyString(), any())).thenReturn(shortCode);
+        when(urlShortenerService.shortenUrl(anyString(), any(), any(), any())).thenReturn(shortCode);
 
         // When/Then
         mockMvc.perform(post("/api/shorten")
@@ -55,6 +82,47 @@ class UrlControllerTest {
                 .andExpect(jsonPath("$.originalUrl").value("https://www.example.com"));
     }
 
+    @Test
+    void testShortenUrl_WithTtl_PassesTtlToService() throws Exception {
+        // Given
+        when(urlShortenerService.shortenUrl(anyString(), any(), any(), eq(Duration.ofHours(24)))).thenReturn("ABCD1234");
+
+        // When/Then
+        mockMvc.perform(post("/api/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"url\":\"https://www.example.com\",\"ttl\":\"PT24H\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shortCode").value("ABCD1234"));
+    }
+
+    @Test
+    void testShortenUrls_ValidRequest_ReturnsResultsInOrder() throws Exception {
+        // Given
+        BatchShortenRequest request = new BatchShortenRequest(
+                List.of("https://www.example.com/a", "https://www.example.com/b"));
+        when(urlShortenerService.shortenUrls(eq(request.getUrls()), any(), any()))
+                .thenReturn(List.of("AAAA1111", "BBBB2222"));
+
+        // When/Then
+        mockMvc.perform(post("/api/shorten/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].shortCode").value("AAAA1111"))
+                .andExpect(jsonPath("$.results[0].originalUrl").value("https://www.example.com/a"))
+                .andExpect(jsonPath("$.results[1].shortCode").value("BBBB2222"))
+                .andExpect(jsonPath("$.results[1].shortUrl").value("http://localhost:8080/BBBB2222"));
+    }
+
+    @Test
+    void testShortenUrls_EmptyRequest_ReturnsBadRequest() throws Exception {
+        // When/Then
+        mockMvc.perform(post("/api/shorten/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchShortenRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testShortenUrl_InvalidRequest_ReturnsBadRequest() throws Exception {
         // Given
@@ -78,12 +146,14 @@ class UrlControllerTest {
         shortUrl.setExpiresAt(LocalDateTime.now().plusYears(1));
 
         when(urlShortenerService.getStatistics(shortCode)).thenReturn(Optional.of(shortUrl));
+        when(uniqueVisitors.estimate(shortCode)).thenReturn(7L);
 
         // When/Then
         mockMvc.perform(get("/api/stats/{shortCode}", shortCode))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.shortCode").value(shortCode))
-                .andExpect(jsonPath("$.clickCount").value(10));
+                .andExpect(jsonPath("$.clickCount").value(10))
+                .andExpect(jsonPath("$.uniqueVisitors").value(7));
     }
 
     @Test
@@ -98,27 +168,177 @@ class UrlControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser
+    void testGetTopLinks_ReturnsHottestLinks() throws Exception {
+        // Given
+        when(heavyHitters.getCapacity()).thenReturn(100);
+        when(heavyHitters.getWindow()).thenReturn(Duration.ofMinutes(5));
+        when(heavyHitters.top(eq(2), anyLong())).thenReturn(List.of(
+                new TopLink("BBBB2222", 70L), new TopLink("AAAA1111", 30L)));
+
+        // When/Then
+        mockMvc.perform(get("/api/stats/top").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.window").value("PT5M"))
+                .andExpect(jsonPath("$.links[0].shortCode").value("BBBB2222"))
+                .andExpect(jsonPath("$.links[0].clicks").value(70))
+                .andExpect(jsonPath("$.links[1].shortCode").value("AAAA1111"));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetTopLinks_LimitAboveCapacity_ReturnsBadRequest() throws Exception {
+        // Given
+        when(heavyHitters.getCapacity()).thenReturn(100);
+
+        // When/Then
+        mockMvc.perform(get("/api/stats/top").param("limit", "101"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetTimeseries_ValidCode_ReturnsBuckets() throws Exception {
+        // Given
+        String shortCode = "ABCD1234";
+        when(urlShortenerService.getStatistics(shortCode)).thenReturn(Optional.of(
+                new ShortUrl(shortCode, "https://www.example.com", "user")));
+        when(clickRollups.timeseries(eq(shortCode), eq(RollupGranularity.MINUTE), eq(3), anyLong()))
+                .thenReturn(new long[] { 4, 0, 7 });
+
+        // When/Then
+        mockMvc.perform(get("/api/stats/{shortCode}/timeseries", shortCode)
+                .param("granularity", "minute")
+                .param("points", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("minute"))
+                .andExpect(jsonPath("$.points.length()").value(3))
+                .andExpect(jsonPath("$.points[0].clicks").value(4))
+                .andExpect(jsonPath("$.points[2].clicks").value(7))
+                .andExpect(jsonPath("$.points[2].start").value(matchesPattern(".*:00Z")));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetTimeseries_TooManyPoints_ReturnsBadRequest() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/api/stats/{shortCode}/timeseries", "ABCD1234")
+                .param("granularity", "hour")
+                .param("points", "49"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testRedirect_ValidCode_Redirects() throws Exception {
         // Given
         String shortCode = "ABCD1234";
         String originalUrl = "https://www.example.com";
-        when(urlShortenerService.getOriginalUrl(shortCode)).thenReturn(Optional.of(originalUrl));
+        when(urlShortenerService.resolve(shortCode)).thenReturn(Optional.of(
+                new RedirectTarget(shortCode, originalUrl, LocalDateTime.now().plusYears(1))));
 
         // When/Then
         mockMvc.perform(get("/{shortCode}", shortCode))
                 .andExpect(status().isFound())
-                .andExpect(header().string("Location", originalUrl));
+                .andExpect(header().string("Location", originalUrl))
+                .andExpect(header().string("Cache-Control", CachePolicy.NO_STORE_CACHE_CONTROL));
+    }
+
+    @Test
+    void testRedirect_TemporaryPolicy_MaxAgeFromExpiry() throws Exception {
+        // Given
+        String shortCode = "ABCD1234";
+        String originalUrl = "https://www.example.com";
+        when(urlShortenerService.resolve(shortCode)).thenReturn(Optional.of(new RedirectTarget(
+                shortCode, originalUrl, LocalDateTime.now().plusHours(1), CachePolicy.TEMPORARY_PRESERVE_METHOD)));
+
+        // When/Then
+        mockMvc.perform(get("/{shortCode}", shortCode))
+                .andExpect(status().isTemporaryRedirect())
+                .andExpect(header().string("Location", originalUrl))
+                .andExpect(header().string("Cache-Control", matchesPattern("public, max-age=(3599|3600)")));
     }
 
     @Test
     void testRedirect_InvalidCode_ReturnsNotFound() throws Exception {
         // Given
         String shortCode = "INVALID";
-        when(urlShortenerService.getOriginalUrl(shortCode)).thenReturn(Optional.empty());
+        when(urlShortenerService.resolve(shortCode)).thenReturn(Optional.empty());
 
         // When/Then
         mockMvc.perform(get("/{shortCode}", shortCode))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    @WithMockUser(username = "alice")
+    void testGetMyLinks_MoreThanOnePage_ReturnsCursorToNextPage() throws Exception {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(urlShortenerService.getLinksCreatedBy("alice", null, null, 3)).thenReturn(List.of(
+                linkRow(9L, "AAAA1111", createdAt), linkRow(8L, "BBBB2222", createdAt),
+                linkRow(7L, "CCCC3333", createdAt.minusDays(1))));
+        when(urlShortenerService.getLinksCreatedBy("alice", createdAt, 8L, 3)).thenReturn(List.of(
+                linkRow(7L, "CCCC3333", createdAt.minusDays(1))));
+
+        // When
+        String nextCursor = objectMapper.readTree(mockMvc.perform(get("/api/users/me/links").param("size", "2"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.links.length()").value(2))
+                        .andExpect(jsonPath("$.links[0].shortCode").value("AAAA1111"))
+                        .andExpect(jsonPath("$.links[1].shortCode").value("BBBB2222"))
+                        .andExpect(jsonPath("$.links[1].clickCount").value(8))
+                        .andReturn().getResponse().getContentAsString())
+                .get("nextCursor").asText();
+
+        // Then
+        mockMvc.perform(get("/api/users/me/links").param("size", "2").param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.links.length()").value(1))
+                .andExpect(jsonPath("$.links[0].shortCode").value("CCCC3333"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    void testGetMyLinks_InvalidCursorOrSize_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/me/links").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/me/links").param("size", "501"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetMyLinks_Anonymous_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/users/me/links"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static ShortUrlRepository.UserLinkRow linkRow(Long id, String shortCode, LocalDateTime createdAt) {
+        return new ShortUrlRepository.UserLinkRow() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getShortCode() {
+                return shortCode;
+            }
+
+            public String getOriginalUrl() {
+                return "https://www.example.com/" + id;
+            }
+
+            public Long getClickCount() {
+                return id;
+            }
+
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+
+            public LocalDateTime getExpiresAt() {
+                return createdAt.plusYears(1);
+            }
+        };
+    }
 }
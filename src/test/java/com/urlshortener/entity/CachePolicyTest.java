@@ -0,0 +1,45 @@
+package com.urlshortener.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachePolicyTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Test
+    void testCacheControl_NoStore_NeverCacheable() {
+        assertEquals(CachePolicy.NO_STORE_CACHE_CONTROL,
+                CachePolicy.NO_STORE.cacheControl(now.plusYears(1), Duration.ofDays(7), now));
+    }
+
+    @Test
+    void testCacheControl_ExpiryBeforeCap_MaxAgeUntilExpiry() {
+        assertEquals("public, max-age=3600",
+                CachePolicy.TEMPORARY.cacheControl(now.plusHours(1), Duration.ofDays(7), now));
+    }
+
+    @Test
+    void testCacheControl_ExpiryAfterCap_MaxAgeCapped() {
+        assertEquals("public, max-age=86400",
+                CachePolicy.PERMANENT.cacheControl(now.plusYears(1), Duration.ofDays(1), now));
+    }
+
+    @Test
+    void testCacheControl_AboutToExpire_NotCacheable() {
+        assertEquals(CachePolicy.NO_STORE_CACHE_CONTROL,
+                CachePolicy.TEMPORARY_PRESERVE_METHOD.cacheControl(now.plusNanos(500_000_000), Duration.ofDays(1), now));
+    }
+
+    @Test
+    void testStatus_MatchesPolicy() {
+        assertEquals(301, CachePolicy.PERMANENT.getStatus());
+        assertEquals(302, CachePolicy.TEMPORARY.getStatus());
+        assertEquals(307, CachePolicy.TEMPORARY_PRESERVE_METHOD.getStatus());
+        assertEquals(302, CachePolicy.NO_STORE.getStatus());
+    }
+}
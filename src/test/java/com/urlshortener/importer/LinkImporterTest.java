@@ -0,0 +1,158 @@
+package com.urlshortener.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urlshortener.dto.ImportSummary;
+import com.urlshortener.service.UrlShortenerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LinkImporterTest {
+
+    @Mock
+    private UrlShortenerService urlShortenerService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LinkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        importer = new LinkImporter(urlShortenerService, objectMapper, 2);
+        lenient().when(urlShortenerService.shortenUrls(anyList(), any(), any())).thenAnswer(invocation -> {
+            List<String> codes = new ArrayList<>();
+            for (String url : invocation.<List<String>>getArgument(0)) {
+                codes.add("C" + Math.abs(url.hashCode() % 1000));
+            }
+            return codes;
+        });
+    }
+
+    @Test
+    void testImportLinks_Csv_WritesChunksAndPerRowResults() throws IOException {
+        // Given
+        String body = "url,campaign\n"
+                + "https://www.example.com/1,spring\n"
+                + "\"https://www.example.com/2?a=1,b=2\",summer\n"
+                + "\n"
+                + "ftp://example.com\n"
+                + "https://www.example.com/3\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        ImportSummary summary = importer.importLinks(stream(body), ImportFormat.CSV, "importer", out);
+
+        // Then
+        assertEquals(4, summary.getRows());
+        assertEquals(3, summary.getCreated());
+        assertEquals(1, summary.getFailed());
+        verify(urlShortenerService).shortenUrls(
+                List.of("https://www.example.com/1", "https://www.example.com/2?a=1,b=2"), "importer", null);
+        verify(urlShortenerService).shortenUrls(List.of("https://www.example.com/3"), "importer", null);
+
+        List<JsonNode> lines = lines(out);
+        assertEquals(5, lines.size());
+        assertEquals(2, lines.get(0).get("line").asLong());
+        assertTrue(lines.get(0).has("shortCode"));
+        assertFalse(lines.get(0).has("error"));
+        assertEquals(3, lines.get(1).get("line").asLong());
+        assertEquals(5, lines.get(2).get("line").asLong());
+        assertEquals("Invalid URL format", lines.get(2).get("error").asText());
+        assertEquals(6, lines.get(3).get("line").asLong());
+        assertEquals(3, lines.get(4).get("created").asLong());
+    }
+
+    @Test
+    void testImportLinks_Ndjson_ReportsMalformedRows() throws IOException {
+        // Given
+        String body = "{\"url\":\"https://www.example.com/1\"}\r\n"
+                + "{\"link\":\"https://www.example.com/2\"}\n"
+                + "{not json\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        ImportSummary summary = importer.importLinks(stream(body), ImportFormat.NDJSON, "importer", out);
+
+        // Then
+        assertEquals(3, summary.getRows());
+        assertEquals(1, summary.getCreated());
+        List<JsonNode> lines = lines(out);
+        assertEquals("Missing \"url\" property", lines.get(0).get("error").asText());
+        assertEquals("Malformed JSON", lines.get(1).get("error").asText());
+        assertEquals(1, lines.get(2).get("line").asLong());
+    }
+
+    @Test
+    void testImportLinks_OverlongLine_SkippedWithoutBuffering() throws IOException {
+        // Given
+        String body = "https://www.example.com/" + "x".repeat(ImportRowReader.MAX_LINE_LENGTH * 4) + "\n"
+                + "https://www.example.com/after\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        ImportSummary summary = importer.importLinks(stream(body), ImportFormat.CSV, "importer", out);
+
+        // Then
+        assertEquals(2, summary.getRows());
+        assertEquals(1, summary.getCreated());
+        assertTrue(lines(out).get(0).get("error").asText().startsWith("Line exceeds"));
+        verify(urlShortenerService).shortenUrls(List.of("https://www.example.com/after"), "importer", null);
+    }
+
+    @Test
+    void testImportLinks_ChunkFails_ReportsRowsAndContinues() throws IOException {
+        // Given
+        when(urlShortenerService.shortenUrls(anyList(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenReturn(List.of("ABCD1234"));
+        String body = "https://www.example.com/1\nhttps://www.example.com/2\nhttps://www.example.com/3\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        ImportSummary summary = importer.importLinks(stream(body), ImportFormat.CSV, "importer", out);
+
+        // Then
+        assertEquals(3, summary.getRows());
+        assertEquals(1, summary.getCreated());
+        assertEquals(2, summary.getFailed());
+        List<JsonNode> lines = lines(out);
+        assertEquals("Could not be saved", lines.get(0).get("error").asText());
+        assertEquals("ABCD1234", lines.get(2).get("shortCode").asText());
+    }
+
+    @Test
+    void testForContentType_ResolvesFormats() {
+        assertEquals(ImportFormat.CSV, ImportFormat.forContentType("text/csv; charset=UTF-8"));
+        assertEquals(ImportFormat.NDJSON, ImportFormat.forContentType("application/x-ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> ImportFormat.forContentType("application/json"));
+        assertThrows(IllegalArgumentException.class, () -> ImportFormat.forContentType(null));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<JsonNode> lines(ByteArrayOutputStream out) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
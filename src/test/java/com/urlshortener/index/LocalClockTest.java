@@ -0,0 +1,22 @@
+package com.urlshortener.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalClockTest {
+
+    @Test
+    void testNowMillis_MatchesLocalDateTime() {
+        // When
+        long before = LocalDateTime.now().toInstant(ZoneOffset.UTC).toEpochMilli();
+        long now = LocalClock.nowMillis();
+        long after = LocalDateTime.now().toInstant(ZoneOffset.UTC).toEpochMilli();
+
+        // Then
+        assertTrue(before <= now && now <= after);
+    }
+}
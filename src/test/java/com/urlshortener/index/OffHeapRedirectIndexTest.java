@@ -0,0 +1,350 @@
+package com.urlshortener.index;
+
+import com.urlshortener.dto.RedirectTarget;
+import com.urlshortener.entity.CachePolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapRedirectIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private OffHeapRedirectIndex index;
+    private LocalDateTime nextYear;
+
+    @BeforeEach
+    void setUp() {
+        index = new OffHeapRedirectIndex(directory, 1000, true);
+        nextYear = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.close();
+    }
+
+    @Test
+    void testPutAndGet_ReturnsTarget() {
+        // Given
+        index.put(new RedirectTarget("ABCD1234", "https://www.example.com/é", nextYear));
+
+        // When
+        Optional<RedirectTarget> result = index.get("ABCD1234");
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("ABCD1234", result.get().getShortCode());
+        assertEquals("https://www.example.com/é", result.get().getOriginalUrl());
+        assertEquals(nextYear, result.get().getExpiresAt());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testPutAndGet_KeepsCachePolicy() {
+        // Given
+        index.put(new RedirectTarget("ABCD1234", "https://www.example.com", nextYear, CachePolicy.PERMANENT));
+        index.put(new RedirectTarget("ABCD1235", "https://www.example.com", nextYear));
+
+        // When/Then
+        assertEquals(CachePolicy.PERMANENT, index.get("ABCD1234").get().getCachePolicy());
+        assertEquals(CachePolicy.NO_STORE, index.get("ABCD1235").get().getCachePolicy());
+    }
+
+    @Test
+    void testGet_UnknownCode_ReturnsEmpty() {
+        // Given
+        index.put(new RedirectTarget("ABCD1234", "https://www.example.com", nextYear));
+
+        // When/Then
+        assertFalse(index.get("ABCD1235").isPresent());
+        assertFalse(index.get("ABCD123").isPresent());
+    }
+
+    @Test
+    void testPut_ExistingCode_ReplacesTarget() {
+        // Given
+        index.put(new RedirectTarget("ABCD1234", "https://www.example.com/old", nextYear));
+
+        // When
+        index.put(new RedirectTarget("ABCD1234", "https://www.example.com/new", nextYear));
+
+        // Then
+        assertEquals("https://www.example.com/new", index.get("ABCD1234").get().getOriginalUrl());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testGet_ExpiredTarget_ReturnsEmpty() {
+        // Given
+        index.put(new RedirectTarget("ABCD1234", "https://www.example.com", LocalDateTime.now().minusMinutes(1)));
+
+        // When/Then
+        assertFalse(index.get("ABCD1234").isPresent());
+    }
+
+    @Test
+    void testRemove_HidesTarget() {
+        // Given
+        index.put(new RedirectTarget("ABCD1234", "https://www.example.com", nextYear));
+
+        // When
+        index.remove("ABCD1234");
+
+        // Then
+        assertFalse(index.get("ABCD1234").isPresent());
+    }
+
+    @Test
+    void testPut_ManyLinks_AllRetrievable() {
+        // Given
+        for (int i = 0; i < 750; i++) {
+            assertTrue(index.put(new RedirectTarget("C" + i, "https://www.example.com/" + i, nextYear)));
+        }
+
+        // Then
+        for (int i = 0; i < 750; i++) {
+            assertEquals("https://www.example.com/" + i, index.get("C" + i).get().getOriginalUrl());
+        }
+    }
+
+    @Test
+    void testPut_BeyondLoadLimit_IsRejected() {
+        // Given
+        OffHeapRedirectIndex small = new OffHeapRedirectIndex(directory.resolve("small"), 3, false);
+        long limit = (long) (small.capacity() * OffHeapRedirectIndex.MAX_LOAD_FACTOR);
+
+        // When
+        for (int i = 0; i < limit; i++) {
+            assertTrue(small.put(new RedirectTarget("C" + i, "https://www.example.com/" + i, nextYear)));
+        }
+
+        // Then
+        assertFalse(small.put(new RedirectTarget("OVERFLOW", "https://www.example.com", nextYear)));
+        assertFalse(small.get("OVERFLOW").isPresent());
+        small.close();
+    }
+
+    @Test
+    void testRemove_FreesSlotForNextInsert() {
+        // Given
+        index.put(new RedirectTarget("ABCD1234", "https://www.example.com", nextYear));
+
+        // When
+        index.remove("ABCD1234");
+        index.remove("ABCD1234");
+
+        // Then
+        assertEquals(0, index.size());
+        assertTrue(index.put(new RedirectTarget("ABCD1234", "https://www.example.com/again", nextYear)));
+        assertEquals("https://www.example.com/again", index.get("ABCD1234").get().getOriginalUrl());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testPut_AfterManyRemovals_ReusesTombstones() {
+        // Given
+        OffHeapRedirectIndex small = new OffHeapRedirectIndex(directory.resolve("small"), 3, false);
+
+        // When - far more links than the table has slots pass through it
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(small.put(new RedirectTarget("C" + i, "https://www.example.com/" + i, nextYear)));
+            small.remove("C" + i);
+        }
+
+        // Then
+        assertEquals(0, small.size());
+        assertTrue(small.compactions() > 0);
+        long limit = (long) (small.capacity() * OffHeapRedirectIndex.MAX_LOAD_FACTOR);
+        for (int i = 0; i < limit; i++) {
+            assertTrue(small.put(new RedirectTarget("D" + i, "https://www.example.com/" + i, nextYear)));
+        }
+        for (int i = 0; i < limit; i++) {
+            assertEquals("https://www.example.com/" + i, small.get("D" + i).get().getOriginalUrl());
+        }
+        small.close();
+    }
+
+    @Test
+    void testPut_ReplacedRecords_CompactedAway() {
+        // Given
+        String path = "x".repeat(2000);
+
+        // When - each replacement leaves about 2 KB of dead bytes behind
+        for (int i = 0; i < 1000; i++) {
+            index.put(new RedirectTarget("ABCD1234", "https://www.example.com/" + i + "/" + path, nextYear));
+            index.put(new RedirectTarget("EFGH5678", "https://www.example.com/other", nextYear));
+        }
+
+        // Then
+        assertTrue(index.compactions() > 0);
+        assertTrue(index.deadBytes() < 1 << 20);
+        assertEquals(2, index.size());
+        assertEquals("https://www.example.com/999/" + path, index.get("ABCD1234").get().getOriginalUrl());
+        assertEquals("https://www.example.com/other", index.get("EFGH5678").get().getOriginalUrl());
+    }
+
+    @Test
+    void testReopen_AfterCompaction_KeepsEntries() {
+        // Given
+        for (int i = 0; i < 1000; i++) {
+            index.put(new RedirectTarget("ABCD1234", "https://www.example.com/" + i + "/" + "x".repeat(2000), nextYear));
+        }
+        index.remove("ABCD1234");
+        index.put(new RedirectTarget("EFGH5678", "https://www.example.com/kept", nextYear));
+        assertTrue(index.compactions() > 0);
+        index.close();
+
+        // When
+        index = new OffHeapRedirectIndex(directory, 1000, true);
+
+        // Then
+        assertTrue(index.isRecovered());
+        assertEquals(1, index.size());
+        assertFalse(index.get("ABCD1234").isPresent());
+        assertEquals("https://www.example.com/kept", index.get("EFGH5678").get().getOriginalUrl());
+    }
+
+    @Test
+    void testEvictExpired_RemovesDueLinksOnly() throws InterruptedException {
+        // Given
+        OffHeapRedirectIndex fine = new OffHeapRedirectIndex(directory.resolve("fine"), 1000, 10, false);
+        fine.put(new RedirectTarget("SOON1234", "https://www.example.com/soon", LocalDateTime.now().plusNanos(30_000_000)));
+        fine.put(new RedirectTarget("LATE1234", "https://www.example.com/late", nextYear));
+
+        // When
+        int early = fine.evictExpired();
+        Thread.sleep(60);
+        int due = fine.evictExpired();
+
+        // Then
+        assertEquals(0, early);
+        assertEquals(1, due);
+        assertEquals(1, fine.size());
+        assertEquals(1, fine.scheduledExpiries());
+        assertTrue(fine.get("LATE1234").isPresent());
+        fine.close();
+    }
+
+    @Test
+    void testEvictExpired_ReplacedWithLaterExpiry_Kept() throws InterruptedException {
+        // Given
+        OffHeapRedirectIndex fine = new OffHeapRedirectIndex(directory.resolve("fine"), 1000, 10, false);
+        fine.put(new RedirectTarget("ABCD1234", "https://www.example.com/old", LocalDateTime.now().plusNanos(20_000_000)));
+        fine.put(new RedirectTarget("ABCD1234", "https://www.example.com/new", nextYear));
+
+        // When
+        Thread.sleep(50);
+        int due = fine.evictExpired();
+
+        // Then
+        assertEquals(0, due);
+        assertEquals("https://www.example.com/new", fine.get("ABCD1234").get().getOriginalUrl());
+        assertEquals(1, fine.scheduledExpiries());
+        fine.close();
+    }
+
+    @Test
+    void testEvictExpired_ManyExpiredLinks_SpaceReclaimed() throws InterruptedException {
+        // Given
+        OffHeapRedirectIndex fine = new OffHeapRedirectIndex(directory.resolve("fine"), 1000, 1, false);
+        LocalDateTime soon = LocalDateTime.now().plusNanos(20_000_000);
+        for (int i = 0; i < 750; i++) {
+            assertTrue(fine.put(new RedirectTarget("C" + i, "https://www.example.com/" + "x".repeat(2000), soon)));
+        }
+
+        // When
+        Thread.sleep(50);
+        int due = fine.evictExpired();
+
+        // Then
+        assertEquals(750, due);
+        assertEquals(0, fine.size());
+        assertEquals(0, fine.scheduledExpiries());
+        assertTrue(fine.compactions() > 0);
+        assertEquals(0, fine.deadBytes());
+        for (int i = 0; i < 750; i++) {
+            assertTrue(fine.put(new RedirectTarget("D" + i, "https://www.example.com/" + i, nextYear)));
+        }
+        fine.close();
+    }
+
+    @Test
+    void testReopen_KeepsExpiryBuckets() throws InterruptedException {
+        // Given
+        OffHeapRedirectIndex fine = new OffHeapRedirectIndex(directory.resolve("fine"), 1000, 10, false);
+        fine.put(new RedirectTarget("SOON1234", "https://www.example.com/soon", LocalDateTime.now().plusNanos(30_000_000)));
+        fine.close();
+
+        // When
+        fine = new OffHeapRedirectIndex(directory.resolve("fine"), 1000, 10, true);
+        Thread.sleep(60);
+        int due = fine.evictExpired();
+
+        // Then
+        assertTrue(fine.isRecovered());
+        assertEquals(1, due);
+        assertEquals(0, fine.size());
+        fine.close();
+    }
+
+    @Test
+    void testReopen_DifferentExpiryBuckets_StartsEmpty() {
+        // Given
+        index.put(new RedirectTarget("ABCD1234", "https://www.example.com", nextYear));
+        index.close();
+
+        // When
+        index = new OffHeapRedirectIndex(directory, 1000, 1000, true);
+
+        // Then
+        assertFalse(index.isRecovered());
+        assertFalse(index.get("ABCD1234").isPresent());
+    }
+
+    @Test
+    void testReopen_AfterCleanClose_KeepsEntries() {
+        // Given
+        index.put(new RedirectTarget("ABCD1234", "https://www.example.com", nextYear));
+        index.markIndexedThrough(42);
+        index.close();
+
+        // When
+        index = new OffHeapRedirectIndex(directory, 1000, true);
+
+        // Then
+        assertTrue(index.isRecovered());
+        assertEquals(42, index.lastIndexedId());
+        assertEquals("https://www.example.com", index.get("ABCD1234").get().getOriginalUrl());
+    }
+
+    @Test
+    void testReopen_WithoutCleanClose_StartsEmpty() {
+        // Given
+        index.put(new RedirectTarget("ABCD1234", "https://www.example.com", nextYear));
+
+        // When - reopened while the first instance is still open, as after a crash
+        OffHeapRedirectIndex crashed = new OffHeapRedirectIndex(directory, 1000, true);
+
+        // Then
+        assertFalse(crashed.isRecovered());
+        assertFalse(crashed.get("ABCD1234").isPresent());
+        crashed.close();
+    }
+
+    @Test
+    void testTableCapacity_IsPowerOfTwoAboveLoadLimit() {
+        assertEquals(2, OffHeapRedirectIndex.tableCapacity(1));
+        assertEquals(16, OffHeapRedirectIndex.tableCapacity(12));
+        assertEquals(32, OffHeapRedirectIndex.tableCapacity(13));
+    }
+}
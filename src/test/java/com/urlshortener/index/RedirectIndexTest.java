@@ -0,0 +1,174 @@
+package com.urlshortener.index;
+
+import com.urlshortener.entity.ShortUrl;
+import com.urlshortener.repository.ShortUrlRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedirectIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ShortUrlRepository shortUrlRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RedirectIndex redirectIndex;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        redirectIndex = newIndex();
+    }
+
+    @AfterEach
+    void tearDown() {
+        redirectIndex.shutdown();
+    }
+
+    @Test
+    void testGet_BeforeLoad_Misses() {
+        // When
+        redirectIndex.add(link(1L, "ABCD1234"));
+
+        // Then
+        assertFalse(redirectIndex.isReady());
+        assertFalse(redirectIndex.get("ABCD1234").isPresent());
+    }
+
+    @Test
+    void testLoad_IndexesAllRowsInBatches() {
+        // Given
+        when(shortUrlRepository.findMaxId()).thenReturn(Optional.of(2L));
+        when(shortUrlRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(link(1L, "AAAA1111"), link(2L, "BBBB2222")));
+        when(shortUrlRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        redirectIndex.load();
+
+        // Then
+        assertTrue(redirectIndex.isReady());
+        assertEquals("https://www.example.com/AAAA1111", redirectIndex.get("AAAA1111").get().getOriginalUrl());
+        assertEquals("https://www.example.com/BBBB2222", redirectIndex.get("BBBB2222").get().getOriginalUrl());
+        assertFalse(redirectIndex.get("CCCC3333").isPresent());
+        assertEquals(2.0, meterRegistry.get("shortener.index.lookups").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("shortener.index.lookups").tag("result", "miss").counter().count());
+        assertEquals(2.0, meterRegistry.get("shortener.index.links").gauge().value());
+    }
+
+    @Test
+    void testAddAndRemove_AfterLoad_UpdateIndex() {
+        // Given
+        when(shortUrlRepository.findMaxId()).thenReturn(Optional.empty());
+        redirectIndex.load();
+
+        // When
+        redirectIndex.add(link(5L, "ABCD1234"));
+
+        // Then
+        assertTrue(redirectIndex.get("ABCD1234").isPresent());
+        redirectIndex.remove("ABCD1234");
+        assertFalse(redirectIndex.get("ABCD1234").isPresent());
+    }
+
+    @Test
+    void testEvictExpired_RemovesLinksOnceTheyExpire() throws InterruptedException {
+        // Given
+        redirectIndex.shutdown();
+        redirectIndex = new RedirectIndex(shortUrlRepository, transactionManager, meterRegistry, true, directory, 100, 10);
+        when(shortUrlRepository.findMaxId()).thenReturn(Optional.empty());
+        redirectIndex.load();
+        ShortUrl expiring = link(5L, "ABCD1234");
+        expiring.setExpiresAt(LocalDateTime.now().plusNanos(50_000_000));
+        redirectIndex.add(expiring);
+        redirectIndex.add(link(6L, "EFGH5678"));
+
+        // When
+        int early = redirectIndex.evictExpired();
+        Thread.sleep(100);
+        int due = redirectIndex.evictExpired();
+
+        // Then
+        assertEquals(0, early);
+        assertEquals(1, due);
+        assertTrue(redirectIndex.get("EFGH5678").isPresent());
+        assertEquals(1.0, meterRegistry.get("shortener.index.expired").counter().count());
+    }
+
+    @Test
+    void testLoad_ReopenedSnapshot_CatchesUpFromLastIndexedId() {
+        // Given
+        when(shortUrlRepository.findMaxId()).thenReturn(Optional.of(1L), Optional.of(2L));
+        when(shortUrlRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(link(1L, "AAAA1111")));
+        when(shortUrlRepository.findByIdGreaterThanOrderByIdAsc(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(), List.of(link(2L, "BBBB2222")));
+        when(shortUrlRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of());
+        redirectIndex.load();
+        redirectIndex.shutdown();
+
+        // When
+        redirectIndex = newIndex();
+        redirectIndex.load();
+
+        // Then
+        assertTrue(redirectIndex.get("AAAA1111").isPresent());
+        assertTrue(redirectIndex.get("BBBB2222").isPresent());
+        verify(shortUrlRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    void testLoad_SnapshotAheadOfDatabase_Rebuilds() {
+        // Given
+        when(shortUrlRepository.findMaxId()).thenReturn(Optional.of(1L), Optional.empty());
+        when(shortUrlRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(link(1L, "AAAA1111")), List.of());
+        when(shortUrlRepository.findByIdGreaterThanOrderByIdAsc(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of());
+        redirectIndex.load();
+        redirectIndex.shutdown();
+
+        // When - the database has been emptied since the snapshot was written
+        redirectIndex = newIndex();
+        redirectIndex.load();
+
+        // Then
+        assertFalse(redirectIndex.get("AAAA1111").isPresent());
+    }
+
+    private RedirectIndex newIndex() {
+        return new RedirectIndex(shortUrlRepository, transactionManager, meterRegistry, true, directory, 100, 1000);
+    }
+
+    private static ShortUrl link(Long id, String shortCode) {
+        ShortUrl shortUrl = new ShortUrl(shortCode, "https://www.example.com/" + shortCode, "user");
+        shortUrl.setId(id);
+        return shortUrl;
+    }
+}
@@ -0,0 +1,81 @@
+package com.urlshortener.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void testMightContain_AddedCodes_AlwaysTrue() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            filter.add("CODE" + i);
+        }
+
+        // Then
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("CODE" + i));
+        }
+    }
+
+    @Test
+    void testMightContain_EmptyFilter_ReturnsFalse() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+
+        // When/Then
+        assertFalse(filter.mightContain("ABCD1234"));
+        assertEquals(0.0, filter.expectedFalsePositiveRate());
+        assertEquals(0, filter.approximateCount());
+    }
+
+    @Test
+    void testAdd_BeyondCapacity_AppendsStagesAndKeepsTargetRate() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+
+        // When
+        for (int i = 0; i < 20_000; i++) {
+            filter.add("CODE" + i);
+        }
+
+        // Then
+        assertTrue(filter.stageCount() > 1);
+        for (int i = 0; i < 20_000; i++) {
+            assertTrue(filter.mightContain("CODE" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("MISS" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives / 100_000.0 < 0.01, "observed rate " + falsePositives / 100_000.0);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.01);
+        assertTrue(filter.expectedFalsePositiveRate() > 0);
+    }
+
+    @Test
+    void testAdd_DuplicateCode_CountedOnce() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+
+        // When
+        filter.add("ABCD1234");
+        filter.add("ABCD1234");
+
+        // Then
+        assertEquals(1, filter.approximateCount());
+    }
+
+    @Test
+    void testConstructor_InvalidArguments_Throw() {
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(100, 1));
+    }
+}
@@ -0,0 +1,164 @@
+package com.urlshortener.index;
+
+import com.urlshortener.repository.ShortUrlRepository;
+import com.urlshortener.repository.ShortUrlRepository.ShortCodeRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShortCodeBloomFilterTest {
+
+    @Mock
+    private ShortUrlRepository shortUrlRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ShortCodeBloomFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ShortCodeBloomFilter(shortUrlRepository, transactionManager, meterRegistry, true, 100, 0.01);
+    }
+
+    @Test
+    void testMightContain_BeforeRebuild_AlwaysTrue() {
+        // When/Then
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("ABCD1234"));
+        assertEquals(0.0, meterRegistry.get("shortener.bloom.false.positive.rate").gauge().value());
+    }
+
+    @Test
+    void testRebuild_LoadsAllCodesInBatches() {
+        // Given
+        when(shortUrlRepository.findShortCodesAfterId(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(row(1L, "AAAA1111"), row(2L, "BBBB2222")));
+        when(shortUrlRepository.findShortCodesAfterId(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        filter.rebuild();
+
+        // Then
+        assertTrue(filter.isReady());
+        assertTrue(filter.mightContain("AAAA1111"));
+        assertTrue(filter.mightContain("BBBB2222"));
+        assertFalse(filter.mightContain("CCCC3333"));
+        assertEquals(2.0, meterRegistry.get("shortener.bloom.checks").tag("result", "positive").counter().count());
+        assertEquals(1.0, meterRegistry.get("shortener.bloom.checks").tag("result", "negative").counter().count());
+        assertEquals(2.0, meterRegistry.get("shortener.bloom.codes").gauge().value());
+        assertTrue(meterRegistry.get("shortener.bloom.false.positive.rate").gauge().value() > 0);
+    }
+
+    @Test
+    void testAdd_BeforeAndAfterRebuild_IsNeverForgotten() {
+        // Given - a code saved before the first rebuild whose row the scan does not see
+        when(shortUrlRepository.findShortCodesAfterId(eq(0L), any(Pageable.class))).thenReturn(List.of());
+        filter.add("EARLY123");
+
+        // When
+        filter.rebuild();
+        filter.add("LATER123");
+
+        // Then
+        assertTrue(filter.mightContain("EARLY123"));
+        assertTrue(filter.mightContain("LATER123"));
+
+        // And a second rebuild still carries codes added since the first
+        filter.rebuild();
+        assertTrue(filter.mightContain("LATER123"));
+    }
+
+    @Test
+    void testRecordFalsePositive_IncrementsCounter() {
+        // Given
+        when(shortUrlRepository.findShortCodesAfterId(eq(0L), any(Pageable.class))).thenReturn(List.of());
+        filter.rebuild();
+
+        // When
+        filter.recordFalsePositive();
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("shortener.bloom.false.positives").counter().count());
+    }
+
+    @Test
+    void testRecordFalsePositive_WithoutFilter_NotCounted() {
+        // Given
+        SimpleMeterRegistry disabledRegistry = new SimpleMeterRegistry();
+        ShortCodeBloomFilter disabled = new ShortCodeBloomFilter(
+                shortUrlRepository, transactionManager, disabledRegistry, false, 100, 0.01);
+
+        // When - disabled, and enabled before the first build
+        disabled.recordFalsePositive();
+        filter.recordFalsePositive();
+
+        // Then
+        assertEquals(0.0, disabledRegistry.get("shortener.bloom.false.positives").counter().count());
+        assertEquals(0.0, meterRegistry.get("shortener.bloom.false.positives").counter().count());
+    }
+
+    @Test
+    void testDisabled_NeverRebuildsAndAlwaysMightContain() {
+        // Given
+        ShortCodeBloomFilter disabled = new ShortCodeBloomFilter(
+                shortUrlRepository, transactionManager, new SimpleMeterRegistry(), false, 100, 0.01);
+
+        // When
+        disabled.scheduledRebuild();
+        disabled.add("ABCD1234");
+
+        // Then
+        assertTrue(disabled.mightContain("ZZZZ9999"));
+        verifyNoInteractions(shortUrlRepository);
+    }
+
+    @Test
+    void testScheduledRebuild_Failure_KeepsPreviousFilter() {
+        // Given
+        when(shortUrlRepository.findShortCodesAfterId(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(row(1L, "AAAA1111")))
+                .thenThrow(new IllegalStateException("database unavailable"));
+        when(shortUrlRepository.findShortCodesAfterId(eq(1L), any(Pageable.class))).thenReturn(List.of());
+        filter.scheduledRebuild();
+        filter.add("NEWCODE1");
+
+        // When
+        filter.scheduledRebuild();
+
+        // Then
+        assertTrue(filter.mightContain("AAAA1111"));
+        assertTrue(filter.mightContain("NEWCODE1"));
+        assertFalse(filter.mightContain("CCCC3333"));
+    }
+
+    private static ShortCodeRow row(Long id, String shortCode) {
+        return new ShortCodeRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getShortCode() {
+                return shortCode;
+            }
+        };
+    }
+}
@@ -1,21 +1,41 @@
 package com.urlshortener.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urlshortener.analytics.ClickCounter;
+import com.urlshortener.codegen.Base62;
+import com.urlshortener.codegen.CounterCodeAllocator;
 import com.urlshortener.dto.ShortenUrlRequest;
 import com.urlshortener.entity.ShortUrl;
+import com.urlshortener.index.ShortCodeBloomFilter;
+import com.urlshortener.purge.ExpiredLinkPurger;
 import com.urlshortener.repository.ShortUrlRepository;
 import com.urlshortener.service.UrlShortenerService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
+@AutoConfigureMockMvc
 @ActiveProfiles("test")
 @Transactional
 class UrlShortenerIntegrationTest {
@@ -26,6 +46,27 @@ class UrlShortenerIntegrationTest {
     @Autowired
     private ShortUrlRepository shortUrlRepository;
 
+    @Autowired
+    private ClickCounter clickCounter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CounterCodeAllocator counterCodeAllocator;
+
+    @Autowired
+    private ShortCodeBloomFilter shortCodeFilter;
+
+    @Autowired
+    private ExpiredLinkPurger expiredLinkPurger;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private String validUrl;
 
     @BeforeEach
@@ -55,7 +96,10 @@ class UrlShortenerIntegrationTest {
         assertTrue(retrieved.isPresent());
         assertEquals(validUrl, retrieved.get());
 
-        // Verify click count incremented
+        // Verify click count incremented once the pending clicks are flushed
+        assertEquals(1L, clickCounter.pendingCount(shortCode));
+        clickCounter.flush();
+        entityManager.clear();
         Optional<ShortUrl> updated = shortUrlRepository.findByShortCode(shortCode);
         assertTrue(updated.isPresent());
         assertEquals(1L, updated.get().getClickCount());
@@ -119,5 +163,137 @@ class UrlShortenerIntegrationTest {
         assertEquals(validUrl, urlShortenerService.getOriginalUrl(code1).get());
         assertEquals(validUrl, urlShortenerService.getOriginalUrl(code2).get());
     }
-}
 
+    @Test
+    void testShortenUrls_BatchPersistedInRequestOrder() {
+        // Given
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            urls.add("https://www.example.com/batch/" + (i % 100));
+        }
+
+        // When
+        List<String> shortCodes = urlShortenerService.shortenUrls(urls, "marketing", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        assertEquals(120, shortCodes.size());
+        assertEquals(120, new HashSet<>(shortCodes).size());
+        for (int i = 0; i < urls.size(); i++) {
+            ShortUrl saved = shortUrlRepository.findByShortCode(shortCodes.get(i)).orElseThrow();
+            assertEquals(urls.get(i), saved.getOriginalUrl());
+            assertEquals("marketing", saved.getCreatedBy());
+            assertNotNull(saved.getId());
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "importer")
+    void testImport_StreamsPerRowResults() throws Exception {
+        // Given
+        String body = "url\nhttps://www.example.com/import/1\nnot-a-url\nhttps://www.example.com/import/2\n";
+
+        // When/Then
+        String result = mockMvc.perform(post("/api/import")
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = result.split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains("\"line\":3") && lines[0].contains("Invalid URL format"));
+        assertEquals("{\"rows\":3,\"created\":2,\"failed\":1}", lines[3]);
+        assertEquals(2, shortUrlRepository.countByCreatedBy("importer"));
+    }
+
+    @Test
+    void testImport_Anonymous_Forbidden() throws Exception {
+        mockMvc.perform(post("/api/import").contentType("text/csv").content("https://www.example.com\n"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testCounterCodeAllocator_LeasesSequentialCodes() {
+        // When
+        String code1 = counterCodeAllocator.nextCode();
+        String code2 = counterCodeAllocator.nextCode();
+
+        // Then
+        assertEquals(8, code1.length());
+        assertEquals(Base62.decode(code1) + 1, Base62.decode(code2));
+    }
+
+    @Test
+    void testRedirect_ServedAheadOfSecurityChain() throws Exception {
+        // Given
+        String shortCode = urlShortenerService.shortenUrl(validUrl, "testuser");
+        ShortUrl expired = new ShortUrl("EXPIRED1", validUrl, "testuser");
+        expired.setExpiresAt(expired.getCreatedAt().minusDays(1));
+        shortUrlRepository.save(expired);
+        shortCodeFilter.add("EXPIRED1");
+
+        // When/Then
+        mockMvc.perform(get("/{shortCode}", shortCode))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", validUrl));
+        mockMvc.perform(get("/EXPIRED1"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/UNKNOWN1"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/me"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testPurge_DeletesOnlyExpiredLinks() {
+        // Given
+        String liveCode = urlShortenerService.shortenUrl(validUrl, "testuser");
+        ShortUrl expired = new ShortUrl("EXPIRED2", validUrl, "testuser");
+        expired.setExpiresAt(expired.getCreatedAt().minusDays(1));
+        shortUrlRepository.save(expired);
+
+        // When
+        long purged = expiredLinkPurger.purge();
+
+        // Then
+        assertEquals(1L, purged);
+        assertTrue(shortUrlRepository.findByShortCode(liveCode).isPresent());
+        assertTrue(shortUrlRepository.findByShortCode("EXPIRED2").isEmpty());
+    }
+
+    @Test
+    @WithMockUser(username = "pager")
+    void testMyLinks_PagesThroughEveryLinkOnce() throws Exception {
+        // Given
+        Set<String> created = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(urlShortenerService.shortenUrl(validUrl + "/page/" + i, "pager"));
+        }
+        urlShortenerService.shortenUrl(validUrl, "someone-else");
+
+        // When
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/users/me/links").param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("links").forEach(link -> listed.add(link.get("shortCode").asText()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertEquals(3, pages);
+        assertEquals(5, listed.size());
+        assertEquals(created, new HashSet<>(listed));
+    }
+}
@@ -0,0 +1,86 @@
+package com.urlshortener.integration;
+
+import com.urlshortener.service.UrlShortenerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the application with the {@code virtual} profile. Only runs on Java 21+, which
+ * the virtual-threads Maven profile builds for.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "test", "virtual" })
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadsIntegrationTest {
+
+    @Autowired
+    private WebServerApplicationContext context;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private UrlShortenerService urlShortenerService;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void testTomcat_HandlesRequestsOnVirtualThreads() {
+        // When
+        Executor executor = ((TomcatWebServer) context.getWebServer()).getTomcat()
+                .getConnector().getProtocolHandler().getExecutor();
+
+        // Then
+        assertEquals("VirtualThreadExecutor", executor.getClass().getSimpleName());
+    }
+
+    @Test
+    void testTaskExecutor_RunsOnVirtualThreads() throws Exception {
+        // When
+        Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, taskExecutor).get();
+
+        // Then
+        assertTrue(isVirtual(thread));
+    }
+
+    @Test
+    void testRedirect_OverHttp() throws Exception {
+        // Given
+        String shortCode = urlShortenerService.shortenUrl("https://www.example.com/virtual", null);
+        HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+
+        // When
+        HttpResponse<Void> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/" + shortCode)).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        // Then
+        assertEquals(302, response.statusCode());
+        assertEquals("https://www.example.com/virtual", response.headers().firstValue("Location").orElseThrow());
+    }
+
+    /** Thread.isVirtual() through reflection, so the test still compiles for Java 17. */
+    private static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+}
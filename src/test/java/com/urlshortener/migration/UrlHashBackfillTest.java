@@ -0,0 +1,75 @@
+package com.urlshortener.migration;
+
+import com.urlshortener.repository.ShortUrlRepository;
+import com.urlshortener.repository.ShortUrlRepository.UrlRow;
+import com.urlshortener.service.ShortUrlRules;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UrlHashBackfillTest {
+
+    @Mock
+    private ShortUrlRepository shortUrlRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testBackfill_FillsEveryLinkWithoutHashInBatches() {
+        // Given
+        UrlHashBackfill backfill = new UrlHashBackfill(shortUrlRepository, transactionManager, true, 2);
+        when(shortUrlRepository.findUrlsWithoutHashAfterId(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(row(3L, "https://www.example.com/a"), row(7L, "HTTPS://Example.com/b")));
+        when(shortUrlRepository.findUrlsWithoutHashAfterId(eq(7L), any(Pageable.class)))
+                .thenReturn(List.of(row(9L, "https://www.example.com/c")));
+
+        // When
+        long filled = backfill.backfill();
+
+        // Then
+        assertEquals(3L, filled);
+        verify(shortUrlRepository).setUrlHash(3L, ShortUrlRules.urlHash("https://www.example.com/a"));
+        verify(shortUrlRepository).setUrlHash(7L, ShortUrlRules.urlHash("https://example.com/b"));
+        verify(shortUrlRepository).setUrlHash(9L, ShortUrlRules.urlHash("https://www.example.com/c"));
+        verify(shortUrlRepository, never()).findUrlsWithoutHashAfterId(eq(9L), any(Pageable.class));
+    }
+
+    @Test
+    void testBackfill_EveryLinkHashed_UpdatesNothing() {
+        // Given
+        UrlHashBackfill backfill = new UrlHashBackfill(shortUrlRepository, transactionManager, true, 100);
+        when(shortUrlRepository.findUrlsWithoutHashAfterId(anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        long filled = backfill.backfill();
+
+        // Then
+        assertEquals(0L, filled);
+        verify(shortUrlRepository, never()).setUrlHash(anyLong(), anyLong());
+    }
+
+    private static UrlRow row(Long id, String originalUrl) {
+        return new UrlRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getOriginalUrl() {
+                return originalUrl;
+            }
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package com.urlshortener.purge;
+
+import com.urlshortener.cache.RedirectCache;
+import com.urlshortener.index.RedirectIndex;
+import com.urlshortener.repository.ShortUrlRepository;
+import com.urlshortener.repository.ShortUrlRepository.ShortCodeRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredLinkPurgerTest {
+
+    @Mock
+    private ShortUrlRepository shortUrlRepository;
+
+    @Mock
+    private RedirectCache redirectCache;
+
+    @Mock
+    private RedirectIndex redirectIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testPurge_DeletesInChunksAndInvalidatesCaches() {
+        // Given
+        ExpiredLinkPurger purger = newPurger(2, 10);
+        when(shortUrlRepository.findExpiredShortCodes(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(row(1L, "AAAA1111"), row(2L, "BBBB2222")))
+                .thenReturn(List.of(row(3L, "CCCC3333")));
+        deleteEverySelectedRow();
+
+        // When
+        long purged = purger.purge();
+
+        // Then
+        assertEquals(3L, purged);
+        verify(shortUrlRepository).deleteExpiredByIds(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(shortUrlRepository).deleteExpiredByIds(eq(List.of(3L)), any(LocalDateTime.class));
+        verify(redirectCache).invalidate("CCCC3333");
+        verify(redirectIndex).remove("AAAA1111");
+        assertEquals(3.0, meterRegistry.get("shortener.purge.links").counter().count());
+        assertEquals(1L, meterRegistry.get("shortener.purge.duration").timer().count());
+    }
+
+    @Test
+    void testPurge_StopsAtMaxChunksPerRun() {
+        // Given
+        ExpiredLinkPurger purger = newPurger(1, 2);
+        when(shortUrlRepository.findExpiredShortCodes(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(row(1L, "AAAA1111")), List.of(row(2L, "BBBB2222")), List.of(row(3L, "CCCC3333")));
+        deleteEverySelectedRow();
+
+        // When
+        long purged = purger.purge();
+
+        // Then
+        assertEquals(2L, purged);
+        verify(shortUrlRepository, times(2)).deleteExpiredByIds(anyCollection(), any(LocalDateTime.class));
+        verify(redirectCache, never()).invalidate("CCCC3333");
+    }
+
+    @Test
+    void testPurge_LinkExtendedBeforeDelete_NotCountedOrInvalidated() {
+        // Given
+        ExpiredLinkPurger purger = newPurger(10, 10);
+        when(shortUrlRepository.findExpiredShortCodes(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(row(1L, "AAAA1111"), row(2L, "BBBB2222")));
+        when(shortUrlRepository.deleteExpiredByIds(eq(List.of(1L, 2L)), any(LocalDateTime.class))).thenReturn(1);
+        when(shortUrlRepository.findExistingShortCodes(List.of("AAAA1111", "BBBB2222"))).thenReturn(List.of("BBBB2222"));
+
+        // When
+        long purged = purger.purge();
+
+        // Then
+        assertEquals(1L, purged);
+        verify(redirectCache).invalidate("AAAA1111");
+        verify(redirectIndex).remove("AAAA1111");
+        verify(redirectCache, never()).invalidate("BBBB2222");
+        verify(redirectIndex, never()).remove("BBBB2222");
+        assertEquals(1.0, meterRegistry.get("shortener.purge.links").counter().count());
+    }
+
+    @Test
+    void testPurge_NothingExpired_DeletesNothing() {
+        // Given
+        ExpiredLinkPurger purger = newPurger(100, 10);
+        when(shortUrlRepository.findExpiredShortCodes(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        long purged = purger.purge();
+
+        // Then
+        assertEquals(0L, purged);
+        verify(shortUrlRepository, never()).deleteExpiredByIds(anyCollection(), any(LocalDateTime.class));
+        verifyNoInteractions(redirectCache, redirectIndex);
+    }
+
+    @Test
+    void testScheduledPurge_Disabled_DoesNothing() {
+        // Given
+        ExpiredLinkPurger purger = new ExpiredLinkPurger(shortUrlRepository, redirectCache, redirectIndex,
+                transactionManager, meterRegistry, false, 100, 0, 10);
+
+        // When
+        purger.scheduledPurge();
+
+        // Then
+        verifyNoInteractions(shortUrlRepository);
+    }
+
+    private void deleteEverySelectedRow() {
+        when(shortUrlRepository.deleteExpiredByIds(anyCollection(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
+    }
+
+    private ExpiredLinkPurger newPurger(int chunkSize, int maxChunksPerRun) {
+        return new ExpiredLinkPurger(shortUrlRepository, redirectCache, redirectIndex,
+                transactionManager, meterRegistry, true, chunkSize, 0, maxChunksPerRun);
+    }
+
+    private static ShortCodeRow row(Long id, String shortCode) {
+        return new ShortCodeRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getShortCode() {
+                return shortCode;
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.urlshortener.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void testEncodeAndMatches_DelegateAndReleasePermits() {
+        // Given
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(), 2);
+
+        // When
+        String encoded = encoder.encode("secret");
+
+        // Then
+        assertEquals("terces", encoded);
+        assertTrue(encoder.matches("secret", encoded));
+        assertFalse(encoder.matches("other", encoded));
+        assertEquals(2, encoder.availablePermits());
+    }
+
+    @Test
+    void testConstructor_NonPositiveLimit_UsesOnePermitPerCpu() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(), 0);
+        assertEquals(Runtime.getRuntime().availableProcessors(), encoder.availablePermits());
+    }
+
+    @Test
+    void testEncode_ConcurrentCallers_NeverExceedLimit() throws Exception {
+        // Given
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        PasswordEncoder slow = new ReversingEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                active.decrementAndGet();
+                return super.encode(rawPassword);
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        Future<?>[] futures = new Future<?>[32];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = executor.submit(() -> {
+                start.await();
+                return encoder.encode("secret");
+            });
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertTrue(maxActive.get() <= 2, "max concurrent hashes " + maxActive.get());
+        assertEquals(2, encoder.availablePermits());
+    }
+
+    @Test
+    void testEncode_Interrupted_Throws() {
+        // Given
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(), 1);
+        Thread.currentThread().interrupt();
+
+        // When/Then
+        assertThrows(IllegalStateException.class, () -> encoder.encode("secret"));
+        assertTrue(Thread.interrupted());
+    }
+
+    private static class ReversingEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return new StringBuilder(rawPassword).reverse().toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.urlshortener.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlCanonicalizerTest {
+
+    private final UrlCanonicalizer canonicalizer = new UrlCanonicalizer(true, List.of("utm_*", "gclid"));
+
+    @Test
+    void testCanonicalize_SchemeHostPortAndPath() {
+        assertEquals("https://www.example.com/", canonicalizer.canonicalize(" HTTPS://WWW.Example.COM:443 "));
+        assertEquals("http://www.example.com/a/B", canonicalizer.canonicalize("http://www.example.com:80/a/B/"));
+        assertEquals("http://www.example.com:8080/", canonicalizer.canonicalize("http://www.example.com:8080/"));
+        assertEquals("https://User:Pw@example.com/", canonicalizer.canonicalize("https://User:Pw@EXAMPLE.com"));
+        assertEquals("http://[::1]:8080/", canonicalizer.canonicalize("http://[::1]:8080"));
+        assertEquals("http://[::1]/", canonicalizer.canonicalize("http://[::1]:80"));
+    }
+
+    @Test
+    void testCanonicalize_QueryAndFragment() {
+        assertEquals("https://example.com/p?a=1&b=2&b=1",
+                canonicalizer.canonicalize("https://example.com/p?b=2&utm_source=x&a=1&&b=1&GCLID=abc#section"));
+        assertEquals("https://example.com/p", canonicalizer.canonicalize("https://example.com/p?utm_medium=mail"));
+        assertEquals("https://example.com/p", canonicalizer.canonicalize("https://example.com/p#a?b=1"));
+    }
+
+    @Test
+    void testCanonicalize_IsIdempotent() {
+        for (String url : List.of("https://Example.com:443/a/?z=1&a=2#f", "http://example.com", "not a url")) {
+            String canonical = canonicalizer.canonicalize(url);
+            assertEquals(canonical, canonicalizer.canonicalize(canonical));
+        }
+    }
+
+    @Test
+    void testCanonicalize_Disabled_ReturnsInput() {
+        String url = "HTTPS://Example.com:443/?utm_source=x#f";
+        assertSame(url, new UrlCanonicalizer(false, List.of("utm_*")).canonicalize(url));
+    }
+}
@@ -1,18 +1,35 @@
 package com.urlshortener.service;
 
+import com.urlshortener.analytics.ClickCounter;
+import com.urlshortener.cache.RedirectCache;
+import com.urlshortener.codegen.Sha256CodeGenerator;
+import com.urlshortener.codegen.ShortCodeGenerator;
+import com.urlshortener.dto.RedirectTarget;
+import com.urlshortener.entity.CachePolicy;
 import com.urlshortener.entity.ShortUrl;
+import com.urlshortener.index.RedirectIndex;
+import com.urlshortener.index.ShortCodeBloomFilter;
 import com.urlshortener.repository.ShortUrlRepository;
+import com.urlshortener.writebehind.LinkWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,6 +38,27 @@ class UrlShortenerServiceTest {
     @Mock
     private ShortUrlRepository shortUrlRepository;
 
+    @Mock
+    private RedirectCache redirectCache;
+
+    @Mock
+    private ClickCounter clickCounter;
+
+    @Mock
+    private RedirectIndex redirectIndex;
+
+    @Mock
+    private ShortCodeBloomFilter shortCodeFilter;
+
+    @Spy
+    private ShortCodeGenerator shortCodeGenerator = new Sha256CodeGenerator();
+
+    @Mock
+    private LinkWriter linkWriter;
+
+    @Spy
+    private UrlCanonicalizer urlCanonicalizer = new UrlCanonicalizer(false, List.of());
+
     @InjectMocks
     private UrlShortenerService urlShortenerService;
 
@@ -37,6 +75,7 @@ class UrlShortenerServiceTest {
     void testShortenUrl_ValidUrl_ReturnsShortCode() {
         // Given
         String username = "testuser";
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(true);
         when(shortUrlRepository.findByShortCode(anyString())).thenReturn(Optional.empty());
         when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -47,6 +86,61 @@ class UrlShortenerServiceTest {
         assertNotNull(shortCode);
         assertEquals(8, shortCode.length());
         verify(shortUrlRepository, times(1)).save(any(ShortUrl.class));
+        verify(redirectIndex, times(1)).add(argThat(link -> link.getShortCode().equals(shortCode)));
+        verify(shortCodeFilter, times(1)).add(shortCode);
+    }
+
+    @Test
+    void testShortenUrl_WithCachePolicy_StoresPolicy() {
+        // Given
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(false);
+        when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        urlShortenerService.shortenUrl(validUrl, "testuser", CachePolicy.PERMANENT);
+        urlShortenerService.shortenUrl("https://www.example.org", "testuser");
+
+        // Then
+        verify(shortUrlRepository).save(argThat(link -> link.getCachePolicy() == CachePolicy.PERMANENT));
+        verify(shortUrlRepository).save(argThat(link -> link.getCachePolicy() == CachePolicy.NO_STORE));
+    }
+
+    @Test
+    void testShortenUrl_WithTtl_ExpiresAfterTtl() {
+        // Given
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(false);
+        when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        urlShortenerService.shortenUrl(validUrl, "testuser", null, Duration.ofHours(2));
+
+        // Then
+        verify(shortUrlRepository).save(argThat(link ->
+                link.getExpiresAt().equals(link.getCreatedAt().plusHours(2))));
+    }
+
+    @Test
+    void testShortenUrl_InvalidTtl_ThrowsException() {
+        // When/Then
+        assertThrows(IllegalArgumentException.class,
+                () -> urlShortenerService.shortenUrl(validUrl, "testuser", null, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> urlShortenerService.shortenUrl(validUrl, "testuser", null, ShortUrlRules.MAX_TTL.plusDays(1)));
+        verify(shortUrlRepository, never()).save(any(ShortUrl.class));
+    }
+
+    @Test
+    void testShortenUrl_UnseenCode_SkipsUniquenessQuery() {
+        // Given
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(false);
+        when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        String shortCode = urlShortenerService.shortenUrl(validUrl, "testuser");
+
+        // Then
+        verify(shortUrlRepository, never()).findByShortCode(anyString());
+        verify(shortCodeFilter, times(1)).add(shortCode);
     }
 
     @Test
@@ -79,6 +173,7 @@ class UrlShortenerServiceTest {
         String username = "testuser";
         ShortUrl existing = new ShortUrl("ABCD1234", validUrl, username);
         
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(true);
         when(shortUrlRepository.findByShortCode(anyString()))
             .thenReturn(Optional.of(existing))
             .thenReturn(Optional.empty());
@@ -92,13 +187,248 @@ class UrlShortenerServiceTest {
         verify(shortUrlRepository, atLeast(1)).findByShortCode(anyString());
     }
 
+    @Test
+    void testShortenUrl_CustomGenerator_UsesGeneratedCode() {
+        // Given
+        doReturn("0000001a").when(shortCodeGenerator).generate(validUrl, 0);
+        when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        String shortCode = urlShortenerService.shortenUrl(validUrl, "testuser");
+
+        // Then
+        assertEquals("0000001a", shortCode);
+        verify(shortUrlRepository, never()).findByShortCode(anyString());
+        verify(shortCodeFilter, times(1)).add("0000001a");
+    }
+
+    @Test
+    void testShortenUrl_CustomGenerator_AsksForNextAttemptWhenTaken() {
+        // Given
+        doReturn("0000001a").when(shortCodeGenerator).generate(validUrl, 0);
+        doReturn("0000001b").when(shortCodeGenerator).generate(validUrl, 1);
+        when(shortCodeFilter.mightContain("0000001a")).thenReturn(true);
+        when(shortUrlRepository.findByShortCode("0000001a"))
+                .thenReturn(Optional.of(new ShortUrl("0000001a", validUrl, "olduser")));
+        when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        String shortCode = urlShortenerService.shortenUrl(validUrl, "testuser");
+
+        // Then
+        assertEquals("0000001b", shortCode);
+    }
+
+    @Test
+    void testShortenUrl_Deduplicate_ReturnsExistingCode() {
+        // Given
+        urlShortenerService.setDeduplicate(true);
+        ShortUrl otherPolicy = new ShortUrl("PERM0001", validUrl, "testuser");
+        otherPolicy.setCachePolicy(CachePolicy.PERMANENT);
+        ShortUrl existing = new ShortUrl("ABCD1234", validUrl, "testuser");
+        when(shortUrlRepository.findByUrlHashAndCreatedBy(ShortUrlRules.urlHash(validUrl), "testuser"))
+                .thenReturn(List.of(otherPolicy, existing));
+
+        // When
+        String shortCode = urlShortenerService.shortenUrl("https://WWW.Example.COM", "testuser");
+
+        // Then
+        assertEquals("ABCD1234", shortCode);
+        verify(shortUrlRepository, never()).save(any(ShortUrl.class));
+    }
+
+    @Test
+    void testShortenUrl_Deduplicate_ExpiredLinkNotReused() {
+        // Given
+        urlShortenerService.setDeduplicate(true);
+        ShortUrl expired = new ShortUrl("ABCD1234", validUrl, "testuser");
+        expired.setExpiresAt(LocalDateTime.now().minusDays(1));
+        when(shortUrlRepository.findByUrlHashAndCreatedBy(ShortUrlRules.urlHash(validUrl), "testuser"))
+                .thenReturn(List.of(expired));
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(false);
+        when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        urlShortenerService.shortenUrl(validUrl, "testuser");
+
+        // Then
+        verify(shortUrlRepository, times(1)).save(any(ShortUrl.class));
+    }
+
+    @Test
+    void testShortenUrl_DeduplicateOff_SkipsLookup() {
+        // Given
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(false);
+        when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        urlShortenerService.shortenUrl(validUrl, "testuser");
+
+        // Then
+        verify(shortUrlRepository, never()).findByUrlHashAndCreatedBy(any(), any());
+        verify(shortUrlRepository).save(argThat(link -> link.getUrlHash() == ShortUrlRules.urlHash(validUrl)));
+    }
+
+    @Test
+    void testUrlHash_NormalizesSchemeAndHostOnly() {
+        assertEquals("https://User@www.example.com:8080/Path?Q=1",
+                ShortUrlRules.normalizeUrl(" HTTPS://User@WWW.Example.COM:8080/Path?Q=1 "));
+        assertEquals(ShortUrlRules.urlHash("https://www.example.com/a"),
+                ShortUrlRules.urlHash("HTTPS://WWW.EXAMPLE.COM/a"));
+        assertNotEquals(ShortUrlRules.urlHash("https://www.example.com/a"),
+                ShortUrlRules.urlHash("https://www.example.com/A"));
+    }
+
+    @Test
+    void testShortenUrl_Canonicalizes_StoresAndDeduplicatesCanonicalForm() {
+        // Given
+        urlShortenerService.setDeduplicate(true);
+        String variant = "https://WWW.Example.com:443/?utm_source=mail#top";
+        doReturn("https://www.example.com/").when(urlCanonicalizer).canonicalize(variant);
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(false);
+        when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        urlShortenerService.shortenUrl(variant, "testuser");
+
+        // Then
+        verify(shortUrlRepository).findByUrlHashAndCreatedBy(ShortUrlRules.urlHash("https://www.example.com/"), "testuser");
+        verify(shortUrlRepository).save(argThat(link -> link.getOriginalUrl().equals("https://www.example.com/")));
+    }
+
+    @Test
+    void testShortenUrl_WriteBehind_SubmitsWithoutSaving() {
+        // Given
+        when(linkWriter.isEnabled()).thenReturn(true);
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(false);
+
+        // When
+        String shortCode = urlShortenerService.shortenUrl(validUrl, "testuser");
+
+        // Then
+        verify(linkWriter).submit(argThat(link -> link.getShortCode().equals(shortCode)));
+        verify(shortCodeFilter).add(shortCode);
+        verify(shortUrlRepository, never()).save(any(ShortUrl.class));
+        verify(redirectIndex, never()).add(any());
+    }
+
+    @Test
+    void testConstructor_WriteBehindWithHashCodes_Rejected() {
+        // Given
+        when(linkWriter.isEnabled()).thenReturn(true);
+
+        // When/Then
+        assertThrows(IllegalStateException.class, () -> new UrlShortenerService(shortUrlRepository, redirectCache,
+                clickCounter, redirectIndex, shortCodeFilter, new Sha256CodeGenerator(), linkWriter, urlCanonicalizer));
+    }
+
+    @Test
+    void testShortenUrl_WriteBehind_PendingCodeIsTaken() {
+        // Given
+        when(linkWriter.isEnabled()).thenReturn(true);
+        String firstCode = ShortUrlRules.generateShortCode(validUrl);
+        when(shortCodeFilter.mightContain(anyString())).thenAnswer(invocation -> firstCode.equals(invocation.getArgument(0)));
+        when(linkWriter.isPending(firstCode)).thenReturn(true);
+
+        // When
+        String shortCode = urlShortenerService.shortenUrl(validUrl, "testuser");
+
+        // Then
+        assertNotEquals(firstCode, shortCode);
+        verify(shortUrlRepository, never()).findByShortCode(anyString());
+    }
+
+    @Test
+    void testGetOriginalUrl_PendingLink_ServedWithoutDatabase() {
+        // Given
+        ShortUrl pending = new ShortUrl("ABCD1234", validUrl, "testuser");
+        when(redirectCache.get("ABCD1234")).thenReturn(Optional.empty());
+        when(redirectIndex.get("ABCD1234")).thenReturn(Optional.empty());
+        when(linkWriter.getPending("ABCD1234")).thenReturn(Optional.of(pending));
+
+        // When
+        Optional<String> result = urlShortenerService.getOriginalUrl("ABCD1234");
+        Optional<ShortUrl> statistics = urlShortenerService.getStatistics("ABCD1234");
+
+        // Then
+        assertEquals(Optional.of(validUrl), result);
+        assertSame(pending, statistics.orElseThrow());
+        verifyNoInteractions(shortUrlRepository);
+    }
+
+    @Test
+    void testShortenUrls_ReturnsCodesInRequestOrder() {
+        // Given
+        List<String> urls = List.of("https://www.example.com/a", "https://www.example.com/b");
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(true);
+        when(shortUrlRepository.findExistingShortCodes(anyCollection())).thenReturn(List.of());
+
+        // When
+        List<String> shortCodes = urlShortenerService.shortenUrls(urls, "testuser", null);
+
+        // Then
+        assertEquals(List.of(ShortUrlRules.generateShortCode(urls.get(0)), ShortUrlRules.generateShortCode(urls.get(1))),
+                shortCodes);
+        verify(shortUrlRepository, times(1)).findExistingShortCodes(anyCollection());
+        verify(shortUrlRepository).saveAll(argThat(links -> {
+            List<ShortUrl> saved = new ArrayList<>();
+            links.forEach(saved::add);
+            return saved.size() == 2 && saved.get(1).getShortCode().equals(shortCodes.get(1))
+                    && saved.get(1).getOriginalUrl().equals(urls.get(1));
+        }));
+        verify(shortUrlRepository, never()).findByShortCode(anyString());
+    }
+
+    @Test
+    void testShortenUrls_DuplicateAndTakenCodes_Rederived() {
+        // Given
+        String taken = ShortUrlRules.generateShortCode("https://www.example.com/taken");
+        List<String> urls = List.of(validUrl, validUrl, "https://www.example.com/taken");
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(true);
+        when(shortUrlRepository.findExistingShortCodes(anyCollection()))
+                .thenReturn(List.of(taken))
+                .thenReturn(List.of());
+
+        // When
+        List<String> shortCodes = urlShortenerService.shortenUrls(urls, null, CachePolicy.TEMPORARY);
+
+        // Then
+        assertEquals(3, shortCodes.size());
+        assertEquals(3, new HashSet<>(shortCodes).size());
+        assertEquals(ShortUrlRules.generateShortCode(validUrl), shortCodes.get(0));
+        assertNotEquals(taken, shortCodes.get(2));
+        verify(shortUrlRepository, times(2)).findExistingShortCodes(anyCollection());
+        verify(shortCodeFilter, times(3)).add(anyString());
+    }
+
+    @Test
+    void testShortenUrls_UnseenCodes_SkipUniquenessQuery() {
+        // Given
+        when(shortCodeFilter.mightContain(anyString())).thenReturn(false);
+
+        // When
+        urlShortenerService.shortenUrls(List.of(validUrl), null, null);
+
+        // Then
+        verify(shortUrlRepository, never()).findExistingShortCodes(anyCollection());
+    }
+
+    @Test
+    void testShortenUrls_InvalidUrl_NamesPositionAndSavesNothing() {
+        // When/Then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> urlShortenerService.shortenUrls(List.of(validUrl, invalidUrl), null, null));
+        assertEquals("URL 1: Invalid URL format", e.getMessage());
+        verify(shortUrlRepository, never()).saveAll(anyIterable());
+    }
+
     @Test
     void testGetOriginalUrl_ValidCode_ReturnsUrl() {
         // Given
         String shortCode = "ABCD1234";
-        ShortUrl shortUrl = new ShortUrl(shortCode, validUrl, "user");
-        when(shortUrlRepository.findByShortCode(shortCode)).thenReturn(Optional.of(shortUrl));
-        when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        RedirectTarget target = new RedirectTarget(shortCode, validUrl, LocalDateTime.now().plusYears(1));
+        when(shortCodeFilter.mightContain(shortCode)).thenReturn(true);
+        when(shortUrlRepository.findRedirectTargetByShortCode(shortCode)).thenReturn(Optional.of(target));
 
         // When
         Optional<String> result = urlShortenerService.getOriginalUrl(shortCode);
@@ -106,20 +436,120 @@ class UrlShortenerServiceTest {
         // Then
         assertTrue(result.isPresent());
         assertEquals(validUrl, result.get());
-        verify(shortUrlRepository, times(1)).save(any(ShortUrl.class));
+        verify(clickCounter, times(1)).record(shortCode);
+        verify(shortUrlRepository, never()).findByShortCode(anyString());
+        verify(shortUrlRepository, never()).save(any(ShortUrl.class));
+    }
+
+    @Test
+    void testResolve_ValidCode_ReturnsTargetAndRecordsClick() {
+        // Given
+        String shortCode = "ABCD1234";
+        RedirectTarget target = new RedirectTarget(shortCode, validUrl, LocalDateTime.now().plusYears(1),
+                CachePolicy.TEMPORARY);
+        when(redirectCache.get(shortCode)).thenReturn(Optional.of(target));
+
+        // When
+        Optional<RedirectTarget> result = urlShortenerService.resolve(shortCode);
+
+        // Then
+        assertSame(target, result.orElseThrow());
+        verify(clickCounter, times(1)).record(shortCode);
+    }
+
+    @Test
+    void testGetOriginalUrl_ValidCode_PopulatesCache() {
+        // Given
+        String shortCode = "ABCD1234";
+        RedirectTarget target = new RedirectTarget(shortCode, validUrl, LocalDateTime.now().plusYears(1));
+        when(shortCodeFilter.mightContain(shortCode)).thenReturn(true);
+        when(shortUrlRepository.findRedirectTargetByShortCode(shortCode)).thenReturn(Optional.of(target));
+
+        // When
+        urlShortenerService.getOriginalUrl(shortCode);
+
+        // Then
+        verify(redirectCache, times(1)).put(target);
+    }
+
+    @Test
+    void testGetOriginalUrl_CachedCode_SkipsDatabase() {
+        // Given
+        String shortCode = "ABCD1234";
+        RedirectTarget target = new RedirectTarget(shortCode, validUrl, LocalDateTime.now().plusDays(1));
+        when(redirectCache.get(shortCode)).thenReturn(Optional.of(target));
+
+        // When
+        Optional<String> result = urlShortenerService.getOriginalUrl(shortCode);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(validUrl, result.get());
+        verifyNoInteractions(shortUrlRepository);
+        verify(clickCounter, times(1)).record(shortCode);
+    }
+
+    @Test
+    void testGetOriginalUrl_IndexedCode_SkipsDatabase() {
+        // Given
+        String shortCode = "ABCD1234";
+        RedirectTarget target = new RedirectTarget(shortCode, validUrl, LocalDateTime.now().plusDays(1));
+        when(redirectIndex.get(shortCode)).thenReturn(Optional.of(target));
+
+        // When
+        Optional<String> result = urlShortenerService.getOriginalUrl(shortCode);
+
+        // Then
+        assertEquals(Optional.of(validUrl), result);
+        verifyNoInteractions(shortUrlRepository);
+        verify(clickCounter, times(1)).record(shortCode);
+    }
+
+    @Test
+    void testGetOriginalUrl_ExpiredCode_ReturnsEmptyAndIsNotCached() {
+        // Given
+        String shortCode = "ABCD1234";
+        RedirectTarget target = new RedirectTarget(shortCode, validUrl, LocalDateTime.now().minusDays(1));
+        when(shortCodeFilter.mightContain(shortCode)).thenReturn(true);
+        when(shortUrlRepository.findRedirectTargetByShortCode(shortCode)).thenReturn(Optional.of(target));
+
+        // When
+        Optional<String> result = urlShortenerService.getOriginalUrl(shortCode);
+
+        // Then
+        assertFalse(result.isPresent());
+        verify(redirectCache, never()).put(any());
+        verify(clickCounter, never()).record(anyString());
     }
 
     @Test
     void testGetOriginalUrl_InvalidCode_ReturnsEmpty() {
         // Given
         String shortCode = "INVALID";
-        when(shortUrlRepository.findByShortCode(shortCode)).thenReturn(Optional.empty());
+        when(shortCodeFilter.mightContain(shortCode)).thenReturn(true);
+        when(shortUrlRepository.findRedirectTargetByShortCode(shortCode)).thenReturn(Optional.empty());
+
+        // When
+        Optional<String> result = urlShortenerService.getOriginalUrl(shortCode);
+
+        // Then
+        assertFalse(result.isPresent());
+        verify(shortCodeFilter, times(1)).recordFalsePositive();
+    }
+
+    @Test
+    void testGetOriginalUrl_UnknownToBloomFilter_SkipsDatabase() {
+        // Given
+        String shortCode = "RANDOM12";
+        when(shortCodeFilter.mightContain(shortCode)).thenReturn(false);
 
         // When
         Optional<String> result = urlShortenerService.getOriginalUrl(shortCode);
 
         // Then
         assertFalse(result.isPresent());
+        verifyNoInteractions(shortUrlRepository);
+        verify(clickCounter, never()).record(anyString());
     }
 
     @Test
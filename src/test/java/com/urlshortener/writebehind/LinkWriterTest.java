@@ -0,0 +1,252 @@
+package com.urlshortener.writebehind;
+
+import com.urlshortener.entity.CachePolicy;
+import com.urlshortener.entity.ShortUrl;
+import com.urlshortener.index.RedirectIndex;
+import com.urlshortener.index.ShortCodeBloomFilter;
+import com.urlshortener.repository.ShortUrlRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LinkWriterTest {
+
+    @Mock
+    private ShortUrlRepository shortUrlRepository;
+
+    @Mock
+    private RedirectIndex redirectIndex;
+
+    @Mock
+    private ShortCodeBloomFilter shortCodeFilter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path directory;
+
+    private LinkWriter linkWriter;
+
+    @AfterEach
+    void tearDown() {
+        if (linkWriter != null) {
+            linkWriter.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmit_VisibleUntilGroupCommitted() {
+        // Given
+        linkWriter = newWriter(2, true);
+        ShortUrl first = link("AAAA1111");
+
+        // When
+        linkWriter.submit(first);
+
+        // Then
+        assertSame(first, linkWriter.getPending("AAAA1111").orElseThrow());
+        assertTrue(linkWriter.isPending("AAAA1111"));
+        verifyNoInteractions(shortUrlRepository);
+    }
+
+    @Test
+    void testFlush_SavesPendingLinksInGroups() {
+        // Given
+        linkWriter = newWriter(2, false);
+        linkWriter.submit(link("AAAA1111"));
+        linkWriter.submit(link("BBBB2222"));
+        linkWriter.submit(link("CCCC3333"));
+
+        // When
+        linkWriter.flush();
+
+        // Then - the committer may have taken the first full group itself
+        assertEquals(3.0, meterRegistry.get("shortener.links.committed").counter().count());
+        verify(shortUrlRepository, times(2)).saveAll(anyIterable());
+        verify(redirectIndex, times(3)).add(any(ShortUrl.class));
+        assertEquals(0, linkWriter.pendingCount());
+    }
+
+    @Test
+    void testFlush_GroupRejected_RetriesLinksAndDropsRejected() {
+        // Given
+        linkWriter = newWriter(10, true);
+        ShortUrl rejected = link("AAAA1111");
+        linkWriter.submit(rejected);
+        linkWriter.submit(link("BBBB2222"));
+        linkWriter.submit(link("CCCC3333"));
+        when(shortUrlRepository.saveAll(anyIterable())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> {
+            ShortUrl link = invocation.getArgument(0);
+            if (link == rejected) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return link;
+        });
+
+        // When
+        int committed = linkWriter.flush();
+
+        // Then
+        assertEquals(2, committed);
+        assertEquals(0, linkWriter.pendingCount());
+        assertEquals(1.0, meterRegistry.get("shortener.links.dropped").counter().count());
+    }
+
+    @Test
+    void testFlush_DatabaseUnreachable_LeavesGroupPendingWithoutPerLinkRetries() {
+        // Given
+        linkWriter = newWriter(10, true);
+        linkWriter.submit(link("AAAA1111"));
+        linkWriter.submit(link("BBBB2222"));
+        when(shortUrlRepository.saveAll(anyIterable())).thenThrow(new QueryTimeoutException("timeout"));
+
+        // When
+        int committed = linkWriter.flush();
+
+        // Then
+        assertEquals(0, committed);
+        assertTrue(linkWriter.isPending("AAAA1111"));
+        assertTrue(linkWriter.isPending("BBBB2222"));
+        verify(shortUrlRepository, never()).save(any(ShortUrl.class));
+        assertEquals(0.0, meterRegistry.get("shortener.links.dropped").counter().count());
+    }
+
+    @Test
+    void testFlush_LinkAlreadyStored_CountsAsCommitted() {
+        // Given - a commit that went through although the driver reported a failure
+        linkWriter = newWriter(10, false);
+        ShortUrl link = link("AAAA1111");
+        linkWriter.submit(link);
+        when(shortUrlRepository.saveAll(anyIterable())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(shortUrlRepository.save(any(ShortUrl.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(shortUrlRepository.findByShortCode("AAAA1111"))
+                .thenReturn(Optional.of(new ShortUrl("AAAA1111", link.getOriginalUrl(), "user")));
+
+        // When
+        int committed = linkWriter.flush();
+
+        // Then
+        assertEquals(1, committed);
+        assertFalse(linkWriter.isPending("AAAA1111"));
+        verify(redirectIndex).add(link);
+    }
+
+    @Test
+    void testSubmit_ConcurrentSubmitters_EveryLinkJournaled() throws Exception {
+        // Given
+        linkWriter = newWriter(100_000, true);
+        ExecutorService submitters = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int i = 0; i < 400; i++) {
+            String shortCode = String.format("C%07d", i);
+            submitters.execute(() -> linkWriter.submit(link(shortCode)));
+        }
+        submitters.shutdown();
+        assertTrue(submitters.awaitTermination(30, TimeUnit.SECONDS));
+        linkWriter = null;
+        linkWriter = newWriter(100_000, true);
+
+        // Then
+        assertEquals(400, linkWriter.pendingCount());
+        verify(shortCodeFilter, times(400)).add(anyString());
+    }
+
+    @Test
+    void testStart_ReplaysUncommittedJournalLinks() {
+        // Given - a run that crashed with two links journaled, one of which made it in
+        linkWriter = newWriter(10, true);
+        ShortUrl saved = link("AAAA1111");
+        ShortUrl lost = link("BBBB2222");
+        lost.setCachePolicy(CachePolicy.PERMANENT);
+        linkWriter.submit(saved);
+        linkWriter.submit(lost);
+        linkWriter = null;
+        when(shortUrlRepository.findExistingShortCodes(anyCollection())).thenReturn(List.of("AAAA1111"));
+
+        // When
+        linkWriter = newWriter(10, true);
+
+        // Then
+        assertFalse(linkWriter.isPending("AAAA1111"));
+        ShortUrl replayed = linkWriter.getPending("BBBB2222").orElseThrow();
+        assertEquals(lost.getOriginalUrl(), replayed.getOriginalUrl());
+        assertEquals(lost.getExpiresAt(), replayed.getExpiresAt());
+        assertEquals(CachePolicy.PERMANENT, replayed.getCachePolicy());
+        assertEquals(lost.getUrlHash(), replayed.getUrlHash());
+        verify(shortCodeFilter).add("BBBB2222");
+        verify(shortCodeFilter, never()).add("AAAA1111");
+    }
+
+    @Test
+    void testStart_TornRecordIgnored() throws IOException {
+        // Given
+        linkWriter = newWriter(10, true);
+        linkWriter.submit(link("AAAA1111"));
+        linkWriter = null;
+        try (Stream<Path> segments = Files.list(directory)) {
+            Path segment = segments.findFirst().orElseThrow();
+            Files.write(segment, new byte[] { 0, 0, 0, 40, 1, 2 }, StandardOpenOption.APPEND);
+        }
+
+        // When
+        linkWriter = newWriter(10, true);
+
+        // Then
+        assertEquals(1, linkWriter.pendingCount());
+        assertTrue(linkWriter.isPending("AAAA1111"));
+    }
+
+    @Test
+    void testFlush_DeletesCommittedJournalSegments() throws IOException {
+        // Given
+        linkWriter = newWriter(10, true);
+        linkWriter.submit(link("AAAA1111"));
+
+        // When
+        linkWriter.flush();
+
+        // Then
+        try (Stream<Path> segments = Files.list(directory)) {
+            assertTrue(segments.allMatch(segment -> segment.toFile().length() == 0));
+        }
+    }
+
+    private LinkWriter newWriter(int maxBatchSize, boolean journal) {
+        LinkWriter writer = new LinkWriter(shortUrlRepository, redirectIndex, shortCodeFilter, transactionManager,
+                meterRegistry, true, maxBatchSize, 3_600_000L, journal, directory);
+        writer.start();
+        return writer;
+    }
+
+    private static ShortUrl link(String shortCode) {
+        return new ShortUrl(shortCode, "https://www.example.com/" + shortCode, "user");
+    }
+}